@@ -0,0 +1,146 @@
+package ecnu.db.analyzer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import ecnu.db.generator.constraintchain.ConstraintChain;
+import ecnu.db.generator.constraintchain.filter.ConstraintChainFilterNode;
+import ecnu.db.generator.constraintchain.filter.Parameter;
+import ecnu.db.utils.CommonUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * 记录每个query在实例化时涉及的列、参数id以及约束链内容的摘要
+ * 增量实例化时据此找出发生变化的query，只重新计算这些query涉及的列
+ */
+public class InstantiationManifest {
+    private static final String MANIFEST_INFO = "/instantiation.json";
+    // 实例化时会被改写的字段，不计入摘要
+    private static final String PARAMETER_DATA = "data";
+    private static final String OPERATION_PROBABILITY = "probability";
+    private static final String OPERATION_PARAMETERS = "parameters";
+
+    private SortedMap<String, QueryRecord> query2Record = new TreeMap<>();
+
+    /**
+     * @param digest       去除参数data和operation概率后的约束链摘要
+     * @param columns      query的filter涉及的列
+     * @param parameterIds query的filter包含的参数id
+     */
+    public record QueryRecord(String digest, SortedSet<String> columns, SortedSet<Integer> parameterIds) {
+    }
+
+    /**
+     * @param query2constraintChains 实例化之前的约束链
+     * @return 每个query的记录
+     */
+    public static InstantiationManifest build(Map<String, List<ConstraintChain>> query2constraintChains) {
+        InstantiationManifest manifest = new InstantiationManifest();
+        for (Map.Entry<String, List<ConstraintChain>> query2Chains : query2constraintChains.entrySet()) {
+            SortedSet<String> columns = new TreeSet<>();
+            SortedSet<Integer> parameterIds = new TreeSet<>();
+            query2Chains.getValue().stream()
+                    .map(ConstraintChain::getNodes)
+                    .flatMap(Collection::stream)
+                    .filter(ConstraintChainFilterNode.class::isInstance)
+                    .map(ConstraintChainFilterNode.class::cast)
+                    .forEach(filterNode -> {
+                        columns.addAll(filterNode.getColumns());
+                        filterNode.getParameters().stream().map(Parameter::getId).forEach(parameterIds::add);
+                    });
+            String digest = digest(query2Chains.getValue());
+            manifest.query2Record.put(query2Chains.getKey(), new QueryRecord(digest, columns, parameterIds));
+        }
+        return manifest;
+    }
+
+    private static String digest(List<ConstraintChain> constraintChains) {
+        JsonNode content = CommonUtils.MAPPER.valueToTree(constraintChains);
+        removeInstantiatedFields(content);
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = messageDigest.digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void removeInstantiatedFields(JsonNode node) {
+        if (node instanceof ObjectNode objectNode && objectNode.has(OPERATION_PARAMETERS)) {
+            objectNode.remove(OPERATION_PROBABILITY);
+            for (JsonNode parameter : objectNode.get(OPERATION_PARAMETERS)) {
+                if (parameter instanceof ObjectNode parameterNode) {
+                    parameterNode.remove(PARAMETER_DATA);
+                }
+            }
+        }
+        node.forEach(InstantiationManifest::removeInstantiatedFields);
+    }
+
+    /**
+     * @param configPath 配置目录
+     * @return 上一次实例化的记录，不存在时返回null
+     */
+    public static InstantiationManifest load(String configPath) throws IOException {
+        File manifestFile = new File(configPath + MANIFEST_INFO);
+        if (!manifestFile.exists()) {
+            return null;
+        }
+        return CommonUtils.MAPPER.readValue(CommonUtils.readFile(manifestFile.getPath()), InstantiationManifest.class);
+    }
+
+    public void store(String configPath) throws IOException {
+        String content = CommonUtils.MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(this);
+        CommonUtils.writeFile(configPath + MANIFEST_INFO, content);
+    }
+
+    /**
+     * @param previous 上一次实例化的记录
+     * @return 相对previous新增、删除或者内容发生变化的query
+     */
+    public Set<String> changedQueries(InstantiationManifest previous) {
+        Set<String> changedQueries = new TreeSet<>();
+        for (Map.Entry<String, QueryRecord> query2Record : query2Record.entrySet()) {
+            QueryRecord previousRecord = previous.query2Record.get(query2Record.getKey());
+            if (previousRecord == null || !previousRecord.digest().equals(query2Record.getValue().digest())) {
+                changedQueries.add(query2Record.getKey());
+            }
+        }
+        previous.query2Record.keySet().stream()
+                .filter(queryName -> !query2Record.containsKey(queryName))
+                .forEach(changedQueries::add);
+        return changedQueries;
+    }
+
+    /**
+     * @param previous       上一次实例化的记录
+     * @param changedQueries 发生变化的query
+     * @return 变化前后这些query涉及的所有列
+     */
+    public Set<String> changedColumns(InstantiationManifest previous, Set<String> changedQueries) {
+        Set<String> changedColumns = new HashSet<>();
+        for (String queryName : changedQueries) {
+            for (InstantiationManifest manifest : List.of(this, previous)) {
+                QueryRecord queryRecord = manifest.query2Record.get(queryName);
+                if (queryRecord != null) {
+                    changedColumns.addAll(queryRecord.columns());
+                }
+            }
+        }
+        return changedColumns;
+    }
+
+    public SortedMap<String, QueryRecord> getQuery2Record() {
+        return query2Record;
+    }
+
+    public void setQuery2Record(SortedMap<String, QueryRecord> query2Record) {
+        this.query2Record = query2Record;
+    }
+}
@@ -3,55 +3,76 @@ package ecnu.db.analyzer;
 import ecnu.db.LanguageManager;
 import ecnu.db.generator.constraintchain.ConstraintChain;
 import ecnu.db.generator.constraintchain.ConstraintChainManager;
+import ecnu.db.generator.constraintchain.filter.BoolExprNode;
 import ecnu.db.generator.constraintchain.filter.ConstraintChainFilterNode;
+import ecnu.db.generator.constraintchain.filter.LogicNode;
 import ecnu.db.generator.constraintchain.filter.Parameter;
 import ecnu.db.generator.constraintchain.filter.operation.AbstractFilterOperation;
+import ecnu.db.generator.constraintchain.filter.operation.CompareOperator;
 import ecnu.db.generator.constraintchain.filter.operation.MultiVarFilterOperation;
 import ecnu.db.generator.constraintchain.filter.operation.UniVarFilterOperation;
+import ecnu.db.schema.Column;
 import ecnu.db.schema.ColumnManager;
 import ecnu.db.schema.Distribution;
-import ecnu.db.utils.CommonUtils;
+import ecnu.db.utils.QuantileSketch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.*;
 import java.util.concurrent.Callable;
-import java.util.regex.Pattern;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
-import static ecnu.db.utils.CommonUtils.matchPattern;
 
 @CommandLine.Command(name = "instantiate", description = "instantiate the query", mixinStandardHelpOptions = true)
 public class QueryInstantiate implements Callable<Integer> {
 
-    private static final Pattern PATTERN = Pattern.compile("'Mirage#(\\d+)'");
+    private static final String VARIANT_DIR = "/variant_";
+    // 可以在概率相同的单值区间之间替换参数的操作符
+    private static final Set<CompareOperator> VARIANT_OPERATORS = EnumSet.of(CompareOperator.EQ, CompareOperator.NE,
+            CompareOperator.IN, CompareOperator.NOT_IN);
     private static final String WORKLOAD_DIR = "/workload";
     private static final String QUERIES = "/queries";
+    // 每次采样生成的最大行数，采样总数不超过该值时在完整样本上精确选择参数，否则分块写入分位数草图
+    private static final int SAMPLING_CHUNK_SIZE = 1 << 22;
+    private static final double DEFAULT_SKETCH_ERROR = 0.001;
     private final Logger logger = LoggerFactory.getLogger(QueryInstantiate.class);
     private final ResourceBundle rb = LanguageManager.getInstance().getRb();
     @CommandLine.Option(names = {"-c", "--config_path"}, required = true, description = "the config path for instantiating query ")
     private String configPath;
     @CommandLine.Option(names = {"-s", "--sampling_size"}, defaultValue = "4000000", description = "samplingSize")
     private String samplingSize;
+    @CommandLine.Option(names = {"-e", "--sketch_error"}, defaultValue = "0.001", description = "the rank error of the quantile sketch used when sampling_size exceeds one chunk")
+    private String sketchError;
+    @CommandLine.Option(names = {"-i", "--incremental"}, description = "only re-instantiate the columns touched by the queries changed since the last run")
+    private boolean incremental;
+    @CommandLine.Option(names = {"-v", "--variant_num"}, defaultValue = "0", description = "the number of selectivity-preserving query variants to write besides the instantiated queries")
+    private int variantNum;
     private Map<String, List<ConstraintChain>> query2constraintChains;
 
     @Override
     public Integer call() throws IOException {
         init();
         Map<String, String> queryName2QueryTemplates = getQueryName2QueryTemplates();
+        InstantiationManifest manifest = InstantiationManifest.build(query2constraintChains);
+        Set<String> changedColumns = incremental ? getChangedColumns(manifest) : null;
         logger.info(rb.getString("StartInstantiatingTheQueryPlan"));
         List<ConstraintChain> allConstraintChains = query2constraintChains.values().stream().flatMap(Collection::stream).toList();
-        Map<Integer, Parameter> id2Parameter = queryInstantiation(allConstraintChains, Integer.parseInt(samplingSize));
+        Map<Integer, Parameter> id2Parameter = queryInstantiation(allConstraintChains,
+                Integer.parseInt(samplingSize), Double.parseDouble(sketchError), changedColumns);
         logger.info(rb.getString("TheInstantiatedQueryPlanSucceed"), id2Parameter.values());
         logger.info(rb.getString("StartPersistentQueryPlanWithNewDataDistribution"));
         ConstraintChainManager.getInstance().storeConstraintChain(query2constraintChains);
         ColumnManager.getInstance().storeColumnDistribution();
+        manifest.store(configPath);
         logger.info(rb.getString("PersistentQueryPlanCompleted"));
         logger.info(rb.getString("StartPopulatingTheQueryTemplate"));
         writeQuery(queryName2QueryTemplates, id2Parameter);
@@ -62,6 +83,25 @@ public class QueryInstantiate implements Callable<Integer> {
         return null;
     }
 
+    /**
+     * 与上一次实例化的记录比较，载入未变化列的分布
+     *
+     * @param manifest 本次实例化的记录
+     * @return 需要重新实例化的列，没有上一次的记录时返回null，表示全部重新实例化
+     */
+    private Set<String> getChangedColumns(InstantiationManifest manifest) throws IOException {
+        InstantiationManifest previous = InstantiationManifest.load(configPath);
+        if (previous == null) {
+            logger.info(rb.getString("NoInstantiationManifest"));
+            return null;
+        }
+        Set<String> changedQueries = manifest.changedQueries(previous);
+        Set<String> changedColumns = manifest.changedColumns(previous, changedQueries);
+        logger.info(rb.getString("IncrementalInstantiation"), changedQueries, changedColumns.size());
+        ColumnManager.getInstance().loadColumnDistribution();
+        return changedColumns;
+    }
+
     private static List<List<AbstractFilterOperation>> pushDownProbability(List<ConstraintChain> constraintChains) {
         return constraintChains.stream()
                 .map(ConstraintChain::getNodes)
@@ -71,26 +111,38 @@ public class QueryInstantiate implements Callable<Integer> {
                 .map(ConstraintChainFilterNode::pushDownProbability).toList();
     }
 
-    private static void applyUniVarConstraints(List<AbstractFilterOperation> filterOperations) {
-        List<UniVarFilterOperation> uniFilters = filterOperations.stream()
+    /**
+     * 各列的分布相互独立，按列分组后并行实例化，列内保持非等值、等值、多值等值的顺序，结果与串行执行一致
+     */
+    private static void applyUniVarConstraints(List<AbstractFilterOperation> filterOperations, Collection<String> columnNames) {
+        Map<String, List<UniVarFilterOperation>> column2UniFilters = filterOperations.stream()
                 .filter(UniVarFilterOperation.class::isInstance)
                 .sorted(Comparator.comparing(AbstractFilterOperation::getProbability))
-                .map(UniVarFilterOperation.class::cast).toList();
-        uniFilters.stream()
-                .filter(uniFilter -> !uniFilter.getOperator().isEqual())
-                .forEach(UniVarFilterOperation::applyConstraint);
-        uniFilters.stream()
-                .filter(uniFilter -> uniFilter.getOperator().isEqual())
-                .filter(uniFilter -> !uniFilter.getOperator().isMultiEqual())
-                .forEach(UniVarFilterOperation::applyConstraint);
-        uniFilters.stream()
-                .filter(uniFilter -> uniFilter.getOperator().isEqual())
-                .filter(uniFilter -> uniFilter.getOperator().isMultiEqual())
-                .forEach(UniVarFilterOperation::applyConstraint);
-        ColumnManager.getInstance().initAllParameters();
+                .map(UniVarFilterOperation.class::cast)
+                .collect(Collectors.groupingBy(UniVarFilterOperation::getCanonicalColumnName,
+                        LinkedHashMap::new, Collectors.toList()));
+        column2UniFilters.values().parallelStream().forEach(uniFilters -> {
+            uniFilters.stream()
+                    .filter(uniFilter -> !uniFilter.getOperator().isEqual())
+                    .forEach(UniVarFilterOperation::applyConstraint);
+            uniFilters.stream()
+                    .filter(uniFilter -> uniFilter.getOperator().isEqual())
+                    .filter(uniFilter -> !uniFilter.getOperator().isMultiEqual())
+                    .forEach(UniVarFilterOperation::applyConstraint);
+            uniFilters.stream()
+                    .filter(uniFilter -> uniFilter.getOperator().isEqual())
+                    .filter(uniFilter -> uniFilter.getOperator().isMultiEqual())
+                    .forEach(UniVarFilterOperation::applyConstraint);
+        });
+        if (columnNames == null) {
+            ColumnManager.getInstance().initAllParameters();
+        } else {
+            ColumnManager.getInstance().initAllParameters(columnNames);
+        }
 
         // 修正>=和<的参数边界，对其+1，因为数据生成为左开右闭
-        uniFilters.forEach(UniVarFilterOperation::amendParameters);
+        column2UniFilters.values().parallelStream()
+                .forEach(uniFilters -> uniFilters.forEach(UniVarFilterOperation::amendParameters));
     }
 
     private static List<List<AbstractFilterOperation>> getBoundOperations(List<List<AbstractFilterOperation>> allFilterOperations) {
@@ -114,21 +166,38 @@ public class QueryInstantiate implements Callable<Integer> {
         return boundOperations;
     }
 
-    private static void applyMultiVarConstraints(List<AbstractFilterOperation> filterOperations, int samplingSize) {
+    private static void applyMultiVarConstraints(List<AbstractFilterOperation> filterOperations, int samplingSize,
+                                                 double sketchError) {
         // multi-var non-eq sampling
-        Set<String> prepareSamplingColumnName = filterOperations.parallelStream()
+        List<MultiVarFilterOperation> multiVarOperations = filterOperations.stream()
                 .filter(MultiVarFilterOperation.class::isInstance)
-                .map(MultiVarFilterOperation.class::cast)
+                .map(MultiVarFilterOperation.class::cast).toList();
+        if (multiVarOperations.isEmpty()) {
+            return;
+        }
+        Set<String> prepareSamplingColumnName = multiVarOperations.stream()
                 .map(MultiVarFilterOperation::getAllCanonicalColumnNames)
                 .flatMap(Collection::stream).collect(Collectors.toSet());
 
         ColumnManager.getInstance().cacheAttributeColumn(prepareSamplingColumnName);
-        ColumnManager.getInstance().prepareGeneration(samplingSize);
-
-        filterOperations.parallelStream()
-                .filter(MultiVarFilterOperation.class::isInstance)
-                .map(MultiVarFilterOperation.class::cast)
-                .forEach(MultiVarFilterOperation::instantiateMultiVarParameter);
+        if (samplingSize <= SAMPLING_CHUNK_SIZE) {
+            ColumnManager.getInstance().prepareGeneration(samplingSize, 0);
+            multiVarOperations.parallelStream().forEach(MultiVarFilterOperation::instantiateMultiVarParameter);
+            return;
+        }
+        List<QuantileSketch> sketches = new ArrayList<>();
+        for (int i = 0; i < multiVarOperations.size(); i++) {
+            sketches.add(QuantileSketch.ofError(sketchError, i));
+        }
+        for (int sampledSize = 0; sampledSize < samplingSize; sampledSize += SAMPLING_CHUNK_SIZE) {
+            ColumnManager.getInstance().prepareGeneration(Math.min(SAMPLING_CHUNK_SIZE, samplingSize - sampledSize), sampledSize);
+            for (int i = 0; i < multiVarOperations.size(); i++) {
+                multiVarOperations.get(i).sampleArithmeticTree(sketches.get(i));
+            }
+        }
+        for (int i = 0; i < multiVarOperations.size(); i++) {
+            multiVarOperations.get(i).instantiateMultiVarParameter(sketches.get(i));
+        }
     }
 
     private static void boundParas(List<List<AbstractFilterOperation>> boundFilterOperations) {
@@ -155,7 +224,7 @@ public class QueryInstantiate implements Callable<Integer> {
             }
             for (Map.Entry<String, Long> column2Bound : allColumn2Bound.entrySet()) {
                 Distribution distribution = ColumnManager.getInstance().getColumn(column2Bound.getKey()).getDistribution();
-                distribution.getOffset2Pv().put(offset, column2Bound.getValue());
+                distribution.putBoundOffset(offset, column2Bound.getValue());
             }
         }
     }
@@ -169,16 +238,53 @@ public class QueryInstantiate implements Callable<Integer> {
      * @param samplingSize     采样大小
      */
     public static Map<Integer, Parameter> queryInstantiation(List<ConstraintChain> constraintChains, int samplingSize) {
+        return queryInstantiation(constraintChains, samplingSize, DEFAULT_SKETCH_ERROR);
+    }
+
+    /**
+     * @param constraintChains 待计算的约束链
+     * @param samplingSize     采样大小
+     * @param sketchError      采样大小超过一个分块时分位数草图的秩误差
+     */
+    public static Map<Integer, Parameter> queryInstantiation(List<ConstraintChain> constraintChains, int samplingSize,
+                                                             double sketchError) {
+        return queryInstantiation(constraintChains, samplingSize, sketchError, null);
+    }
+
+    /**
+     * 增量实例化时只重新计算changedColumns及与其存在bound关系的列，其余列沿用已经载入的分布和参数
+     *
+     * @param constraintChains 待计算的约束链
+     * @param samplingSize     采样大小
+     * @param sketchError      采样大小超过一个分块时分位数草图的秩误差
+     * @param changedColumns   需要重新实例化的列，为null时重新实例化所有列
+     */
+    public static Map<Integer, Parameter> queryInstantiation(List<ConstraintChain> constraintChains, int samplingSize,
+                                                             double sketchError, Set<String> changedColumns) {
         var allFilterOperations = pushDownProbability(constraintChains);
         var boundFilterOperations = getBoundOperations(allFilterOperations);
 
         List<AbstractFilterOperation> filterOperations = allFilterOperations.stream().flatMap(Collection::stream).toList();
+        List<AbstractFilterOperation> instantiatedOperations = filterOperations;
+        Set<String> instantiatedColumns = null;
+        if (changedColumns != null) {
+            instantiatedColumns = getBoundClosure(changedColumns, boundFilterOperations);
+            ColumnManager.getInstance().resetColumnDistribution(instantiatedColumns);
+            Set<String> columns = instantiatedColumns;
+            instantiatedOperations = filterOperations.stream()
+                    .filter(operation -> operation.getColumns().stream().anyMatch(columns::contains)).toList();
+            boundFilterOperations = boundFilterOperations.stream()
+                    .filter(operations -> operations.stream().map(AbstractFilterOperation::getColumns)
+                            .flatMap(Collection::stream).anyMatch(columns::contains)).toList();
+            restoreParameterValues(filterOperations.stream()
+                    .filter(operation -> operation.getColumns().stream().noneMatch(columns::contains)).toList());
+        }
 
-        applyUniVarConstraints(filterOperations);
+        applyUniVarConstraints(instantiatedOperations, instantiatedColumns);
 
         boundParas(boundFilterOperations);
 
-        applyMultiVarConstraints(filterOperations, samplingSize);
+        applyMultiVarConstraints(instantiatedOperations, samplingSize, sketchError);
 
         Map<Integer, Parameter> id2Parameter = new HashMap<>();
         filterOperations.stream().map(AbstractFilterOperation::getParameters).flatMap(Collection::stream)
@@ -186,6 +292,39 @@ public class QueryInstantiate implements Callable<Integer> {
         return id2Parameter;
     }
 
+    /**
+     * bound参数需要在同一组的列之间对齐偏移，因此同组中任意一列需要重新实例化时，整组的列都需要重新实例化
+     */
+    private static Set<String> getBoundClosure(Set<String> changedColumns, List<List<AbstractFilterOperation>> boundFilterOperations) {
+        Set<String> closure = new HashSet<>(changedColumns);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (List<AbstractFilterOperation> boundOperations : boundFilterOperations) {
+                List<String> boundColumns = boundOperations.stream().map(AbstractFilterOperation::getColumns)
+                        .flatMap(Collection::stream).toList();
+                if (boundColumns.stream().anyMatch(closure::contains)) {
+                    changed |= closure.addAll(boundColumns);
+                }
+            }
+        }
+        return closure;
+    }
+
+    /**
+     * 不需要重新实例化的operation沿用约束链中已经实例化的参数data
+     */
+    private static void restoreParameterValues(List<AbstractFilterOperation> filterOperations) {
+        filterOperations.stream()
+                .filter(UniVarFilterOperation.class::isInstance)
+                .map(UniVarFilterOperation.class::cast)
+                .forEach(UniVarFilterOperation::restoreParameterValues);
+        filterOperations.stream()
+                .filter(MultiVarFilterOperation.class::isInstance)
+                .map(MultiVarFilterOperation.class::cast)
+                .forEach(MultiVarFilterOperation::restoreParameterValues);
+    }
+
     private void init() throws IOException {
         ColumnManager.getInstance().setResultDir(configPath);
         ColumnManager.getInstance().loadColumnMetaData();
@@ -196,36 +335,173 @@ public class QueryInstantiate implements Callable<Integer> {
     }
 
     public void writeQuery(Map<String, String> queryName2QueryTemplates, Map<Integer, Parameter> id2Parameter) throws IOException {
-        for (Map.Entry<String, String> queryName2QueryTemplate : queryName2QueryTemplates.entrySet()) {
-            String query = queryName2QueryTemplate.getValue();
-            File queryPath = new File(configPath + QUERIES);
-            if (!queryPath.exists()) {
-                queryPath.mkdir();
+        File queryPath = new File(configPath + QUERIES);
+        if (!queryPath.exists()) {
+            queryPath.mkdir();
+        }
+        Map<String, QueryTemplate> queryName2Templates = new TreeMap<>();
+        queryName2QueryTemplates.forEach((queryName, template) -> queryName2Templates.put(queryName, QueryTemplate.parse(template)));
+        for (Map.Entry<String, QueryTemplate> queryName2Template : queryName2Templates.entrySet()) {
+            writeQuery(configPath + QUERIES + '/' + queryName2Template.getKey(), queryName2Template.getValue(), id -> {
+                Parameter parameter = id2Parameter.get(id);
+                return parameter == null ? null : parameter.getDataValue();
+            });
+        }
+        writeQueryVariants(queryName2Templates, id2Parameter);
+        queryName2Templates.values().forEach(template ->
+                Arrays.stream(template.getParameterIds()).forEach(id2Parameter::remove));
+    }
+
+    private static void writeQuery(String path, QueryTemplate template, IntFunction<String> id2Value) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(path))) {
+            template.render(id2Value, writer);
+        }
+    }
+
+    /**
+     * 生成选择率相同的查询变体，等值参数替换为同一列中概率相同的单值区间的data，其余参数保持不变
+     * 第k个变体写入queries/variant_k目录，使用k作为随机种子，结果可复现，没有可替换参数的查询不写入变体
+     */
+    private void writeQueryVariants(Map<String, QueryTemplate> queryName2Templates, Map<Integer, Parameter> id2Parameter) throws IOException {
+        if (variantNum <= 0) {
+            return;
+        }
+        Map<Integer, ParameterColumn> parameterId2Column = getParameterColumns(
+                query2constraintChains.values().stream().flatMap(Collection::stream).toList());
+        for (int variantId = 1; variantId <= variantNum; variantId++) {
+            String variantPath = configPath + QUERIES + VARIANT_DIR + variantId;
+            File variantDic = new File(variantPath);
+            if (!variantDic.exists()) {
+                variantDic.mkdir();
             }
-            String path = configPath + QUERIES + '/' + queryName2QueryTemplate.getKey();
-            List<List<String>> matches = matchPattern(PATTERN, query);
-            if (matches.isEmpty()) {
-                CommonUtils.writeFile(path, query);
-            } else {
-                for (List<String> group : matches) {
-                    int parameterId = Integer.parseInt(group.get(1));
-                    Parameter parameter = id2Parameter.remove(parameterId);
-                    if (parameter != null) {
-                        String parameterData = parameter.getDataValue();
-                        try {
-                            if (parameterData.contains("interval")) {
-                                query = query.replaceAll(group.get(0), String.format("%s", parameterData));
-                            } else {
-                                query = query.replaceAll(group.get(0), String.format("'%s'", parameterData));
-                            }
-                        } catch (IllegalArgumentException e) {
-                            logger.error("query is " + query + "; group is " + group + "; parameter data is " + parameterData, e);
-                        }
+            SplittableRandom random = new SplittableRandom(variantId);
+            for (Map.Entry<String, QueryTemplate> queryName2Template : queryName2Templates.entrySet()) {
+                QueryTemplate template = queryName2Template.getValue();
+                Map<Integer, Long> id2Data = drawVariant(template.getParameterIds(), id2Parameter, parameterId2Column, random);
+                if (id2Data.isEmpty()) {
+                    continue;
+                }
+                writeQuery(variantPath + '/' + queryName2Template.getKey(), template, id -> {
+                    Parameter parameter = id2Parameter.get(id);
+                    if (parameter == null) {
+                        return null;
+                    }
+                    Long data = id2Data.get(id);
+                    if (data == null) {
+                        return parameter.getDataValue();
+                    }
+                    Column column = ColumnManager.getInstance().getColumn(parameterId2Column.get(id).columnName());
+                    return parameter.formatDataValue(column.transferDataToValue(data));
+                });
+            }
+        }
+        logger.info(rb.getString("QueryVariantsWritten"), variantNum, configPath + QUERIES + VARIANT_DIR + "*");
+    }
+
+    /**
+     * 单列过滤条件中参数所在的列
+     *
+     * @param columnName 列名
+     * @param variable   是否为可以替换取值的等值类参数
+     */
+    record ParameterColumn(String columnName, boolean variable) {
+    }
+
+    /**
+     * 同一个查询中同一列上data相同的参数作为一组替换为同一个data，组内有不可替换的参数时整组保持不变
+     * 不可替换参数的data将列划分为若干区间，新的data与原data位于同一区间，保证与范围谓词组合后的选择率不变
+     * 同一列的不同组取不同的data，避免IN列表中出现重复值改变选择率
+     *
+     * @return 被替换的参数id到新的data，没有可替换的参数时为空
+     */
+    static Map<Integer, Long> drawVariant(int[] parameterIds, Map<Integer, Parameter> id2Parameter,
+                                         Map<Integer, ParameterColumn> parameterId2Column, SplittableRandom random) {
+        Map<String, SortedMap<Long, List<Parameter>>> column2Data2Parameters = new TreeMap<>();
+        for (int parameterId : parameterIds) {
+            Parameter parameter = id2Parameter.get(parameterId);
+            ParameterColumn parameterColumn = parameterId2Column.get(parameterId);
+            if (parameter != null && parameterColumn != null) {
+                column2Data2Parameters.computeIfAbsent(parameterColumn.columnName(), k -> new TreeMap<>())
+                        .computeIfAbsent(parameter.getData(), k -> new ArrayList<>()).add(parameter);
+            }
+        }
+        Map<Integer, Long> id2Data = new HashMap<>();
+        for (var column2Data2Parameter : column2Data2Parameters.entrySet()) {
+            Column column = ColumnManager.getInstance().getColumn(column2Data2Parameter.getKey());
+            SortedMap<Long, List<Parameter>> data2Parameters = column2Data2Parameter.getValue();
+            Set<Long> usedData = new HashSet<>(data2Parameters.keySet());
+            TreeSet<Long> rangeBounds = new TreeSet<>();
+            data2Parameters.forEach((data, parameters) -> {
+                if (!isVariable(parameters, parameterId2Column)) {
+                    rangeBounds.add(data);
+                }
+            });
+            for (var data2Parameter : data2Parameters.entrySet()) {
+                long data = data2Parameter.getKey();
+                if (rangeBounds.contains(data)) {
+                    continue;
+                }
+                long[] candidates = column.getDistribution().getEqualProbabilityData(data);
+                // 候选data升序排列，只保留与原data位于同一区间的部分
+                Long lowerBound = rangeBounds.lower(data);
+                Long upperBound = rangeBounds.higher(data);
+                int from = lowerBound == null ? 0 : insertionPoint(candidates, lowerBound + 1);
+                int to = upperBound == null ? candidates.length : insertionPoint(candidates, upperBound);
+                if (to - from <= 1) {
+                    continue;
+                }
+                // 从随机位置开始顺序查找第一个未使用的data
+                int start = random.nextInt(to - from);
+                for (int i = 0; i < to - from; i++) {
+                    long candidate = candidates[from + (start + i) % (to - from)];
+                    if (usedData.add(candidate)) {
+                        data2Parameter.getValue().forEach(parameter -> id2Data.put(parameter.getId(), candidate));
+                        break;
                     }
-                    CommonUtils.writeFile(path, query);
                 }
             }
         }
+        return id2Data;
+    }
+
+    private static boolean isVariable(List<Parameter> parameters, Map<Integer, ParameterColumn> parameterId2Column) {
+        return parameters.stream().allMatch(parameter -> parameter.getType() == Parameter.ParameterType.ACTUAL
+                && parameterId2Column.get(parameter.getId()).variable());
+    }
+
+    /**
+     * @return 升序数组中第一个不小于value的位置
+     */
+    private static int insertionPoint(long[] sortedData, long value) {
+        int index = Arrays.binarySearch(sortedData, value);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * @return 单列过滤条件中参数的id到参数所在的列
+     */
+    static Map<Integer, ParameterColumn> getParameterColumns(List<ConstraintChain> constraintChains) {
+        Map<Integer, ParameterColumn> parameterId2Column = new HashMap<>();
+        constraintChains.stream()
+                .map(ConstraintChain::getNodes)
+                .flatMap(Collection::stream)
+                .filter(ConstraintChainFilterNode.class::isInstance)
+                .map(ConstraintChainFilterNode.class::cast)
+                .forEach(filterNode -> collectParameterColumns(filterNode.getRoot(), parameterId2Column));
+        return parameterId2Column;
+    }
+
+    private static void collectParameterColumns(BoolExprNode node, Map<Integer, ParameterColumn> parameterId2Column) {
+        if (node instanceof LogicNode logicNode) {
+            logicNode.getChildren().forEach(child -> collectParameterColumns(child, parameterId2Column));
+        } else if (node instanceof UniVarFilterOperation operation
+                && ColumnManager.getInstance().getColumn(operation.getCanonicalColumnName()) != null) {
+            ParameterColumn parameterColumn = new ParameterColumn(operation.getCanonicalColumnName(),
+                    VARIANT_OPERATORS.contains(operation.getOperator()));
+            // 同一个参数出现在多个过滤条件中时，只有都可以替换才可以替换
+            operation.getParameters().forEach(parameter -> parameterId2Column.merge(parameter.getId(), parameterColumn,
+                    (oldColumn, newColumn) -> oldColumn.variable() ? newColumn : oldColumn));
+        }
     }
 
     private Map<String, String> getQueryName2QueryTemplates() throws IOException {
@@ -0,0 +1,68 @@
+package ecnu.db.analyzer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 预先解析的查询模板，由文本片段和参数位置交替组成，渲染时顺序写出，不需要再扫描模板
+ */
+public class QueryTemplate {
+    private static final Pattern PARAMETER_PATTERN = Pattern.compile("'Mirage#(\\d+)'");
+    private static final String INTERVAL = "interval";
+
+    // segments比parameterIds多一个，第i个参数位于segments[i]与segments[i + 1]之间
+    private final String[] segments;
+    private final int[] parameterIds;
+
+    private QueryTemplate(String[] segments, int[] parameterIds) {
+        this.segments = segments;
+        this.parameterIds = parameterIds;
+    }
+
+    public static QueryTemplate parse(String template) {
+        List<String> segments = new ArrayList<>();
+        List<Integer> parameterIds = new ArrayList<>();
+        Matcher matcher = PARAMETER_PATTERN.matcher(template);
+        int segmentStart = 0;
+        while (matcher.find()) {
+            segments.add(template.substring(segmentStart, matcher.start()));
+            parameterIds.add(Integer.parseInt(matcher.group(1)));
+            segmentStart = matcher.end();
+        }
+        segments.add(template.substring(segmentStart));
+        return new QueryTemplate(segments.toArray(new String[0]), parameterIds.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * @return 模板中出现的参数id，去重并保持首次出现的顺序
+     */
+    public int[] getParameterIds() {
+        return Arrays.stream(parameterIds).distinct().toArray();
+    }
+
+    /**
+     * 将参数值填入模板并写出，interval类型的参数直接写出，其余参数加引号
+     *
+     * @param id2Value 参数id到参数值，返回null时保留原始的占位符
+     * @param out      输出
+     */
+    public void render(IntFunction<String> id2Value, Appendable out) throws IOException {
+        out.append(segments[0]);
+        for (int i = 0; i < parameterIds.length; i++) {
+            String value = id2Value.apply(parameterIds[i]);
+            if (value == null) {
+                out.append("'Mirage#").append(Integer.toString(parameterIds[i])).append('\'');
+            } else if (value.contains(INTERVAL)) {
+                out.append(value);
+            } else {
+                out.append('\'').append(value).append('\'');
+            }
+            out.append(segments[i + 1]);
+        }
+    }
+}
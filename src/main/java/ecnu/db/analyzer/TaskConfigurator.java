@@ -3,13 +3,16 @@ package ecnu.db.analyzer;
 import com.alibaba.druid.DbType;
 import ecnu.db.LanguageManager;
 import ecnu.db.analyzer.online.AbstractAnalyzer;
+import ecnu.db.analyzer.online.FilterCountRequest;
+import ecnu.db.analyzer.online.PreparedQuery;
 import ecnu.db.analyzer.online.QueryAnalyzer;
 import ecnu.db.analyzer.online.adapter.pg.PgAnalyzer;
-import ecnu.db.analyzer.online.adapter.pg.PgJsonReader;
 import ecnu.db.analyzer.online.adapter.tidb.TidbAnalyzer;
 import ecnu.db.analyzer.statical.QueryReader;
 import ecnu.db.analyzer.statical.QueryWriter;
 import ecnu.db.dbconnector.DbConnector;
+import ecnu.db.dbconnector.QueryResultCache;
+import ecnu.db.dbconnector.TableSampleMethod;
 import ecnu.db.dbconnector.adapter.GaussConnector;
 import ecnu.db.dbconnector.adapter.PgConnector;
 import ecnu.db.dbconnector.adapter.Tidb3Connector;
@@ -20,6 +23,10 @@ import ecnu.db.generator.constraintchain.ConstraintChainNode;
 import ecnu.db.generator.constraintchain.agg.ConstraintChainAggregateNode;
 import ecnu.db.generator.constraintchain.filter.ConstraintChainFilterNode;
 import ecnu.db.generator.constraintchain.filter.Parameter;
+import ecnu.db.generator.constraintchain.join.ConstraintChainFkJoinNode;
+import ecnu.db.generator.constraintchain.join.ConstraintChainPkJoinNode;
+import ecnu.db.generator.joininfo.KeySkew;
+import ecnu.db.generator.joininfo.RuleTableManager;
 import ecnu.db.schema.ColumnManager;
 import ecnu.db.schema.Table;
 import ecnu.db.schema.TableManager;
@@ -34,8 +41,10 @@ import java.io.File;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.*;
-import java.util.concurrent.Callable;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static ecnu.db.utils.CommonUtils.MAPPER;
 
@@ -85,41 +94,49 @@ public class TaskConfigurator implements Callable<Integer> {
             TableManager.getInstance().loadSchemaInfo();
             ColumnManager.getInstance().loadColumnMetaData();
         }
-        DbConnector dbConnector;
-        AbstractAnalyzer abstractAnalyzer;
         switch (taskConfiguratorConfig.dbType) {
-            case TIDB3 -> {
-                dbConnector = new Tidb3Connector(config.getDatabaseConnectorConfig());
-                abstractAnalyzer = new TidbAnalyzer();
+            case TIDB3, TIDB4, GAUSS -> {
                 queryWriter.setDbType(DbType.mysql);
                 queryReader.setDbType(DbType.mysql);
             }
-            case TIDB4 -> {
-                dbConnector = new Tidb4Connector(config.getDatabaseConnectorConfig());
-                abstractAnalyzer = new TidbAnalyzer();
-                queryWriter.setDbType(DbType.mysql);
-                queryReader.setDbType(DbType.mysql);
-            }
-            case GAUSS -> {
-                dbConnector = new GaussConnector(config.getDatabaseConnectorConfig());
-                abstractAnalyzer = new PgAnalyzer();
-                queryWriter.setDbType(DbType.mysql);
-                queryReader.setDbType(DbType.mysql);
-                PgJsonReader.setIsGauss();
-            }
             case POSTGRESQL -> {
-                dbConnector = new PgConnector(config.getDatabaseConnectorConfig());
-                abstractAnalyzer = new PgAnalyzer();
                 queryWriter.setDbType(DbType.postgresql);
                 queryReader.setDbType(DbType.postgresql);
             }
             default -> throw new TouchstoneException(rb.getString("UnsupportedDatabaseType"));
         }
-        QueryAnalyzer analyzer = new QueryAnalyzer(abstractAnalyzer, dbConnector);
-        extract(dbConnector, analyzer, queryReader, queryWriter, config.getResultDirectory());
+        // 每个analyzer独占一个数据库连接，连接数即为同时在源数据库上执行的查询数
+        int parallelism = Math.max(taskConfiguratorConfig.parallelism, 1);
+        List<QueryAnalyzer> queryAnalyzers = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            DbConnector dbConnector = createDbConnector(config.getDatabaseConnectorConfig());
+            dbConnector.setTableSample(taskConfiguratorConfig.sampleMethod, taskConfiguratorConfig.samplePercent);
+            queryAnalyzers.add(new QueryAnalyzer(createAnalyzer(), dbConnector));
+        }
+        if (taskConfiguratorConfig.samplePercent > 0 && taskConfiguratorConfig.samplePercent < 100) {
+            logger.info(rb.getString("CollectStatisticsBySample"), taskConfiguratorConfig.sampleMethod, taskConfiguratorConfig.samplePercent);
+        }
+        extract(queryAnalyzers, queryReader, queryWriter, config.getResultDirectory());
         return 0;
     }
 
+    private DbConnector createDbConnector(DatabaseConnectorConfig config) throws TouchstoneException, SQLException {
+        return switch (taskConfiguratorConfig.dbType) {
+            case TIDB3 -> new Tidb3Connector(config);
+            case TIDB4 -> new Tidb4Connector(config);
+            case GAUSS -> new GaussConnector(config);
+            case POSTGRESQL -> new PgConnector(config);
+        };
+    }
+
+    private AbstractAnalyzer createAnalyzer() {
+        return switch (taskConfiguratorConfig.dbType) {
+            case TIDB3, TIDB4 -> new TidbAnalyzer();
+            case GAUSS -> new PgAnalyzer(true);
+            case POSTGRESQL -> new PgAnalyzer(false);
+        };
+    }
+
     public void dealWithUnknownTable(Set<String> unKnownCols, Table table,
                                      String canonicalTableName,
                                      Map<String, Set<String>> tableName2Columns) {
@@ -211,9 +228,14 @@ public class TaskConfigurator implements Callable<Integer> {
         return query2constraintChains;
     }
 
-    public void extract(DbConnector dbConnector, QueryAnalyzer queryAnalyzer, QueryReader queryReader,
-                        QueryWriter queryWriter, String resultDir) throws IOException, TouchstoneException, SQLException {
+    public void extract(List<QueryAnalyzer> queryAnalyzers, QueryReader queryReader, QueryWriter queryWriter,
+                        String resultDir) throws IOException, TouchstoneException, SQLException {
+        DbConnector dbConnector = queryAnalyzers.getFirst().getDbConnector();
         List<File> queryFiles = querySchemaMetadataAndColumnMetadata(queryReader, dbConnector);
+        // 表结构和表大小确定后才能计算数据库指纹，所有连接共享同一个缓存
+        QueryResultCache queryResultCache = new QueryResultCache(resultDir,
+                QueryResultCache.fingerprint(TableManager.getInstance().getSchemas()), taskConfiguratorConfig.refreshCache);
+        queryAnalyzers.forEach(queryAnalyzer -> queryAnalyzer.getDbConnector().setQueryResultCache(queryResultCache));
         Map<String, List<ConstraintChain>> query2constraintChains = new HashMap<>();
         Map<String, String> queryName2QueryTemplates = new HashMap<>();
         logger.info(rb.getString("StartGettingQueryPlans"));
@@ -221,27 +243,39 @@ public class TaskConfigurator implements Callable<Integer> {
                 .filter(queryFile -> queryFile.getName().endsWith(SQL_FILE_POSTFIX)).toList();
         queryFiles = new LinkedList<>(queryFiles);
         queryFiles.sort(Comparator.comparing(File::getName));
+        List<AnalyzeTask> analyzeTasks = new ArrayList<>();
         for (File queryFile : queryFiles) {
             List<String> queries = queryReader.getQueriesFromFile(queryFile.getPath());
             for (int i = 0; i < queries.size(); i++) {
                 String query = queries.get(i);
                 String queryCanonicalName = queryFile.getName().replace(SQL_FILE_POSTFIX, "_" + (i + 1) + SQL_FILE_POSTFIX);
-                logger.info(rb.getString("StartGetting"), queryCanonicalName);
-                queryAnalyzer.setAliasDic(queryReader.getTableAlias(query));
-                List<Parameter> parameters = new ArrayList<>();
-                List<List<ConstraintChain>> constraintChainsOfMultiplePlans = queryAnalyzer.extractQuery(query);
-                int subPlanIndex = 0;
-                for (List<ConstraintChain> constraintChains : constraintChainsOfMultiplePlans) {
-                    if (subPlanIndex++ > 0) {
-                        query2constraintChains.put(queryCanonicalName + "_" + subPlanIndex, constraintChains);
-                    } else {
-                        query2constraintChains.put(queryCanonicalName, constraintChains);
-                    }
-                    buildColumnName2ParameterID(constraintChains);
-                    parameters.addAll(constraintChains.stream().flatMap((c -> c.getParameters().stream())).toList());
+                // queryReader返回的别名表会被后续查询修改，提交任务前复制一份
+                analyzeTasks.add(new AnalyzeTask(queryCanonicalName, query, new HashMap<>(queryReader.getTableAlias(query))));
+            }
+        }
+        List<List<List<ConstraintChain>>> results = analyzeQueries(queryAnalyzers, analyzeTasks);
+        logger.info(rb.getString("QueryCacheStatistics"), queryResultCache.getHitCount(), queryResultCache.getMissCount());
+        // 按照query的顺序合并结果，参数id和join tag按出现顺序重新编号，保证输出与并发度无关
+        int nextParameterId = 0;
+        Map<String, Integer> table2NextJoinTag = new HashMap<>();
+        for (int taskIndex = 0; taskIndex < analyzeTasks.size(); taskIndex++) {
+            String queryCanonicalName = analyzeTasks.get(taskIndex).queryCanonicalName();
+            List<List<ConstraintChain>> constraintChainsOfMultiplePlans = results.get(taskIndex);
+            nextParameterId = renumberParameters(constraintChainsOfMultiplePlans, nextParameterId);
+            renumberJoinTags(constraintChainsOfMultiplePlans, table2NextJoinTag);
+            List<Parameter> parameters = new ArrayList<>();
+            int subPlanIndex = 0;
+            for (List<ConstraintChain> constraintChains : constraintChainsOfMultiplePlans) {
+                if (subPlanIndex++ > 0) {
+                    query2constraintChains.put(queryCanonicalName + "_" + subPlanIndex, constraintChains);
+                } else {
+                    query2constraintChains.put(queryCanonicalName, constraintChains);
                 }
-                queryName2QueryTemplates.put(queryCanonicalName, queryWriter.templatizeSql(queryCanonicalName, query, parameters));
+                buildColumnName2ParameterID(constraintChains);
+                parameters.addAll(constraintChains.stream().flatMap((c -> c.getParameters().stream())).toList());
             }
+            queryName2QueryTemplates.put(queryCanonicalName,
+                    queryWriter.templatizeSql(queryCanonicalName, analyzeTasks.get(taskIndex).query(), parameters));
         }
         writeWithoutParameterValue();
         logger.info(rb.getString("GetQueryPlanDone"));
@@ -249,6 +283,9 @@ public class TaskConfigurator implements Callable<Integer> {
         TableManager.getInstance().adjustFks();
         TableManager.getInstance().storeSchemaInfo();
         logger.info(rb.getString("PersistentTableReferenceInformationSucceeded"));
+        if (taskConfiguratorConfig.keySkewBuckets > 0) {
+            collectKeySkew(dbConnector, resultDir);
+        }
         query2constraintChains = checkQueryConstraintChains(query2constraintChains);
         logger.info(rb.getString("StartPersistentQueryPlan"));
         ConstraintChainManager.getInstance().storeConstraintChain(query2constraintChains);
@@ -258,6 +295,167 @@ public class TaskConfigurator implements Callable<Integer> {
         logger.info(rb.getString("FillInTheQueryTemplateComplete"));
     }
 
+    /**
+     * @param queryCanonicalName query的名称
+     * @param query              query语句
+     * @param aliasDic           query中的表别名
+     */
+    private record AnalyzeTask(String queryCanonicalName, String query, Map<String, String> aliasDic) {
+    }
+
+    /**
+     * analyzer在给定的输入上执行的操作
+     */
+    @FunctionalInterface
+    private interface AnalyzeFunction<T, R> {
+        R apply(QueryAnalyzer queryAnalyzer, T input) throws Exception;
+    }
+
+    /**
+     * 分三个阶段分析query，每个阶段内并发执行，阶段之间等待所有任务完成
+     * 1. 获取查询计划并解析查询树，收集索引扫描节点的过滤计数请求
+     * 2. 所有query在同一张表上的过滤计数合并为一次表扫描
+     * 3. 使用计数结果构造约束链
+     *
+     * @return 与analyzeTasks顺序一致的约束链
+     */
+    private List<List<List<ConstraintChain>>> analyzeQueries(List<QueryAnalyzer> queryAnalyzers, List<AnalyzeTask> analyzeTasks)
+            throws SQLException {
+        BlockingQueue<QueryAnalyzer> idleAnalyzers = new ArrayBlockingQueue<>(queryAnalyzers.size(), false, queryAnalyzers);
+        try (ExecutorService executor = Executors.newFixedThreadPool(queryAnalyzers.size())) {
+            List<PreparedQuery> preparedQueries = runWithAnalyzers(executor, idleAnalyzers, analyzeTasks, (queryAnalyzer, analyzeTask) -> {
+                logger.info(rb.getString("StartGetting"), analyzeTask.queryCanonicalName());
+                queryAnalyzer.setAliasDic(analyzeTask.aliasDic());
+                return queryAnalyzer.prepareQuery(analyzeTask.query());
+            });
+            Map<String, List<FilterCountRequest>> table2Requests = preparedQueries.stream()
+                    .flatMap(preparedQuery -> preparedQuery.getFilterCountRequests().stream())
+                    .collect(Collectors.groupingBy(FilterCountRequest::getTableName, TreeMap::new, Collectors.toList()));
+            runWithAnalyzers(executor, idleAnalyzers, new ArrayList<>(table2Requests.entrySet()), (queryAnalyzer, table2Request) -> {
+                QueryAnalyzer.countRowsAfterFilters(queryAnalyzer.getDbConnector(), table2Request.getKey(), table2Request.getValue());
+                return null;
+            });
+            logger.info(rb.getString("CountFiltersInBatch"), table2Requests.values().stream().mapToInt(List::size).sum(), table2Requests.size());
+            List<Integer> taskIndexes = IntStream.range(0, analyzeTasks.size()).boxed().toList();
+            return runWithAnalyzers(executor, idleAnalyzers, taskIndexes, (queryAnalyzer, taskIndex) -> {
+                // join条件的解析依赖第一阶段补充后的别名表
+                queryAnalyzer.setAliasDic(analyzeTasks.get(taskIndex).aliasDic());
+                return queryAnalyzer.extractConstraintChains(preparedQueries.get(taskIndex));
+            });
+        }
+    }
+
+    /**
+     * 每个线程从空闲队列中取出一个analyzer处理输入，analyzer之间不共享解析状态和数据库连接
+     *
+     * @return 与inputs顺序一致的结果
+     */
+    private static <T, R> List<R> runWithAnalyzers(ExecutorService executor, BlockingQueue<QueryAnalyzer> idleAnalyzers,
+                                                   List<T> inputs, AnalyzeFunction<T, R> function) throws SQLException {
+        List<Future<R>> futures = new ArrayList<>(inputs.size());
+        for (T input : inputs) {
+            futures.add(executor.submit(() -> {
+                QueryAnalyzer queryAnalyzer = idleAnalyzers.take();
+                try {
+                    return function.apply(queryAnalyzer, input);
+                } finally {
+                    idleAnalyzers.put(queryAnalyzer);
+                }
+            }));
+        }
+        try {
+            List<R> results = new ArrayList<>(futures.size());
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * 各个analyzer的parser独立分配参数id，同一个query的参数也可能来自不同的analyzer
+     * 合并时按照参数对象在约束链中的出现顺序重新编号，聚合节点上的过滤条件也一并编号
+     *
+     * @param constraintChainsOfMultiplePlans 一个query的约束链
+     * @param firstParameterId                第一个参数的新id
+     * @return 下一个可用的参数id
+     */
+    static int renumberParameters(List<List<ConstraintChain>> constraintChainsOfMultiplePlans, int firstParameterId) {
+        // 同一个参数对象可能出现多次，只分配一个id
+        Map<Parameter, Integer> parameter2NewId = new IdentityHashMap<>();
+        constraintChainsOfMultiplePlans.stream().flatMap(Collection::stream)
+                .flatMap(constraintChain -> constraintChain.getNodes().stream())
+                .flatMap(node -> switch (node) {
+                    case ConstraintChainFilterNode filterNode -> filterNode.getParameters().stream();
+                    case ConstraintChainAggregateNode aggregateNode when aggregateNode.getAggFilter() != null ->
+                            aggregateNode.getAggFilter().getParameters().stream();
+                    default -> Stream.<Parameter>empty();
+                })
+                .forEach(parameter -> parameter2NewId.putIfAbsent(parameter, firstParameterId + parameter2NewId.size()));
+        parameter2NewId.forEach(Parameter::setId);
+        return firstParameterId + parameter2NewId.size();
+    }
+
+    /**
+     * 各个analyzer按照完成的先后从表上分配join tag，合并时按照query的顺序为每张主键表重新分配
+     * join tag在每张主键表上唯一，pk join和fk join节点按照(主键表, 原tag)映射到同一个新tag
+     *
+     * @param constraintChainsOfMultiplePlans 一个query的约束链
+     * @param table2NextJoinTag               每张主键表下一个可用的join tag
+     */
+    static void renumberJoinTags(List<List<ConstraintChain>> constraintChainsOfMultiplePlans,
+                                 Map<String, Integer> table2NextJoinTag) {
+        Map<String, Map<Integer, Integer>> table2NewJoinTags = new HashMap<>();
+        // 同一个节点对象可能出现在多条约束链中，只重新编号一次
+        Set<ConstraintChainNode> renumberedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (List<ConstraintChain> constraintChains : constraintChainsOfMultiplePlans) {
+            for (ConstraintChain constraintChain : constraintChains) {
+                for (ConstraintChainNode node : constraintChain.getNodes()) {
+                    if (!renumberedNodes.add(node)) {
+                        continue;
+                    }
+                    if (node instanceof ConstraintChainPkJoinNode pkJoinNode) {
+                        pkJoinNode.setPkTag(getNewJoinTag(table2NewJoinTags, table2NextJoinTag,
+                                constraintChain.getTableName(), pkJoinNode.getPkTag()));
+                    } else if (node instanceof ConstraintChainFkJoinNode fkJoinNode) {
+                        String[] refCol = fkJoinNode.getRefCols().split("\\.");
+                        fkJoinNode.setPkTag(getNewJoinTag(table2NewJoinTags, table2NextJoinTag,
+                                refCol[0] + "." + refCol[1], fkJoinNode.getPkTag()));
+                    }
+                }
+            }
+        }
+    }
+
+    private static int getNewJoinTag(Map<String, Map<Integer, Integer>> table2NewJoinTags,
+                                     Map<String, Integer> table2NextJoinTag, String pkTable, int joinTag) {
+        return table2NewJoinTags.computeIfAbsent(pkTable, k -> new HashMap<>())
+                .computeIfAbsent(joinTag, k -> table2NextJoinTag.merge(pkTable, 1, Integer::sum) - 1);
+    }
+
+    private void collectKeySkew(DbConnector dbConnector, String resultDir) throws SQLException, IOException {
+        Map<String, KeySkew> fkCol2KeySkew = new TreeMap<>();
+        for (Map.Entry<String, Table> tableName2Table : TableManager.getInstance().getSchemas().entrySet()) {
+            for (String fkCol : tableName2Table.getValue().getForeignKeys().keySet()) {
+                logger.info(rb.getString("StartGettingKeySkew"), fkCol);
+                double[] histogram = dbConnector.getKeyFrequencyHistogram(tableName2Table.getKey(),
+                        fkCol.split("\\.")[2], taskConfiguratorConfig.keySkewBuckets);
+                if (histogram.length > 0) {
+                    fkCol2KeySkew.put(fkCol, new KeySkew(histogram));
+                }
+            }
+        }
+        RuleTableManager.storeKeySkew(resultDir, fkCol2KeySkew);
+    }
+
     private void writeWithoutParameterValue() throws IOException {
         Map<String, List<List<Integer>>> column2IdList = new HashMap<>();
         for (Map.Entry<String, Map<String, List<Integer>>> column2ID : columnName2ParameterID.entrySet()) {
@@ -299,6 +497,22 @@ public class TaskConfigurator implements Callable<Integer> {
         private TouchstoneDbType dbType;
         @CommandLine.Option(names = {"-l", "--load"}, description = "load the configuration from the previous result")
         private boolean isLoad;
+        @CommandLine.Option(names = {"--key_skew_buckets"}, defaultValue = "0",
+                description = "collect the frequency histogram of foreign keys with the given bucket number, 0 to disable")
+        private int keySkewBuckets;
+        @CommandLine.Option(names = {"--parallelism"}, defaultValue = "1",
+                description = "the number of queries analyzed concurrently, each holds its own database connection, default value: '${DEFAULT-VALUE}'")
+        private int parallelism;
+        @CommandLine.Option(names = {"--refresh_cache"},
+                description = "ignore the query plans and counts recorded by previous runs, re-execute them and overwrite the records")
+        private boolean refreshCache;
+        @CommandLine.Option(names = {"--sample_percent"}, defaultValue = "0",
+                description = "collect column distributions and NDVs from a sample of the given percentage, only for postgresql and gauss, " +
+                        "0 to collect them exactly, default value: '${DEFAULT-VALUE}'")
+        private double samplePercent;
+        @CommandLine.Option(names = {"--sample_method"}, defaultValue = "SYSTEM",
+                description = "TABLESAMPLE method used by --sample_percent: ${COMPLETION-CANDIDATES}, default value: '${DEFAULT-VALUE}'")
+        private TableSampleMethod sampleMethod;
     }
 
     static class OthersConfig {
@@ -0,0 +1,45 @@
+package ecnu.db.analyzer.online;
+
+import ecnu.db.analyzer.online.node.FilterNode;
+import ecnu.db.generator.constraintchain.filter.LogicNode;
+
+/**
+ * 索引扫描节点的过滤行数请求，查询计划中的行数受外层join的影响，需要在表上重新计数
+ * 同一张表的请求合并为一次扫描，计数返回后才能计算过滤节点的概率
+ */
+public class FilterCountRequest {
+    private final FilterNode filterNode;
+    // 去除其他表条件后的过滤条件
+    private final LogicNode filter;
+    private boolean counted = false;
+
+    FilterCountRequest(FilterNode filterNode, LogicNode filter) {
+        this.filterNode = filterNode;
+        this.filter = filter;
+    }
+
+    public String getTableName() {
+        return filterNode.getTableName();
+    }
+
+    public String getFilterInfo() {
+        return filter.toString();
+    }
+
+    LogicNode getFilter() {
+        return filter;
+    }
+
+    FilterNode getFilterNode() {
+        return filterNode;
+    }
+
+    public boolean isCounted() {
+        return counted;
+    }
+
+    public void setRowsAfterFilter(int rowsAfterFilter) {
+        filterNode.setOutputRows(rowsAfterFilter);
+        counted = true;
+    }
+}
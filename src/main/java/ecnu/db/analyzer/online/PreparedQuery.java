@@ -0,0 +1,35 @@
+package ecnu.db.analyzer.online;
+
+import ecnu.db.analyzer.online.node.ExecutionNode;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一个query解析出的查询树，以及构造约束链之前需要完成的过滤计数请求
+ */
+public class PreparedQuery {
+    private final List<ExecutionNode> executionTrees;
+    private final List<FilterCountRequest> filterCountRequests;
+    // ExecutionNode的equals依赖可变的行数，按照对象查找请求
+    private final Map<ExecutionNode, FilterCountRequest> node2Request = new IdentityHashMap<>();
+
+    PreparedQuery(List<ExecutionNode> executionTrees, List<FilterCountRequest> filterCountRequests) {
+        this.executionTrees = executionTrees;
+        this.filterCountRequests = filterCountRequests;
+        filterCountRequests.forEach(request -> node2Request.put(request.getFilterNode(), request));
+    }
+
+    List<ExecutionNode> getExecutionTrees() {
+        return executionTrees;
+    }
+
+    public List<FilterCountRequest> getFilterCountRequests() {
+        return filterCountRequests;
+    }
+
+    FilterCountRequest getFilterCountRequest(ExecutionNode node) {
+        return node2Request.get(node);
+    }
+}
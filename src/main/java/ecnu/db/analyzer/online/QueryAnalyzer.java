@@ -54,6 +54,10 @@ public class QueryAnalyzer {
         abstractAnalyzer.setAliasDic(aliasDic);
     }
 
+    public DbConnector getDbConnector() {
+        return dbConnector;
+    }
+
 
     /**
      * 根据输入的列名统计非重复值的个数，进而给出该列是否为主键
@@ -282,7 +286,8 @@ public class QueryAnalyzer {
      * @param path 需要处理的路径
      * @return 获取的约束链
      */
-    private ConstraintChain extractConstraintChain(List<ExecutionNode> path, Set<ExecutionNode> inputNodes) throws TouchstoneException, SQLException {
+    private ConstraintChain extractConstraintChain(List<ExecutionNode> path, Set<ExecutionNode> inputNodes,
+                                                   PreparedQuery preparedQuery) throws TouchstoneException, SQLException {
         if (path == null || path.isEmpty()) {
             throw new TouchstoneException(String.format("invalid path input '%s'", path));
         }
@@ -294,11 +299,16 @@ public class QueryAnalyzer {
             constraintChain = new ConstraintChain(headNode.getTableName());
             FilterNode filterNode = (FilterNode) headNode;
             if (filterNode.getInfo() != null) {
-                LogicNode result = analyzeSelectInfo(filterNode.getInfo());
-                if (filterNode.isIndexScan()) {
-                    result.removeOtherTablesOperation(filterNode.getTableName());
-                    int rowsAfterFilter = dbConnector.getRowsAfterFilter(filterNode.getTableName(), result.toString());
-                    filterNode.setOutputRows(rowsAfterFilter);
+                LogicNode result;
+                FilterCountRequest filterCountRequest = preparedQuery.getFilterCountRequest(filterNode);
+                if (filterCountRequest != null) {
+                    // 索引扫描的过滤行数已经在构造约束链之前批量计数
+                    if (!filterCountRequest.isCounted()) {
+                        throw new TouchstoneException(String.format("fail to count rows after filter '%s'", filterCountRequest.getFilterInfo()));
+                    }
+                    result = filterCountRequest.getFilter();
+                } else {
+                    result = analyzeSelectInfo(filterNode.getInfo());
                 }
                 BigDecimal ratio = computeFilterProbability(filterNode.getOutputRows(), TableManager.getInstance().getTableSize(filterNode.getTableName()));
                 constraintChain.addNode(new ConstraintChainFilterNode(ratio, result));
@@ -362,9 +372,27 @@ public class QueryAnalyzer {
      * @return 该查询树结构出的约束链信息和表信息
      */
     public List<List<ConstraintChain>> extractQuery(String query) throws SQLException {
+        PreparedQuery preparedQuery = prepareQuery(query);
+        Map<String, List<FilterCountRequest>> table2Requests = preparedQuery.getFilterCountRequests().stream()
+                .collect(Collectors.groupingBy(FilterCountRequest::getTableName, LinkedHashMap::new, Collectors.toList()));
+        for (Map.Entry<String, List<FilterCountRequest>> tableName2Requests : table2Requests.entrySet()) {
+            countRowsAfterFilters(dbConnector, tableName2Requests.getKey(), tableName2Requests.getValue());
+        }
+        return extractConstraintChains(preparedQuery);
+    }
+
+    /**
+     * 获取查询计划并解析为查询树，收集索引扫描节点的过滤计数请求
+     * 计数请求完成之前不能构造约束链，多个query的请求可以合并后再计数
+     *
+     * @param query 查询语句
+     * @return 查询树和过滤计数请求
+     */
+    public PreparedQuery prepareQuery(String query) throws SQLException {
         List<String[]> queryPlan = dbConnector.explainQuery(query);
         List<List<String[]>> queryPlans = abstractAnalyzer.splitQueryPlan(queryPlan);
         List<ExecutionNode> executionTrees = new LinkedList<>();
+        List<FilterCountRequest> filterCountRequests = new ArrayList<>();
         try {
             for (List<String[]> plan : queryPlans) {
                 executionTrees.add(abstractAnalyzer.getExecutionTree(plan));
@@ -383,6 +411,59 @@ public class QueryAnalyzer {
                 logger.error(queryPlanContent, e);
             }
         }
+        for (ExecutionNode executionTree : executionTrees) {
+            List<List<ExecutionNode>> paths = new ArrayList<>();
+            getPathsIterate(executionTree, paths, new LinkedList<>());
+            for (List<ExecutionNode> path : paths) {
+                if (path.getFirst() instanceof FilterNode filterNode && filterNode.isIndexScan() && filterNode.getInfo() != null) {
+                    try {
+                        LogicNode filter = analyzeSelectInfo(filterNode.getInfo());
+                        filter.removeOtherTablesOperation(filterNode.getTableName());
+                        filterCountRequests.add(new FilterCountRequest(filterNode, filter));
+                    } catch (TouchstoneException e) {
+                        logger.error(path.toString(), e);
+                    }
+                }
+            }
+        }
+        return new PreparedQuery(executionTrees, filterCountRequests);
+    }
+
+    /**
+     * 一次扫描完成同一张表上的所有过滤计数请求，批量计数失败时逐个计数，仍然失败的请求对应的约束链会被略去
+     *
+     * @param dbConnector 执行计数的数据库连接
+     * @param tableName   表名
+     * @param requests    该表上的过滤计数请求
+     */
+    public static void countRowsAfterFilters(DbConnector dbConnector, String tableName, List<FilterCountRequest> requests) {
+        List<String> filterInfos = requests.stream().map(FilterCountRequest::getFilterInfo).toList();
+        try {
+            int[] rowsAfterFilters = dbConnector.getRowsAfterFilters(tableName, filterInfos);
+            for (int i = 0; i < requests.size(); i++) {
+                requests.get(i).setRowsAfterFilter(rowsAfterFilters[i]);
+            }
+            return;
+        } catch (SQLException e) {
+            logger.warn("fail to count {} filters on {} in one scan, count them one by one", requests.size(), tableName, e);
+        }
+        for (FilterCountRequest request : requests) {
+            try {
+                request.setRowsAfterFilter(dbConnector.getRowsAfterFilter(tableName, request.getFilterInfo()));
+            } catch (SQLException e) {
+                logger.error("fail to count rows after filter {}", request.getFilterInfo(), e);
+            }
+        }
+    }
+
+    /**
+     * 在过滤计数完成后构造约束链
+     *
+     * @param preparedQuery 查询树和已经完成的过滤计数请求
+     * @return 该查询树结构出的约束链信息和表信息
+     */
+    public List<List<ConstraintChain>> extractConstraintChains(PreparedQuery preparedQuery) {
+        List<ExecutionNode> executionTrees = preparedQuery.getExecutionTrees();
         List<List<ConstraintChain>> constraintChains = new ArrayList<>();
         for (ExecutionNode executionTree : executionTrees) {
             //获取查询树的所有路径
@@ -395,7 +476,7 @@ public class QueryAnalyzer {
             try (ForkJoinPool forkJoinPool = new ForkJoinPool(paths.size())) {
                 constraintChains.add(new ArrayList<>(forkJoinPool.submit(() -> paths.parallelStream().map(path -> {
                     try {
-                        return extractConstraintChain(path, inputNodes);
+                        return extractConstraintChain(path, inputNodes, preparedQuery);
                     } catch (Exception e) {
                         logger.error(path.toString(), e);
                         return null;
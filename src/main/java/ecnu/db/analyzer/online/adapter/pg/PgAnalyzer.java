@@ -50,49 +50,58 @@ public class PgAnalyzer extends AbstractAnalyzer {
     private static final Pattern HASH_SUB_PLAN = Pattern.compile("\\(NOT \\(hashed SubPlan \\d+\\)\\)");
     private static final Pattern SUB_QUERY = Pattern.compile("(\\()(\\s)*(SELECT)(.+)(FROM)(.+)(\\))");
     private final PgSelectOperatorInfoParser parser = new PgSelectOperatorInfoParser(new PgSelectOperatorInfoLexer(new StringReader("")), new ComplexSymbolFactory());
+    private final PgJsonReader jsonReader;
     public StringBuilder pathForSplit = null;
     private final ResourceBundle rb = LanguageManager.getInstance().getRb();
 
     public PgAnalyzer() {
+        this(false);
+    }
+
+    /**
+     * @param isGauss 是否解析openGauss的查询计划，openGauss的Actual Rows已经是所有loop的总行数
+     */
+    public PgAnalyzer(boolean isGauss) {
         super();
         this.nodeTypeRef = new PgNodeTypeInfo();
+        this.jsonReader = new PgJsonReader(isGauss);
     }
 
     @Override
     public ExecutionNode getExecutionTree(List<String[]> queryPlans) throws TouchstoneException, IOException, SQLException {
         String queryPlan = queryPlans.stream().map(queryPlanLine -> queryPlanLine[0]).collect(Collectors.joining());
-        PgJsonReader.setReadContext(queryPlan);
+        jsonReader.setReadContext(queryPlan);
         if (queryPlan.contains("= subquery")) {
             transformHashJoin2AggForOpenGauss(queryPlan);
         }
-        return getExecutionTreeRes(PgJsonReader.skipNodes(PgJsonReader.getRootPath()));
+        return getExecutionTreeRes(jsonReader.skipNodes(PgJsonReader.getRootPath()));
     }
 
     public void transformHashJoin2AggForOpenGauss(String queryPlan) {
-        StringBuilder subQueryJoinNodePath = getJoinNodeWithSubQuery(PgJsonReader.skipNodes(PgJsonReader.getRootPath()));
-        StringBuilder leftChildNode = PgJsonReader.skipNodes(PgJsonReader.move2LeftChild(subQueryJoinNodePath));
-        PgJsonReader.deleteOutPut();
-        String leftPlan = PgJsonReader.readPlan(leftChildNode, 0) + "," + PgJsonReader.readPlan(leftChildNode, 1);
-        String rightPlan = PgJsonReader.readPlan(subQueryJoinNodePath, 1);
-        PgJsonReader.setReadContext(queryPlan);
+        StringBuilder subQueryJoinNodePath = getJoinNodeWithSubQuery(jsonReader.skipNodes(PgJsonReader.getRootPath()));
+        StringBuilder leftChildNode = jsonReader.skipNodes(PgJsonReader.move2LeftChild(subQueryJoinNodePath));
+        jsonReader.deleteOutPut();
+        String leftPlan = jsonReader.readPlan(leftChildNode, 0) + "," + jsonReader.readPlan(leftChildNode, 1);
+        String rightPlan = jsonReader.readPlan(subQueryJoinNodePath, 1);
+        jsonReader.setReadContext(queryPlan);
         if (rightPlan.contains(leftPlan)) {
-            PgJsonReader.deleteTree(leftChildNode);
+            jsonReader.deleteTree(leftChildNode);
         }
     }
 
     public StringBuilder getJoinNodeWithSubQuery(StringBuilder currentNode) {
-        if (PgJsonReader.readNodeType(currentNode).equals("Hash Join") &&
-                PgJsonReader.readJoinCond(currentNode).contains("= subquery")) {
+        if (jsonReader.readNodeType(currentNode).equals("Hash Join") &&
+                jsonReader.readJoinCond(currentNode).contains("= subquery")) {
             return currentNode;
         }
-        int plansCount = PgJsonReader.readPlansCount(currentNode);
+        int plansCount = jsonReader.readPlansCount(currentNode);
         if (plansCount == 0) {
             return null;
         } else {
-            StringBuilder leftChildPath = PgJsonReader.skipNodes(PgJsonReader.move2LeftChild(currentNode));
+            StringBuilder leftChildPath = jsonReader.skipNodes(PgJsonReader.move2LeftChild(currentNode));
             StringBuilder leftNodePath = getJoinNodeWithSubQuery(leftChildPath);
             if (leftNodePath == null && plansCount > 1) {
-                StringBuilder rightChildPath = PgJsonReader.skipNodes(PgJsonReader.move2RightChild(currentNode));
+                StringBuilder rightChildPath = jsonReader.skipNodes(PgJsonReader.move2RightChild(currentNode));
                 leftNodePath = getJoinNodeWithSubQuery(rightChildPath);
             }
             return leftNodePath;
@@ -102,24 +111,24 @@ public class PgAnalyzer extends AbstractAnalyzer {
     public ExecutionNode getExecutionTreeRes(StringBuilder currentNodePath) throws TouchstoneException, IOException, SQLException {
         ExecutionNode leftNode = null;
         ExecutionNode rightNode = null;
-        int plansCount = PgJsonReader.readPlansCount(currentNodePath);
+        int plansCount = jsonReader.readPlansCount(currentNodePath);
         if (plansCount >= 2) {
-            StringBuilder leftChildPath = PgJsonReader.skipNodes(PgJsonReader.move2LeftChild(currentNodePath));
+            StringBuilder leftChildPath = jsonReader.skipNodes(PgJsonReader.move2LeftChild(currentNodePath));
             leftNode = getExecutionTreeRes(leftChildPath);
-            StringBuilder rightChildPath = PgJsonReader.skipNodes(PgJsonReader.move2RightChild(currentNodePath));
+            StringBuilder rightChildPath = jsonReader.skipNodes(PgJsonReader.move2RightChild(currentNodePath));
             rightNode = getExecutionTreeRes(rightChildPath);
         } else if (plansCount == 1) {
             //todo fix only for query 20
             if (canNotDeal(currentNodePath)) {
                 pathForSplit = currentNodePath;
-                String tableName = PgJsonReader.readTableName(currentNodePath.toString());
+                String tableName = jsonReader.readTableName(currentNodePath.toString());
                 long tableSize = TableManager.getInstance().getTableSize(tableName);
-                aliasDic.put(PgJsonReader.readAlias(currentNodePath.toString()), tableName);
+                aliasDic.put(jsonReader.readAlias(currentNodePath.toString()), tableName);
                 ExecutionNode subNode = new FilterNode(currentNodePath.toString(), tableSize, null);
                 subNode.setTableName(tableName);
                 return subNode;
             }
-            StringBuilder leftChildPath = PgJsonReader.skipNodes(PgJsonReader.move2LeftChild(currentNodePath));
+            StringBuilder leftChildPath = jsonReader.skipNodes(PgJsonReader.move2LeftChild(currentNodePath));
             leftNode = getExecutionTreeRes(leftChildPath);
             rightNode = transferSubPlan2AntiJoin(currentNodePath);
         }
@@ -135,17 +144,17 @@ public class PgAnalyzer extends AbstractAnalyzer {
                 logger.info("generate agg from hash join for opengauss");
                 node = leftNode;
             } else if (rightNode.getType() == ExecutionNodeType.FILTER && rightNode.getInfo() != null && ((FilterNode) rightNode).isIndexScan()) {
-                long rowsRemoveByFilterAfterJoin = PgJsonReader.readRowsRemoved(PgJsonReader.skipNodes(PgJsonReader.move2RightChild(currentNodePath)));
+                long rowsRemoveByFilterAfterJoin = jsonReader.readRowsRemoved(jsonReader.skipNodes(PgJsonReader.move2RightChild(currentNodePath)));
                 ((JoinNode) node).setRowsRemoveByFilterAfterJoin(rowsRemoveByFilterAfterJoin);
-                String indexJoinFilter = PgJsonReader.readFilterInfo(PgJsonReader.skipNodes(PgJsonReader.move2RightChild(currentNodePath)));
+                String indexJoinFilter = jsonReader.readFilterInfo(jsonReader.skipNodes(PgJsonReader.move2RightChild(currentNodePath)));
                 ((JoinNode) node).setIndexJoinFilter(removeRedundancy(indexJoinFilter, true));
             }
         }
         //create agg node
         if (plansCount == 3) {
-            StringBuilder thirdChildPath = PgJsonReader.skipNodes(PgJsonReader.move3ThirdChild(currentNodePath));
+            StringBuilder thirdChildPath = jsonReader.skipNodes(PgJsonReader.move3ThirdChild(currentNodePath));
             ExecutionNode parentAggNode = createParentAggNode(currentNodePath, thirdChildPath);
-            int rowCount = PgJsonReader.readRowCount(currentNodePath) + PgJsonReader.readRowsRemovedByJoinFilter(currentNodePath);
+            int rowCount = jsonReader.readRowCount(currentNodePath) + jsonReader.readRowsRemovedByJoinFilter(currentNodePath);
             if (node != null) {
                 node.setOutputRows(rowCount);
             }
@@ -156,7 +165,7 @@ public class PgAnalyzer extends AbstractAnalyzer {
         if (pathForSplit != null) {
             if (PgJsonReader.move2LeftChild(currentNodePath).toString().contentEquals(pathForSplit) ||
                     PgJsonReader.move2RightChild(currentNodePath).toString().contentEquals(pathForSplit)) {
-                node.setOutputRows(PgJsonReader.readActualLoops(PgJsonReader.move2LeftChild(pathForSplit)));
+                node.setOutputRows(jsonReader.readActualLoops(PgJsonReader.move2LeftChild(pathForSplit)));
             }
         }
         return node;
@@ -165,8 +174,8 @@ public class PgAnalyzer extends AbstractAnalyzer {
 
     private ExecutionNode transferSubPlan2AntiJoin(StringBuilder path) {
         //todo multiple subPlans
-        String filterInfo = PgJsonReader.readFilterInfo(path);
-        if (nodeTypeRef.isFilterNode(PgJsonReader.readNodeType(path)) && filterInfo != null) {
+        String filterInfo = jsonReader.readFilterInfo(path);
+        if (nodeTypeRef.isFilterNode(jsonReader.readNodeType(path)) && filterInfo != null) {
             Matcher notHashSubPlan = HASH_SUB_PLAN.matcher(filterInfo);
             if (notHashSubPlan.find()) {
                 int count = 1;
@@ -174,10 +183,10 @@ public class PgAnalyzer extends AbstractAnalyzer {
                     count++;
                 }
                 if (count == 1) {
-                    String tableName = PgJsonReader.readTableName(path.toString());
-                    aliasDic.put(PgJsonReader.readAlias(path.toString()), tableName);
-                    int outPutCount = PgJsonReader.readRowCount(path);
-                    int removedCount = PgJsonReader.readRowsRemoved(path);
+                    String tableName = jsonReader.readTableName(path.toString());
+                    aliasDic.put(jsonReader.readAlias(path.toString()), tableName);
+                    int outPutCount = jsonReader.readRowCount(path);
+                    int removedCount = jsonReader.readRowsRemoved(path);
                     int rowCount = outPutCount + removedCount;
                     StringBuilder rightPath = PgJsonReader.move2RightChild(path);
                     FilterNode currentRightNode = new FilterNode(rightPath.toString(), rowCount, null);
@@ -197,7 +206,7 @@ public class PgAnalyzer extends AbstractAnalyzer {
 
     private ExecutionNode getFilterNode(StringBuilder path, long rowCount) throws CannotFindSchemaException {
         String planId = path.toString();
-        String filterInfo = PgJsonReader.readFilterInfo(path);
+        String filterInfo = jsonReader.readFilterInfo(path);
         if (filterInfo != null && filterInfo.contains("(NOT (hashed SubPlan")) {
             Matcher hashSubPlan = HASH_SUB_PLAN.matcher(filterInfo);
             int count = 0;
@@ -210,11 +219,11 @@ public class PgAnalyzer extends AbstractAnalyzer {
                 throw new UnsupportedOperationException();
             }
         } else {
-            String tableName = PgJsonReader.readTableName(path.toString());
-            aliasDic.put(PgJsonReader.readAlias(path.toString()), tableName);
+            String tableName = jsonReader.readTableName(path.toString());
+            aliasDic.put(jsonReader.readAlias(path.toString()), tableName);
             FilterNode node = new FilterNode(planId, rowCount, transColumnName(filterInfo));
             node.setTableName(tableName);
-            if (nodeTypeRef.isIndexScanNode(PgJsonReader.readNodeType(path))) {
+            if (nodeTypeRef.isIndexScanNode(jsonReader.readNodeType(path))) {
                 if (filterInfo == null) {
                     node.setOutputRows(TableManager.getInstance().getTableSize(tableName));
                 } else {
@@ -228,8 +237,8 @@ public class PgAnalyzer extends AbstractAnalyzer {
 
     private ExecutionNode transferFilter2AntiJoin(StringBuilder path, long rowCount) {
         StringBuilder leftNodePath = PgJsonReader.move2LeftChild(path);
-        List<String> leftNodeResult = PgJsonReader.readOutput(leftNodePath);
-        List<String> outPut = PgJsonReader.readOutput(path);
+        List<String> leftNodeResult = jsonReader.readOutput(leftNodePath);
+        List<String> outPut = jsonReader.readOutput(path);
         String joinInfo = "";
         for (String s : leftNodeResult) {
             String antiJoinTable1 = s.split("\\.")[0];
@@ -249,10 +258,10 @@ public class PgAnalyzer extends AbstractAnalyzer {
     }
 
     private ExecutionNode getJoinNode(StringBuilder path, int rowCount) {
-        String joinInfo = switch (PgJsonReader.readNodeType(path)) {
-            case "Hash Join" -> PgJsonReader.readHashJoin(path);
-            case "Nested Loop" -> PgJsonReader.readIndexJoin(path);
-            case "Merge Join" -> PgJsonReader.readMergeJoin(path);
+        String joinInfo = switch (jsonReader.readNodeType(path)) {
+            case "Hash Join" -> jsonReader.readHashJoin(path);
+            case "Nested Loop" -> jsonReader.readIndexJoin(path);
+            case "Merge Join" -> jsonReader.readMergeJoin(path);
             default -> throw new UnsupportedOperationException();
         };
         if (joinInfo.equals("needReadDeep")) {
@@ -260,45 +269,45 @@ public class PgAnalyzer extends AbstractAnalyzer {
             System.out.println(joinInfo);
         }
         BigDecimal pkDistinctProbability = BigDecimal.ZERO;
-        if (PgJsonReader.isOutJoin(path)) {
-            StringBuilder leftChildPath = PgJsonReader.skipNodes(PgJsonReader.move2LeftChild(path));
-            StringBuilder rightChildPath = PgJsonReader.skipNodes(PgJsonReader.move2RightChild(path));
+        if (jsonReader.isOutJoin(path)) {
+            StringBuilder leftChildPath = jsonReader.skipNodes(PgJsonReader.move2LeftChild(path));
+            StringBuilder rightChildPath = jsonReader.skipNodes(PgJsonReader.move2RightChild(path));
             int pkRowCount, fkRowCount;
-            if (PgJsonReader.isRightOuterJoin(path)) {
-                pkRowCount = PgJsonReader.readRowCount(rightChildPath);
-                fkRowCount = PgJsonReader.readRowCount(leftChildPath);
-            } else if (PgJsonReader.isLeftOuterJoin(path)) {
-                fkRowCount = PgJsonReader.readRowCount(rightChildPath);
-                pkRowCount = PgJsonReader.readRowCount(leftChildPath);
+            if (jsonReader.isRightOuterJoin(path)) {
+                pkRowCount = jsonReader.readRowCount(rightChildPath);
+                fkRowCount = jsonReader.readRowCount(leftChildPath);
+            } else if (jsonReader.isLeftOuterJoin(path)) {
+                fkRowCount = jsonReader.readRowCount(rightChildPath);
+                pkRowCount = jsonReader.readRowCount(leftChildPath);
             } else {
                 throw new UnsupportedOperationException();
             }
             pkDistinctProbability = BigDecimal.valueOf(pkRowCount + fkRowCount - rowCount)
                     .divide(BigDecimal.valueOf(fkRowCount), DECIMAL_DIVIDE_SCALE, RoundingMode.HALF_UP);
             rowCount = fkRowCount;
-        } else if (PgJsonReader.isAntiJoin(path)) {
-            StringBuilder leftChildPath = PgJsonReader.skipNodes(PgJsonReader.move2LeftChild(path));
-            rowCount = PgJsonReader.readRowCount(leftChildPath) - rowCount;
+        } else if (jsonReader.isAntiJoin(path)) {
+            StringBuilder leftChildPath = jsonReader.skipNodes(PgJsonReader.move2LeftChild(path));
+            rowCount = jsonReader.readRowCount(leftChildPath) - rowCount;
         }
-        boolean isSemiJoin = PgJsonReader.isAntiJoin(path) || PgJsonReader.isSemiJoin(path);
-        return new JoinNode(path.toString(), rowCount, joinInfo, PgJsonReader.isAntiJoin(path), isSemiJoin, pkDistinctProbability);
+        boolean isSemiJoin = jsonReader.isAntiJoin(path) || jsonReader.isSemiJoin(path);
+        return new JoinNode(path.toString(), rowCount, joinInfo, jsonReader.isAntiJoin(path), isSemiJoin, pkDistinctProbability);
     }
 
     String readDeep(StringBuilder path) {
         String currentJoinCond = null;
-        StringBuilder leftChildPath = PgJsonReader.skipNodes(PgJsonReader.move2LeftChild(path));
-        StringBuilder rightChildPath = PgJsonReader.skipNodes(PgJsonReader.move2RightChild(path));
-        String leftType = PgJsonReader.readNodeType(leftChildPath);
-        String rightType = PgJsonReader.readNodeType(rightChildPath);
+        StringBuilder leftChildPath = jsonReader.skipNodes(PgJsonReader.move2LeftChild(path));
+        StringBuilder rightChildPath = jsonReader.skipNodes(PgJsonReader.move2RightChild(path));
+        String leftType = jsonReader.readNodeType(leftChildPath);
+        String rightType = jsonReader.readNodeType(rightChildPath);
         if (rightType.equals("Nested Loop")) {
-            String joinCond = PgJsonReader.readIndexJoin(rightChildPath);
+            String joinCond = jsonReader.readIndexJoin(rightChildPath);
             if (joinCond.equals("needReadDeep")) {
                 currentJoinCond = readDeep(rightChildPath);
             } else {
                 joinCond = joinCond.replace("Index Cond: (", "");
                 joinCond = joinCond.substring(0, (joinCond.length() - 1));
-                String table1 = PgJsonReader.readTableName(PgJsonReader.skipNodes(PgJsonReader.move2LeftChild(rightChildPath)).toString()).split("\\.")[1];
-                String table2 = PgJsonReader.readTableName(PgJsonReader.skipNodes(PgJsonReader.move2RightChild(rightChildPath)).toString()).split("\\.")[1];
+                String table1 = jsonReader.readTableName(jsonReader.skipNodes(PgJsonReader.move2LeftChild(rightChildPath)).toString()).split("\\.")[1];
+                String table2 = jsonReader.readTableName(jsonReader.skipNodes(PgJsonReader.move2RightChild(rightChildPath)).toString()).split("\\.")[1];
                 List<String> joinCondList = List.of(joinCond.split("AND"));
                 for (String eachCond : joinCondList) {
                     if (!eachCond.contains(table1) || !eachCond.contains(table2)) {
@@ -307,12 +316,12 @@ public class PgAnalyzer extends AbstractAnalyzer {
                 }
             }
         } else if (leftType.equals("Nested Loop")) {
-            String joinCond = PgJsonReader.readIndexJoin(leftChildPath);
+            String joinCond = jsonReader.readIndexJoin(leftChildPath);
             if (joinCond.equals("needReadDeep")) {
                 currentJoinCond = readDeep(leftChildPath);
             } else {
-                String table1 = PgJsonReader.readTableName(PgJsonReader.skipNodes(PgJsonReader.move2LeftChild(leftChildPath)).toString()).split("\\.")[1];
-                String table2 = PgJsonReader.readTableName(PgJsonReader.skipNodes(PgJsonReader.move2RightChild(leftChildPath)).toString()).split("\\.")[1];
+                String table1 = jsonReader.readTableName(jsonReader.skipNodes(PgJsonReader.move2LeftChild(leftChildPath)).toString()).split("\\.")[1];
+                String table2 = jsonReader.readTableName(jsonReader.skipNodes(PgJsonReader.move2RightChild(leftChildPath)).toString()).split("\\.")[1];
                 List<String> joinCondList = List.of(joinCond.split("AND"));
                 for (String eachCond : joinCondList) {
                     if (!eachCond.contains(table1) || !eachCond.contains(table2)) {
@@ -331,10 +340,10 @@ public class PgAnalyzer extends AbstractAnalyzer {
     }
 
     private ExecutionNode getAggregationNode(StringBuilder path, int rowCount) {
-        List<String> groupKey = PgJsonReader.readGroupKey(path);
+        List<String> groupKey = jsonReader.readGroupKey(path);
         String groupKeyInfo = null;
         String tableName = null;
-        String aggFilterInfo = PgJsonReader.readFilterInfo(path);
+        String aggFilterInfo = jsonReader.readFilterInfo(path);
         FilterNode aggFilter = null;
         if (groupKey != null) {
             //todo multiple table name
@@ -347,12 +356,12 @@ public class PgAnalyzer extends AbstractAnalyzer {
             }
             if (aggFilterInfo != null) {
                 aggFilter = new FilterNode(path.toString(), rowCount, transColumnName(aggFilterInfo));
-                rowCount += PgJsonReader.readRowsRemoved(path);
+                rowCount += jsonReader.readRowsRemoved(path);
             }
         } else {
-            String subPlanIndex = PgJsonReader.readSubPlanIndex(path);
+            String subPlanIndex = jsonReader.readSubPlanIndex(path);
             if (aggFilterInfo == null && subPlanIndex != null) {
-                aggFilterInfo = "(" + removeRedundancy(PgJsonReader.readOutput(path).get(0), false) + "=" + subPlanIndex + ")";
+                aggFilterInfo = "(" + removeRedundancy(jsonReader.readOutput(path).get(0), false) + "=" + subPlanIndex + ")";
                 aggFilter = new FilterNode(path.toString(), 1, transColumnName(aggFilterInfo));
                 tableName = getTableNameFromOutput(path);
             }
@@ -366,23 +375,23 @@ public class PgAnalyzer extends AbstractAnalyzer {
     private ExecutionNode createParentAggNode(StringBuilder parentPath, StringBuilder aggPath) throws TouchstoneException, IOException, SQLException {
         int rowCount;
         int rowsAfterFilter;
-        String joinCond = PgJsonReader.readJoinCond(parentPath);
+        String joinCond = jsonReader.readJoinCond(parentPath);
         String leftJoinCond = joinCond.split("=")[0];
         List<String> groupKey = new ArrayList<>();
         groupKey.add(leftJoinCond.substring(1));
-        String[] outPut = PgJsonReader.readOutput(aggPath).get(0).split("\\.");
+        String[] outPut = jsonReader.readOutput(aggPath).get(0).split("\\.");
         String tableName = outPut[outPut.length - 2];
         tableName = tableName.replaceAll(".*\\(", "");
         tableName = tableName.split("_")[0];
         tableName = aliasDic.get(tableName);
         getExecutionTreeRes(aggPath);
-        String aggFilterInfo = PgJsonReader.readJoinFilter(parentPath);
+        String aggFilterInfo = jsonReader.readJoinFilter(parentPath);
         if (aggFilterInfo != null) {
-            String aggOutPut = PgJsonReader.readOutput(aggPath).get(0);
+            String aggOutPut = jsonReader.readOutput(aggPath).get(0);
             aggFilterInfo = aggFilterInfo.replace("(SubPlan 1)", aggOutPut);
-            rowsAfterFilter = PgJsonReader.readRowCount(parentPath);
+            rowsAfterFilter = jsonReader.readRowCount(parentPath);
             if (!aggOutPut.toLowerCase(Locale.ROOT).contains("min") && !aggOutPut.toLowerCase(Locale.ROOT).contains("max")) {
-                rowCount = PgJsonReader.readAggGroup(aggPath);
+                rowCount = jsonReader.readAggGroup(aggPath);
             } else {
                 rowCount = rowsAfterFilter;
             }
@@ -397,11 +406,11 @@ public class PgAnalyzer extends AbstractAnalyzer {
     }
 
     private ExecutionNode getExecutionNode(StringBuilder path) throws TouchstoneException {
-        String nodeType = PgJsonReader.readNodeType(path);
+        String nodeType = jsonReader.readNodeType(path);
         if (nodeType == null) {
             return null;
         }
-        int rowCount = PgJsonReader.readRowCount(path);
+        int rowCount = jsonReader.readRowCount(path);
         if (nodeTypeRef.isFilterNode(nodeType)) {
             return getFilterNode(path, rowCount);
         } else if (nodeTypeRef.isJoinNode(nodeType)) {
@@ -519,16 +528,16 @@ public class PgAnalyzer extends AbstractAnalyzer {
     @Override
     public List<List<String[]>> splitQueryPlan(List<String[]> queryPlan) {
         String queryPlanString = queryPlan.stream().map(queryPlanLine -> queryPlanLine[0]).collect(Collectors.joining());
-        PgJsonReader.setReadContext(queryPlanString);
-        String queryPlanMainTree = PgJsonReader.readTheWholePlan();
+        jsonReader.setReadContext(queryPlanString);
+        String queryPlanMainTree = jsonReader.readTheWholePlan();
         StringBuilder path = PgJsonReader.getRootPath();
-        if (PgJsonReader.hasInitPlan(path)) {
+        if (jsonReader.hasInitPlan(path)) {
             List<List<String[]>> queryPlans = new LinkedList<>();
-            for (int i = 0; i < PgJsonReader.readPlansCount(path); i++) {
-                String subPlanName = PgJsonReader.readSubPlanIndex(path, i);
+            for (int i = 0; i < jsonReader.readPlansCount(path); i++) {
+                String subPlanName = jsonReader.readSubPlanIndex(path, i);
                 if (subPlanName != null) {
-                    String subQueryPlan = PgJsonReader.readPlan(path, i);
-                    if (i == PgJsonReader.readPlansCount(path) - 1) {
+                    String subQueryPlan = jsonReader.readPlan(path, i);
+                    if (i == jsonReader.readPlansCount(path) - 1) {
                         queryPlanMainTree = queryPlanMainTree.replace(subQueryPlan, "");
                     } else {
                         queryPlanMainTree = queryPlanMainTree.replace(subQueryPlan + ",", "");
@@ -550,8 +559,8 @@ public class PgAnalyzer extends AbstractAnalyzer {
         } else {
             List<Map.Entry<String, String>> tableNameAndFilterInfo = new LinkedList<>();
             StringBuilder path = PgJsonReader.move2LeftChild(PgJsonReader.move2LeftChild(pathForSplit));
-            String tableName = PgJsonReader.readTableName(path.toString()).split("\\.")[1];
-            String filterInfo = removeRedundancy(PgJsonReader.readFilterInfo(path), true);
+            String tableName = jsonReader.readTableName(path.toString()).split("\\.")[1];
+            String filterInfo = removeRedundancy(jsonReader.readFilterInfo(path), true);
             tableNameAndFilterInfo.add(new AbstractMap.SimpleEntry<>(tableName, filterInfo));
             pathForSplit = null;
             return tableNameAndFilterInfo;
@@ -559,10 +568,10 @@ public class PgAnalyzer extends AbstractAnalyzer {
     }
 
     public boolean canNotDeal(StringBuilder path) throws SQLException, TouchstoneException, IOException {
-        String nodeType = PgJsonReader.readNodeType(path);
+        String nodeType = jsonReader.readNodeType(path);
         StringBuilder leftPath = PgJsonReader.move2LeftChild(path);
-        String leftNodeType = PgJsonReader.readNodeType(leftPath);
-        String tableName = PgJsonReader.readTableName(path.toString()).split("\\.")[1];
+        String leftNodeType = jsonReader.readNodeType(leftPath);
+        String tableName = jsonReader.readTableName(path.toString()).split("\\.")[1];
         if (nodeTypeRef.isAggregateNode(leftNodeType) && nodeTypeRef.isIndexScanNode(nodeType)) {
             logger.error("cannot deal with {}", path);
             getExecutionTreeRes(PgJsonReader.move2LeftChild(leftPath));
@@ -573,7 +582,7 @@ public class PgAnalyzer extends AbstractAnalyzer {
     }
 
     private String getTableNameFromOutput(StringBuilder path) {
-        String outPut = PgJsonReader.readOutput(path).getFirst();
+        String outPut = jsonReader.readOutput(path).getFirst();
         Set<String> tableNames = aliasDic.keySet().stream().filter(outPut::contains)
                 .map(alias -> aliasDic.get(alias)).collect(Collectors.toSet());
         if (tableNames.size() > 1) {
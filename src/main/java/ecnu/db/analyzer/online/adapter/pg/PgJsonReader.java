@@ -13,32 +13,32 @@ import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * 读取json格式的查询计划，每个PgAnalyzer持有独立的实例，多个analyzer可以并发解析不同的查询
+ */
 public class PgJsonReader {
-    private static DocumentContext readContext;
+    private DocumentContext readContext;
 
-    private static boolean isGauss = false;
+    private final boolean isGauss;
 
-    private PgJsonReader() {
+    PgJsonReader(boolean isGauss) {
+        this.isGauss = isGauss;
     }
 
-    static void setReadContext(String plan) {
+    void setReadContext(String plan) {
         Configuration conf = Configuration.defaultConfiguration()
                 .addOptions(Option.DEFAULT_PATH_LEAF_TO_NULL)
                 .addOptions(Option.SUPPRESS_EXCEPTIONS);
-        PgJsonReader.readContext = JsonPath.using(conf).parse(plan);
-    }
-
-    public static void setIsGauss() {
-        isGauss = true;
+        readContext = JsonPath.using(conf).parse(plan);
     }
 
     // read node type
 
-    static String readNodeType(StringBuilder path) {
+    String readNodeType(StringBuilder path) {
         return readContext.read(path + "['Node Type']");
     }
 
-    static void deleteTree(StringBuilder path) {
+    void deleteTree(StringBuilder path) {
         readContext.delete(String.valueOf(path));
     }
     // move cursor in json
@@ -55,7 +55,7 @@ public class PgJsonReader {
         return new StringBuilder(path).append("['Plans'][2]");
     }
 
-    static StringBuilder skipNodes(StringBuilder path) {
+    StringBuilder skipNodes(StringBuilder path) {
         //找到第一个可以处理的节点
         while (new PgNodeTypeInfo().isPassNode(readNodeType(path))) {
             path = move2LeftChild(path);
@@ -65,11 +65,11 @@ public class PgJsonReader {
 
     // read schema info
 
-    static String readTableName(String path) {
+    String readTableName(String path) {
         return readContext.read(path + "['Schema']") + "." + readContext.read(path + "['Relation Name']");
     }
 
-    static String readAlias(String path) {
+    String readAlias(String path) {
         return readContext.read(path + "['Alias']");
     }
 
@@ -83,7 +83,7 @@ public class PgJsonReader {
 
     // deal with subPlan
 
-    static boolean hasInitPlan(StringBuilder path) {
+    boolean hasInitPlan(StringBuilder path) {
         List<String> subPlanTags = readContext.read(path + "['Plans'][*]['Subplan Name']");
         subPlanTags.removeAll(Collections.singleton(null));
         if (!subPlanTags.isEmpty()) {
@@ -92,14 +92,14 @@ public class PgJsonReader {
         return false;
     }
 
-    static int readPlansCount(StringBuilder path) {
+    int readPlansCount(StringBuilder path) {
         if (readContext.read(path + "['Plans']") == null) {
             return 0;
         }
         return readContext.read(path + "['Plans'].length()");
     }
 
-    static String readPlan(StringBuilder path, int index) {
+    String readPlan(StringBuilder path, int index) {
         LinkedHashMap<String, Object> data = readContext.read(path + "['Plans'][" + index + "]");
         try {
             return new ObjectMapper().writeValueAsString(data);
@@ -108,7 +108,7 @@ public class PgJsonReader {
         }
     }
 
-    static String readSubPlanIndex(StringBuilder path) {
+    String readSubPlanIndex(StringBuilder path) {
         String subPlanName = readContext.read(path + "['Subplan Name']");
         if (subPlanName != null && subPlanName.contains("InitPlan")) {
             Pattern returnRegex = Pattern.compile("returns \\$\\d+");
@@ -120,7 +120,7 @@ public class PgJsonReader {
         return null;
     }
 
-    static String readTheWholePlan() {
+    String readTheWholePlan() {
         LinkedHashMap<String, Object> data = readContext.read("$.[0]");
         try {
             return "[" + new ObjectMapper().writeValueAsString(data) + "]";
@@ -129,24 +129,24 @@ public class PgJsonReader {
         }
     }
 
-    static String readSubPlanIndex(StringBuilder path, int index) {
+    String readSubPlanIndex(StringBuilder path, int index) {
         return readSubPlanIndex(new StringBuilder(path).append("['Plans'][").append(index).append("]"));
     }
 
-    static List<String> readOutput(StringBuilder path) {
+    List<String> readOutput(StringBuilder path) {
         return readContext.read(path + "['Output']");
     }
 
     // read aggregation info
 
-    static int readAggGroup(StringBuilder path) {
+    int readAggGroup(StringBuilder path) {
         String childSelection = path + "['Plans'][0]";
         double actualRows = readContext.read(childSelection + "['Actual Rows']");
         int actualLoops = readActualLoops(new StringBuilder(childSelection));
         return (int) (actualLoops / actualRows);
     }
 
-    static List<String> readGroupKey(StringBuilder path) {
+    List<String> readGroupKey(StringBuilder path) {
         List<String> keys = readContext.read(path + "['Group Key']");
         if (keys == null) {
             keys = readContext.read(path + "['Group By Key']");
@@ -156,7 +156,7 @@ public class PgJsonReader {
 
 
     // read filter info
-    static String readFilterInfo(StringBuilder path) {
+    String readFilterInfo(StringBuilder path) {
         return readContext.read(path + "['Filter']");
     }
 
@@ -165,18 +165,18 @@ public class PgJsonReader {
 
     // read join condition
 
-    static String readJoinFilter(StringBuilder path) {
+    String readJoinFilter(StringBuilder path) {
         return readContext.read(path + "['Join Filter']");
     }
 
-    static String readJoinCond(StringBuilder path) {
+    String readJoinCond(StringBuilder path) {
         return readContext.read(path + "['Hash Cond']");
     }
 
 
     // read physical join operator
 
-    static String readIndexJoin(StringBuilder path) {
+    String readIndexJoin(StringBuilder path) {
         String joinFilter = readJoinFilter(path);
         path = skipNodes(move2RightChild(path));
         String indexCond = readContext.read(path + "['Index Cond']");
@@ -199,7 +199,7 @@ public class PgJsonReader {
         return indexCond;
     }
 
-    static String readHashJoin(StringBuilder path) {
+    String readHashJoin(StringBuilder path) {
         StringBuilder joinInfo = new StringBuilder("Hash Cond: ").append((String) readContext.read(path + "['Hash Cond']"));
         String joinFilter;
         if ((joinFilter = readJoinFilter(path)) != null) {
@@ -208,7 +208,7 @@ public class PgJsonReader {
         return joinInfo.toString();
     }
 
-    static String readMergeJoin(StringBuilder path) {
+    String readMergeJoin(StringBuilder path) {
         StringBuilder joinInfo = new StringBuilder("Merge Cond: ").append((String) readContext.read(path + "['Merge Cond']"));
         String joinFilter;
         if ((joinFilter = readJoinFilter(path)) != null) {
@@ -219,53 +219,53 @@ public class PgJsonReader {
 
     // read logical join operator
 
-    private static String readJoinType(StringBuilder path) {
+    private String readJoinType(StringBuilder path) {
         return readContext.read(path + "['Join Type']");
     }
 
-    static boolean isOutJoin(StringBuilder path) {
+    boolean isOutJoin(StringBuilder path) {
         return isLeftOuterJoin(path) || isRightOuterJoin(path) || isFullOuterJoin(path);
     }
 
-    static boolean isLeftOuterJoin(StringBuilder path) {
+    boolean isLeftOuterJoin(StringBuilder path) {
         return readJoinType(path).equals("Left");
     }
 
-    static boolean isRightOuterJoin(StringBuilder path) {
+    boolean isRightOuterJoin(StringBuilder path) {
         return readJoinType(path).equals("Right");
     }
 
-    static boolean isFullOuterJoin(StringBuilder path) {
+    boolean isFullOuterJoin(StringBuilder path) {
         return readJoinType(path).equals("Full");
     }
 
-    static boolean isAntiJoin(StringBuilder path) {
+    boolean isAntiJoin(StringBuilder path) {
         return readJoinType(path).equals("Anti");
     }
 
-    static boolean isSemiJoin(StringBuilder path) {
+    boolean isSemiJoin(StringBuilder path) {
         return readJoinType(path).equals("Semi");
     }
 
     // read rows count functions
 
-    static int readRowCount(StringBuilder path) {
+    int readRowCount(StringBuilder path) {
         return readRowsCountAdaptive(path, "['Actual Rows']");
     }
 
-    static int readRowsRemovedByJoinFilter(StringBuilder path) {
+    int readRowsRemovedByJoinFilter(StringBuilder path) {
         return readRowsCountAdaptive(path, "['Rows Removed by Join Filter']");
     }
 
-    static int readRowsRemoved(StringBuilder path) {
+    int readRowsRemoved(StringBuilder path) {
         return readRowsCountAdaptive(path, "['Rows Removed by Filter']");
     }
 
-    static int readActualLoops(StringBuilder path) {
+    int readActualLoops(StringBuilder path) {
         return readContext.read(path + "['Actual Loops']");
     }
 
-    private static int readRowsCountAdaptive(StringBuilder path, String tag) {
+    private int readRowsCountAdaptive(StringBuilder path, String tag) {
         double actualRows;
         int actualLoops = readActualLoops(path);
         Object rows = readContext.read(path + tag);
@@ -281,7 +281,7 @@ public class PgJsonReader {
         return (int) Math.ceil(actualRows * actualLoops);
     }
 
-    public static void deleteOutPut() {
+    public void deleteOutPut() {
         readContext.delete("$..Output");
         readContext.delete("$..['Peak Memory Usage']");
     }
@@ -1,17 +1,21 @@
 package ecnu.db.dbconnector;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import ecnu.db.LanguageManager;
 import ecnu.db.dbconnector.adapter.PgConnector;
 import ecnu.db.schema.Column;
 import ecnu.db.schema.ColumnManager;
 import ecnu.db.schema.ColumnType;
+import ecnu.db.schema.TableManager;
 import ecnu.db.utils.DatabaseConnectorConfig;
+import ecnu.db.utils.NdvEstimator;
 import ecnu.db.utils.exception.TouchstoneException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
 import java.sql.*;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -25,6 +29,18 @@ public abstract class DbConnector {
     private final int[] sqlInfoColumns;
     private final Connection conn;
     private final ResourceBundle rb = LanguageManager.getInstance().getRb();
+    private static final TypeReference<List<String[]>> QUERY_PLAN_TYPE = new TypeReference<>() {
+    };
+    private static final TypeReference<Integer> COUNT_TYPE = new TypeReference<>() {
+    };
+    // 为null时查询计划和计数查询总是在数据库上执行
+    private QueryResultCache queryResultCache;
+    // 采样的种子固定，多次运行和多个连接读取到相同的样本
+    private static final int SAMPLE_SEED = 0;
+    private static final int SAMPLE_FETCH_SIZE = 10_000;
+    private TableSampleMethod sampleMethod = TableSampleMethod.SYSTEM;
+    // 采样的百分比，为0时精确统计
+    private double samplePercent = 0;
     private static final List<Field> ALL_FIELDS = Arrays.stream(Types.class.getDeclaredFields()).filter(f -> Modifier.isStatic(f.getModifiers())).toList();
 
     protected DbConnector(DatabaseConnectorConfig config, String dbType, String databaseConnectionConfig)
@@ -117,8 +133,41 @@ public abstract class DbConnector {
         return null;
     }
 
+    /**
+     * @return 是否支持TABLESAMPLE ... REPEATABLE的采样语法
+     */
+    protected boolean isTableSampleSupported() {
+        return false;
+    }
+
+    /**
+     * 设置列分布和多列NDV的采样统计方式
+     *
+     * @param sampleMethod  TABLESAMPLE的采样方法
+     * @param samplePercent 采样的百分比，不在(0, 100)之间时精确统计
+     * @throws TouchstoneException 数据库不支持采样语法
+     */
+    public void setTableSample(TableSampleMethod sampleMethod, double samplePercent) throws TouchstoneException {
+        if (samplePercent > 0 && samplePercent < 100 && !isTableSampleSupported()) {
+            throw new TouchstoneException(rb.getString("UnsupportedTableSample"));
+        }
+        this.sampleMethod = sampleMethod;
+        this.samplePercent = samplePercent > 0 && samplePercent < 100 ? samplePercent : 0;
+    }
+
+    private boolean isSampling() {
+        return samplePercent > 0;
+    }
+
+    private String getTableSampleClause() {
+        return String.format(" TABLESAMPLE %s(%s) REPEATABLE(%d)", sampleMethod, BigDecimal.valueOf(samplePercent).toPlainString(), SAMPLE_SEED);
+    }
+
     public String[] getDataRange(String canonicalTableName, List<String> canonicalColumnNames)
             throws SQLException, TouchstoneException {
+        if (isSampling()) {
+            return getSampledDataRange(canonicalTableName, canonicalColumnNames);
+        }
         try (Statement stmt = conn.createStatement()) {
             ResultSet rs = stmt.executeQuery(String.format("select %s from %s", getColumnDistributionSql(canonicalColumnNames), canonicalTableName));
             rs.next();
@@ -135,6 +184,66 @@ public abstract class DbConnector {
         }
     }
 
+    /**
+     * 在样本上统计列分布，返回与getDataRange相同格式的结果，NDV的估计误差记录在列上
+     *
+     * @param canonicalTableName   表名
+     * @param canonicalColumnNames 需要统计的列
+     * @return 与getColumnDistributionSql的查询结果格式一致的统计信息
+     */
+    private String[] getSampledDataRange(String canonicalTableName, List<String> canonicalColumnNames)
+            throws SQLException, TouchstoneException {
+        List<ColumnType> types = new ArrayList<>();
+        List<String> selectColumns = new ArrayList<>();
+        for (String canonicalColumnName : canonicalColumnNames) {
+            ColumnType type = ColumnManager.getInstance().getColumnType(canonicalColumnName);
+            String columnName = Arrays.stream(canonicalColumnName.split("\\."))
+                    .map(s -> String.format("\"%s\"", s))
+                    .collect(Collectors.joining("."));
+            switch (type) {
+                case INTEGER -> selectColumns.add(columnName + "::int");
+                case VARCHAR, DECIMAL, DATE, DATETIME -> selectColumns.add(columnName);
+                default -> throw new TouchstoneException("未匹配到的类型");
+            }
+            types.add(type);
+        }
+        String sampleQuery = String.format("select %s from %s%s", String.join(", ", selectColumns),
+                canonicalTableName, getTableSampleClause());
+        SampleDataRange sampleDataRange = new SampleDataRange(types);
+        streamSampleRows(sampleQuery, rs -> {
+            for (int i = 0; i < types.size(); i++) {
+                sampleDataRange.add(i, rs.getString(i + 1));
+            }
+        });
+        long tableSize = TableManager.getInstance().getTableSize(canonicalTableName);
+        for (int i = 0; i < canonicalColumnNames.size(); i++) {
+            ColumnManager.getInstance().getColumn(canonicalColumnNames.get(i)).setNdvError(sampleDataRange.getNdvError(i, tableSize));
+        }
+        return sampleDataRange.toSqlResult(tableSize);
+    }
+
+    @FunctionalInterface
+    private interface RowConsumer {
+        void accept(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * 分批读取样本，避免驱动将整个样本缓存在内存中，pg只在事务中按照fetch size分批读取
+     */
+    private void streamSampleRows(String sampleQuery, RowConsumer rowConsumer) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.setFetchSize(SAMPLE_FETCH_SIZE);
+            ResultSet rs = stmt.executeQuery(sampleQuery);
+            while (rs.next()) {
+                rowConsumer.accept(rs);
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
     public void executeSql(String sql) throws SQLException {
         try (Statement stmt = conn.createStatement()) {
             stmt.execute(sql);
@@ -146,9 +255,24 @@ public abstract class DbConnector {
                 tableNameAndFilterInfo.getKey(), tableNameAndFilterInfo.getValue()));
     }
 
+    public void setQueryResultCache(QueryResultCache queryResultCache) {
+        this.queryResultCache = queryResultCache;
+    }
+
+    private <T> T queryWithCache(String sql, TypeReference<T> type, QueryResultCache.ResultLoader<T> loader) throws SQLException {
+        if (queryResultCache == null) {
+            return loader.load();
+        }
+        return queryResultCache.computeIfAbsent(sql, type, loader);
+    }
+
     public List<String[]> explainQuery(String sql) throws SQLException {
+        String query = String.format(getExplainFormat(), sql);
+        return queryWithCache(query, QUERY_PLAN_TYPE, () -> executeExplainQuery(query));
+    }
+
+    private List<String[]> executeExplainQuery(String query) throws SQLException {
         try (Statement stmt = conn.createStatement()) {
-            String query = String.format(getExplainFormat(), sql);
             ResultSet rs = stmt.executeQuery(query);
             ArrayList<String[]> result = new ArrayList<>();
             while (rs.next()) {
@@ -162,20 +286,43 @@ public abstract class DbConnector {
         }
     }
 
-    public int getMultiColNdv(String canonicalTableName, String columns) throws SQLException {
-        try (Statement stmt = conn.createStatement()) {
-            ResultSet rs = stmt.executeQuery(String.format("select count(*) from (select distinct %S from %S) as a", columns, canonicalTableName));
-            rs.next();
-            int result = rs.getInt("count");
+    public int getMultiColNdv(String canonicalTableName, String columns) throws SQLException, TouchstoneException {
+        if (isSampling()) {
+            long tableSize = TableManager.getInstance().getTableSize(canonicalTableName);
+            String sampleQuery = String.format("select %s from %s%s", columns, canonicalTableName, getTableSampleClause());
+            int result = queryWithCache(sampleQuery, COUNT_TYPE, () -> {
+                NdvEstimator estimator = new NdvEstimator();
+                streamSampleRows(sampleQuery, rs -> {
+                    String[] values = new String[rs.getMetaData().getColumnCount()];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = rs.getString(i + 1);
+                    }
+                    estimator.add(Arrays.asList(values));
+                });
+                return (int) Math.min(estimator.estimate(tableSize), tableSize);
+            });
             multiColNdvMap.put(String.format("%s.%s", canonicalTableName, columns), result);
             return result;
         }
+        String ndvQuery = String.format("select count(*) from (select distinct %S from %S) as a", columns, canonicalTableName);
+        int result = queryWithCache(ndvQuery, COUNT_TYPE, () -> {
+            try (Statement stmt = conn.createStatement()) {
+                ResultSet rs = stmt.executeQuery(ndvQuery);
+                rs.next();
+                return rs.getInt("count");
+            }
+        });
+        multiColNdvMap.put(String.format("%s.%s", canonicalTableName, columns), result);
+        return result;
     }
 
     public Map<String, Integer> getMultiColNdvMap() {
         return this.multiColNdvMap;
     }
 
+    /**
+     * 表大小总是精确统计，查询分析时需要与查询计划中的精确行数比较
+     */
     public int getTableSize(String canonicalTableName) throws SQLException {
         try (Statement stmt = conn.createStatement()) {
             String countQuery = String.format("select count(*) as cnt from %s", canonicalTableName);
@@ -187,15 +334,89 @@ public abstract class DbConnector {
         }
     }
 
+    /**
+     * 获取外键列的经验频率直方图，按照引用次数从高到低将所有键等分为bucketNum个桶，每个桶记录平均引用次数
+     *
+     * @param canonicalTableName 外键所在表的标准名
+     * @param columnName         外键列名
+     * @param bucketNum          桶的个数
+     * @return 每个桶的平均引用次数
+     */
+    public double[] getKeyFrequencyHistogram(String canonicalTableName, String columnName, int bucketNum) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            String histogramQuery = String.format("select avg(freq) as freq from " +
+                    "(select ntile(%1$d) over (order by freq desc) as tile, freq from " +
+                    "(select count(*) as freq from %2$s where %3$s is not null group by %3$s) as f) as t " +
+                    "group by tile order by tile", bucketNum, canonicalTableName, columnName);
+            ResultSet rs = stmt.executeQuery(histogramQuery);
+            List<Double> frequencies = new ArrayList<>();
+            while (rs.next()) {
+                frequencies.add(rs.getDouble("freq"));
+            }
+            return frequencies.stream().mapToDouble(Double::doubleValue).toArray();
+        }
+    }
+
     public int getRowsAfterFilter(String tableName, String filterInfo) throws SQLException {
+        String countQuery = getRowsAfterFilterSql(tableName, filterInfo);
+        return queryWithCache(countQuery, COUNT_TYPE, () -> {
+            try (Statement stmt = conn.createStatement()) {
+                ResultSet rs = stmt.executeQuery(countQuery);
+                if (rs.next()) {
+                    return rs.getInt("cntAfterFilter");
+                }
+                throw new SQLException(String.format("rows after filter: %s", tableName));
+            }
+        });
+    }
+
+    /**
+     * 在一次表扫描中统计多个过滤条件的行数，每个过滤条件的结果按照单独计数的sql记录到缓存
+     *
+     * @param tableName   表名
+     * @param filterInfos 过滤条件
+     * @return 与filterInfos顺序一致的过滤后行数
+     */
+    public int[] getRowsAfterFilters(String tableName, List<String> filterInfos) throws SQLException {
+        int[] rowsAfterFilters = new int[filterInfos.size()];
+        // 未缓存的过滤条件到其在filterInfos中的位置，相同的过滤条件只计算一次
+        Map<String, List<Integer>> uncountedFilter2Indexes = new LinkedHashMap<>();
+        for (int i = 0; i < filterInfos.size(); i++) {
+            String filterInfo = filterInfos.get(i);
+            Integer cachedRows = queryResultCache == null ? null
+                    : queryResultCache.get(getRowsAfterFilterSql(tableName, filterInfo), COUNT_TYPE);
+            if (cachedRows != null) {
+                rowsAfterFilters[i] = cachedRows;
+            } else {
+                uncountedFilter2Indexes.computeIfAbsent(filterInfo, k -> new ArrayList<>()).add(i);
+            }
+        }
+        if (uncountedFilter2Indexes.isEmpty()) {
+            return rowsAfterFilters;
+        }
+        String countColumns = uncountedFilter2Indexes.keySet().stream()
+                .map(filterInfo -> String.format("sum(case when %s then 1 else 0 end)", filterInfo))
+                .collect(Collectors.joining(", "));
         try (Statement stmt = conn.createStatement()) {
-            String countQuery = String.format("select count(*) as cntAfterFilter from %s where %s;", tableName, filterInfo);
-            ResultSet rs = stmt.executeQuery(countQuery);
-            if (rs.next()) {
-                return rs.getInt("cntAfterFilter");
+            ResultSet rs = stmt.executeQuery(String.format("select %s from %s;", countColumns, tableName));
+            if (!rs.next()) {
+                throw new SQLException(String.format("rows after filter: %s", tableName));
+            }
+            int columnIndex = 1;
+            for (Map.Entry<String, List<Integer>> uncountedFilter2Index : uncountedFilter2Indexes.entrySet()) {
+                // 空表上sum的结果为null，getInt返回0
+                int rowsAfterFilter = rs.getInt(columnIndex++);
+                uncountedFilter2Index.getValue().forEach(index -> rowsAfterFilters[index] = rowsAfterFilter);
+                if (queryResultCache != null) {
+                    queryResultCache.put(getRowsAfterFilterSql(tableName, uncountedFilter2Index.getKey()), rowsAfterFilter);
+                }
             }
-            throw new SQLException(String.format("rows after filter: %s", tableName));
         }
+        return rowsAfterFilters;
+    }
+
+    private static String getRowsAfterFilterSql(String tableName, String filterInfo) {
+        return String.format("select count(*) as cntAfterFilter from %s where %s;", tableName, filterInfo);
     }
 
     /**
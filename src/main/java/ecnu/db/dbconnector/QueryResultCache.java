@@ -0,0 +1,200 @@
+package ecnu.db.dbconnector;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import ecnu.db.schema.Table;
+import ecnu.db.utils.CommonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 查询计划和计数查询结果的磁盘缓存，每条记录以规范化后的sql和数据库指纹的摘要为文件名
+ * 数据库指纹由表名、列名和表大小组成，表结构或表大小变化后原有的记录不再命中
+ * 多个连接可以共享同一个缓存，记录先写入临时文件再重命名，读取时不会看到写了一半的记录
+ */
+public class QueryResultCache {
+    private static final Logger logger = LoggerFactory.getLogger(QueryResultCache.class);
+    private static final String CACHE_DIR = "/queryCache";
+    private static final String CACHE_FILE_POSTFIX = ".json";
+    private static final String TEMP_FILE_POSTFIX = ".tmp";
+
+    private final File cacheDir;
+    private final String fingerprint;
+    private final boolean refresh;
+    private final AtomicInteger hitCount = new AtomicInteger();
+    private final AtomicInteger missCount = new AtomicInteger();
+
+    /**
+     * @param fingerprint 记录对应的数据库指纹
+     * @param sql         规范化后的sql
+     * @param result      sql的执行结果
+     */
+    private record CacheRecord(String fingerprint, String sql, JsonNode result) {
+    }
+
+    /**
+     * 从数据库获取结果的函数
+     */
+    @FunctionalInterface
+    public interface ResultLoader<T> {
+        T load() throws SQLException;
+    }
+
+    /**
+     * @param resultDir   缓存所在的输出目录
+     * @param fingerprint 数据库指纹
+     * @param refresh     是否忽略已有的记录，重新执行并覆盖
+     */
+    public QueryResultCache(String resultDir, String fingerprint, boolean refresh) {
+        this.cacheDir = new File(resultDir + CACHE_DIR);
+        this.fingerprint = fingerprint;
+        this.refresh = refresh;
+        if (!cacheDir.exists() && !cacheDir.mkdirs()) {
+            throw new IllegalStateException("cannot create query cache directory " + cacheDir.getPath());
+        }
+    }
+
+    /**
+     * @param schemas 表名到表结构
+     * @return 由表名、列名和表大小计算的数据库指纹
+     */
+    public static String fingerprint(Map<String, Table> schemas) {
+        StringBuilder content = new StringBuilder();
+        for (Map.Entry<String, Table> schema : new TreeMap<>(schemas).entrySet()) {
+            content.append(schema.getKey()).append(':').append(schema.getValue().getTableSize())
+                    .append(':').append(schema.getValue().getCanonicalColumnNames()).append(';');
+        }
+        return sha256(content.toString());
+    }
+
+    /**
+     * 引号外连续的空白字符视为一个空格，并去除首尾的空白和分号
+     * 单引号中的字符串和双引号中的标识符保持不变
+     */
+    static String normalize(String sql) {
+        StringBuilder collapsedSql = new StringBuilder(sql.length());
+        char quote = 0;
+        boolean lastIsSpace = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote == 0 && Character.isWhitespace(c)) {
+                if (!lastIsSpace) {
+                    collapsedSql.append(' ');
+                    lastIsSpace = true;
+                }
+                continue;
+            }
+            lastIsSpace = false;
+            collapsedSql.append(c);
+            if (quote == 0 && (c == '\'' || c == '"')) {
+                quote = c;
+            } else if (c == quote) {
+                // 转义的引号由两个连续的引号组成，相当于结束后立即开始一个新的引号
+                quote = 0;
+            }
+        }
+        String normalizedSql = collapsedSql.toString().strip();
+        while (normalizedSql.endsWith(";")) {
+            normalizedSql = normalizedSql.substring(0, normalizedSql.length() - 1).strip();
+        }
+        return normalizedSql;
+    }
+
+    /**
+     * 优先返回缓存中的结果，不存在时通过loader从数据库获取并写入缓存
+     *
+     * @param sql    实际执行的sql
+     * @param type   结果的类型
+     * @param loader 从数据库获取结果的函数
+     * @return sql的执行结果
+     */
+    public <T> T computeIfAbsent(String sql, TypeReference<T> type, ResultLoader<T> loader) throws SQLException {
+        T result = get(sql, type);
+        if (result == null) {
+            result = loader.load();
+            put(sql, result);
+        }
+        return result;
+    }
+
+    /**
+     * @param sql  实际执行的sql
+     * @param type 结果的类型
+     * @return 缓存中的结果，不存在或者需要刷新时返回null
+     */
+    public <T> T get(String sql, TypeReference<T> type) {
+        String normalizedSql = normalize(sql);
+        File cacheFile = getCacheFile(normalizedSql);
+        if (!refresh && cacheFile.isFile()) {
+            try {
+                CacheRecord cacheRecord = CommonUtils.MAPPER.readValue(cacheFile, CacheRecord.class);
+                if (fingerprint.equals(cacheRecord.fingerprint()) && normalizedSql.equals(cacheRecord.sql())
+                        && cacheRecord.result() != null) {
+                    hitCount.incrementAndGet();
+                    return CommonUtils.MAPPER.convertValue(cacheRecord.result(), type);
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                logger.warn("ignore unreadable query cache {}", cacheFile.getPath(), e);
+            }
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 记录sql的执行结果，供之后的运行重放
+     *
+     * @param sql    实际执行的sql
+     * @param result sql的执行结果
+     */
+    public void put(String sql, Object result) {
+        String normalizedSql = normalize(sql);
+        store(getCacheFile(normalizedSql), new CacheRecord(fingerprint, normalizedSql, CommonUtils.MAPPER.valueToTree(result)));
+    }
+
+    private File getCacheFile(String normalizedSql) {
+        return new File(cacheDir, sha256(fingerprint + '\n' + normalizedSql) + CACHE_FILE_POSTFIX);
+    }
+
+    private void store(File cacheFile, CacheRecord cacheRecord) {
+        try {
+            Path tempFile = Files.createTempFile(cacheDir.toPath(), cacheFile.getName(), TEMP_FILE_POSTFIX);
+            Files.writeString(tempFile, CommonUtils.MAPPER.writeValueAsString(cacheRecord), StandardCharsets.UTF_8);
+            Files.move(tempFile, cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // 写入失败只影响下一次运行是否命中
+            logger.warn("fail to record query cache {}", cacheFile.getPath(), e);
+        }
+    }
+
+    public int getHitCount() {
+        return hitCount.get();
+    }
+
+    public int getMissCount() {
+        return missCount.get();
+    }
+
+    private static String sha256(String content) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(messageDigest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
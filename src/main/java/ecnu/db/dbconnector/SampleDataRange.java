@@ -0,0 +1,133 @@
+package ecnu.db.dbconnector;
+
+import ecnu.db.schema.ColumnType;
+import ecnu.db.utils.NdvEstimator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 在客户端汇总样本中各列的分布，输出与getColumnDistributionSql的查询结果一致的格式
+ * NDV由样本估计，null的个数按照样本比例放大到全表
+ */
+class SampleDataRange {
+    private final ColumnType[] types;
+    private final NdvEstimator[] estimators;
+    private final String[] mins;
+    private final String[] maxs;
+    private final long[] lengthSums;
+    private final int[] maxLengths;
+
+    /**
+     * @param types 各列的类型，只支持getColumnDistributionSql能够统计的类型
+     */
+    SampleDataRange(List<ColumnType> types) {
+        int columnNum = types.size();
+        this.types = types.toArray(ColumnType[]::new);
+        estimators = new NdvEstimator[columnNum];
+        for (int i = 0; i < columnNum; i++) {
+            estimators[i] = new NdvEstimator();
+        }
+        mins = new String[columnNum];
+        maxs = new String[columnNum];
+        lengthSums = new long[columnNum];
+        maxLengths = new int[columnNum];
+    }
+
+    /**
+     * @param columnIndex 列的位置
+     * @param value       样本中该列的值，与getString的返回一致
+     */
+    void add(int columnIndex, String value) {
+        estimators[columnIndex].add(value);
+        if (value == null) {
+            return;
+        }
+        if (types[columnIndex] == ColumnType.VARCHAR) {
+            int length = value.stripTrailing().length();
+            lengthSums[columnIndex] += length;
+            maxLengths[columnIndex] = Math.max(maxLengths[columnIndex], length);
+        } else {
+            value = value.trim().toLowerCase();
+            if (mins[columnIndex] == null || compare(types[columnIndex], value, mins[columnIndex]) < 0) {
+                mins[columnIndex] = value;
+            }
+            if (maxs[columnIndex] == null || compare(types[columnIndex], value, maxs[columnIndex]) > 0) {
+                maxs[columnIndex] = value;
+            }
+        }
+    }
+
+    private static int compare(ColumnType type, String value, String otherValue) {
+        return switch (type) {
+            case INTEGER, DECIMAL -> new BigDecimal(value).compareTo(new BigDecimal(otherValue));
+            // 日期和时间的字符串格式固定，按字典序比较
+            default -> value.compareTo(otherValue);
+        };
+    }
+
+    /**
+     * @param tableSize 全表的精确行数
+     * @return 与getDataRange相同格式的统计信息
+     */
+    String[] toSqlResult(long tableSize) {
+        List<String> infos = new ArrayList<>();
+        for (int i = 0; i < types.length; i++) {
+            NdvEstimator estimator = estimators[i];
+            long nonNullSampleSize = estimator.getSampleSize() - estimator.getNullSize();
+            if (nonNullSampleSize == 0) {
+                infos.add(null);
+                infos.add(null);
+                if (types[i].isHasCardinalityConstraint()) {
+                    infos.add(null);
+                }
+            } else {
+                switch (types[i]) {
+                    case INTEGER -> {
+                        infos.add(mins[i]);
+                        infos.add(maxs[i]);
+                        infos.add(Long.toString(getNdv(i, tableSize)));
+                    }
+                    case VARCHAR -> {
+                        infos.add(Double.toString((double) lengthSums[i] / nonNullSampleSize));
+                        infos.add(Integer.toString(maxLengths[i]));
+                        infos.add(Long.toString(getNdv(i, tableSize)));
+                    }
+                    default -> {
+                        infos.add(mins[i]);
+                        infos.add(maxs[i]);
+                    }
+                }
+            }
+            long nullSize = estimator.getSampleSize() == 0 ? 0 :
+                    Math.round((double) estimator.getNullSize() * tableSize / estimator.getSampleSize());
+            infos.add(Long.toString(nullSize));
+        }
+        return infos.toArray(String[]::new);
+    }
+
+    /**
+     * NDV不超过全表行数，整数列的NDV不超过样本中的值域
+     */
+    private long getNdv(int columnIndex, long tableSize) {
+        long ndv = Math.min(estimators[columnIndex].estimate(tableSize), tableSize);
+        if (types[columnIndex] == ColumnType.INTEGER) {
+            ndv = Math.min(ndv, Long.parseLong(maxs[columnIndex]) - Long.parseLong(mins[columnIndex]) + 1);
+        }
+        // 至少为样本中观察到的NDV
+        return Math.max(ndv, estimators[columnIndex].getSampleNdv());
+    }
+
+    /**
+     * @param columnIndex 列的位置
+     * @param tableSize   全表的精确行数
+     * @return NDV估计的相对误差，不统计NDV的列为0
+     */
+    double getNdvError(int columnIndex, long tableSize) {
+        if (!types[columnIndex].isHasCardinalityConstraint()) {
+            return 0;
+        }
+        return estimators[columnIndex].estimateError(tableSize);
+    }
+}
@@ -0,0 +1,11 @@
+package ecnu.db.dbconnector;
+
+/**
+ * 采样统计时使用的TABLESAMPLE方法
+ */
+public enum TableSampleMethod {
+    /* 按数据页采样，只读取被选中的页，速度快但页内的数据相关 */
+    SYSTEM,
+    /* 按行采样，需要读取所有页，样本更均匀 */
+    BERNOULLI
+}
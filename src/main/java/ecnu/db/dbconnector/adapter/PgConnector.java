@@ -30,6 +30,11 @@ public class PgConnector extends DbConnector {
         return new String[]{"SET max_parallel_workers_per_gather = 0;", "SET join_collapse_limit = 1;"};
     }
 
+    @Override
+    protected boolean isTableSampleSupported() {
+        return true;
+    }
+
     @Override
     protected String getExplainFormat() {
         return "EXPLAIN (ANALYZE, VERBOSE, FORMAT JSON, COSTS FALSE, TIMING FALSE) %s";
@@ -5,13 +5,21 @@ import ecnu.db.LanguageManager;
 import ecnu.db.generator.constraintchain.ConstraintChain;
 import ecnu.db.generator.constraintchain.ConstraintChainManager;
 import ecnu.db.generator.constraintchain.ConstraintChainNode;
+import ecnu.db.generator.constraintchain.filter.ConstraintChainFilterNode;
+import ecnu.db.generator.constraintchain.filter.FilterResultCache;
 import ecnu.db.generator.constraintchain.join.ConstraintChainFkJoinNode;
 import ecnu.db.generator.constraintchain.join.ConstraintChainPkJoinNode;
+import ecnu.db.generator.joininfo.AliasSampler;
 import ecnu.db.generator.joininfo.JoinStatus;
+import ecnu.db.generator.joininfo.KeySkew;
 import ecnu.db.generator.joininfo.RuleTable;
 import ecnu.db.generator.joininfo.RuleTableManager;
 import ecnu.db.schema.ColumnManager;
 import ecnu.db.schema.TableManager;
+import ecnu.db.utils.BitMasks;
+import ecnu.db.utils.exception.TouchstoneException;
+import ecnu.db.utils.exception.schema.CannotFindColumnException;
+import ecnu.db.utils.exception.schema.CannotFindSchemaException;
 import org.jgrapht.Graph;
 import org.jgrapht.alg.connectivity.KosarajuStrongConnectivityInspector;
 import org.jgrapht.graph.DefaultDirectedGraph;
@@ -24,7 +32,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 
@@ -32,6 +40,9 @@ import java.util.stream.IntStream;
         mixinStandardHelpOptions = true, sortOptions = false)
 public class DataGenerator implements Callable<Integer> {
     private static final Logger logger = LoggerFactory.getLogger(DataGenerator.class);
+    private static final int CORE_NUM = Runtime.getRuntime().availableProcessors();
+    private static final String CLUSTERING_RANDOM = "random";
+    private static final String CLUSTERING_NONE = "none";
     @CommandLine.Option(names = {"-c", "--config_path"}, required = true, description = "the config path for data generation")
     private String configPath;
     @CommandLine.Option(names = {"-o", "--output_path"}, description = "output path for data and join info")
@@ -48,12 +59,20 @@ public class DataGenerator implements Callable<Integer> {
     private boolean expandRules;
     @CommandLine.Option(names = {"-sf", "--scale-factor"}, description = "the size of each batch", defaultValue = "1")
     private int scaleFactor;
-
+    @CommandLine.Option(names = {"--clustering"}, description = "physical row order of the attribute columns in each table, " +
+            "random, none or the column to cluster by, e.g. public.lineitem=random")
+    private Map<String, String> table2Clustering = new HashMap<>();
+    @CommandLine.Option(names = {"--seed"}, description = "the random seed of data generation, " +
+            "the same seed and config always generate the same data", defaultValue = "0")
+    private long seed;
 
     private Map<String, List<ConstraintChain>> schema2chains;
 
     private DataWriter dataWriter;
 
+    // 无约束外键列的别名表，跨batch复用
+    private final Map<String, AliasSampler> fkCol2Sampler = new HashMap<>();
+
 
     // batch生成的起始位置
     private long batchStart;
@@ -88,11 +107,14 @@ public class DataGenerator implements Callable<Integer> {
         ColumnManager.getInstance().setResultDir(configPath);
         ColumnManager.getInstance().loadColumnMetaData();
         ColumnManager.getInstance().loadColumnDistribution();
+        ColumnManager.getInstance().setSeed(seed);
         //载入约束链，并进行transform
         ConstraintChainManager.getInstance().setResultDir(configPath);
         Map<String, List<ConstraintChain>> query2chains = ConstraintChainManager.loadConstrainChainResult(configPath);
         ConstraintChainManager.getInstance().cleanConstrainChains(query2chains);
         schema2chains = getSchema2Chains(query2chains);
+        //载入外键倾斜配置
+        RuleTableManager.getInstance().loadKeySkew(configPath);
         // 删除上次生成的数据
         File dataDir = new File(outputPath);
         if (dataDir.isDirectory() && dataDir.listFiles() != null) {
@@ -146,11 +168,13 @@ public class DataGenerator implements Callable<Integer> {
     private boolean[][] generateStatusViewOfEachRow(List<ConstraintChain> constraintChains, int range) {
         // 计算外键的filter status
         boolean[][] statusVectorOfEachRow = new boolean[range][constraintChains.size()];
+        // 不同约束链中相同的operation在该batch内只计算一次
+        FilterResultCache cache = new FilterResultCache(range, constraintChains.stream().map(ConstraintChain::getFilterKeys).toList());
         constraintChains.stream().parallel().forEach(chain -> {
-            boolean[] statusVector = chain.evaluateFilterStatus(range);
+            long[] statusVector = chain.evaluateFilterStatus(range, cache);
             int chainIndex = chain.getChainIndex();
-            for (int rowId = 0; rowId < statusVector.length; rowId++) {
-                statusVectorOfEachRow[rowId][chainIndex] = statusVector[rowId];
+            for (int rowId = 0; rowId < range; rowId++) {
+                statusVectorOfEachRow[rowId][chainIndex] = BitMasks.get(statusVector, rowId);
             }
         });
         return statusVectorOfEachRow;
@@ -162,17 +186,18 @@ public class DataGenerator implements Callable<Integer> {
         StringBuilder[] rowData = new StringBuilder[range];
         if (pkStatusChainIndexes.length > 0) {
             //创建主键状态矩阵
-            JoinStatus[] allStatuses = new JoinStatus[range];
-            Map<JoinStatus, Long> pkHistogram = new HashMap<>();
-            FkGenerator.staticsStatusHistogram(statusVectorOfEachRow, allStatuses, pkStatusChainIndexes, pkHistogram);
+            int[] statusIndexes = new int[range];
+            Map<JoinStatus, Long> pkHistogram = new LinkedHashMap<>();
+            FkGenerator.staticsStatusHistogram(statusVectorOfEachRow, statusIndexes, pkStatusChainIndexes, pkHistogram);
             String showStatusVectorTable = rb.getString("showStatusVectorTable");
             logger.info(showStatusVectorTable, pkName);
             for (Map.Entry<JoinStatus, Long> joinStatusLongEntry : pkHistogram.entrySet()) {
                 logger.info("size:{}, status:{}", joinStatusLongEntry.getValue(), joinStatusLongEntry.getKey().status());
             }
             var pkStatus2Location = RuleTableManager.getInstance().addRuleTable(pkName, pkHistogram, batchStart);
-            IntStream.range(0, range).parallel().forEach(rowId ->
-                    rowData[rowId] = new StringBuilder().append(pkStatus2Location.get(allStatuses[rowId]).getAndIncrement()).append(','));
+            // pkStatus2Location与pkHistogram的顺序一致
+            long[] statusStarts = pkStatus2Location.values().stream().mapToLong(Long::longValue).toArray();
+            populatePks(rowData, statusIndexes, statusStarts, range / CORE_NUM + 1);
         }
         //处理不需要外键填充的主键状态
         else if (!pkName.isEmpty()) {
@@ -183,11 +208,50 @@ public class DataGenerator implements Callable<Integer> {
         return rowData;
     }
 
+    /**
+     * 两趟无锁地填充主键：先统计每个分块内各status的行数，前缀和后为每个分块预留每种status的连续主键区间，再各自填充
+     * 同一status的主键按行号顺序连续分配，结果与分块大小无关
+     *
+     * @param rowData       每行数据的输出缓存
+     * @param statusIndexes 每行数据的主键status在statusStarts中的位置
+     * @param statusStarts  每种status的主键起始位置
+     * @param chunkSize     每个分块的行数
+     */
+    static void populatePks(StringBuilder[] rowData, int[] statusIndexes, long[] statusStarts, int chunkSize) {
+        int range = statusIndexes.length;
+        int chunkNum = (range + chunkSize - 1) / chunkSize;
+        long[][] chunkLocations = new long[chunkNum][statusStarts.length];
+        // 统计每个分块内各status的行数
+        IntStream.range(0, chunkNum).parallel().forEach(chunkId -> {
+            long[] statusCounts = chunkLocations[chunkId];
+            int end = Math.min(range, (chunkId + 1) * chunkSize);
+            for (int rowId = chunkId * chunkSize; rowId < end; rowId++) {
+                statusCounts[statusIndexes[rowId]]++;
+            }
+        });
+        // 前缀和，计算每个分块每种status的起始主键
+        for (int statusIndex = 0; statusIndex < statusStarts.length; statusIndex++) {
+            long location = statusStarts[statusIndex];
+            for (long[] chunkLocation : chunkLocations) {
+                long statusCount = chunkLocation[statusIndex];
+                chunkLocation[statusIndex] = location;
+                location += statusCount;
+            }
+        }
+        IntStream.range(0, chunkNum).parallel().forEach(chunkId -> {
+            long[] nextLocations = chunkLocations[chunkId];
+            int end = Math.min(range, (chunkId + 1) * chunkSize);
+            for (int rowId = chunkId * chunkSize; rowId < end; rowId++) {
+                rowData[rowId] = new StringBuilder().append(nextLocations[statusIndexes[rowId]]++).append(',');
+            }
+        });
+    }
+
     private Map<String, long[]> generateFks(boolean[][] statusVectorOfEachRow, FkGenerator[] fkGenerators,
                                             List<List<String>> fkGroups) {
         Map<String, long[]> fkCol2Values = new TreeMap<>();
         for (int groupIndex = 0; groupIndex < fkGenerators.length; groupIndex++) {
-            long[][] fkValues = fkGenerators[groupIndex].generateFK(statusVectorOfEachRow);
+            long[][] fkValues = fkGenerators[groupIndex].generateFK(statusVectorOfEachRow, batchStart);
             List<String> fkGroup = fkGroups.get(groupIndex);
             for (int fkColIndex = 0; fkColIndex < fkGroup.size(); fkColIndex++) {
                 fkCol2Values.put(fkGroup.get(fkColIndex), fkValues[fkColIndex]);
@@ -199,7 +263,26 @@ public class DataGenerator implements Callable<Integer> {
     private void generateFksNoConstraints(Map<String, long[]> fkCol2Values, SortedMap<String, Long> allFk2TableSize, int range) {
         for (Map.Entry<String, Long> fk2TableSize : allFk2TableSize.entrySet()) {
             if (!fkCol2Values.containsKey(fk2TableSize.getKey())) {
-                long[] fks = ThreadLocalRandom.current().longs(range, 1, fk2TableSize.getValue() + 1).toArray();
+                KeySkew keySkew = RuleTableManager.getInstance().getKeySkew(fk2TableSize.getKey());
+                long[] fks;
+                long fkSeed = ColumnManager.getInstance().getBatchSeed(fk2TableSize.getKey(), batchStart);
+                if (keySkew == null || keySkew.isUniform()) {
+                    fks = new SplittableRandom(fkSeed).longs(range, 1, fk2TableSize.getValue() + 1).toArray();
+                } else {
+                    AliasSampler sampler = fkCol2Sampler.computeIfAbsent(fk2TableSize.getKey(),
+                            fkCol -> new AliasSampler(keySkew, fk2TableSize.getValue()));
+                    long[] skewFks = new long[range];
+                    // 每个分块的随机流由batch种子和分块编号确定，结果与并行度无关
+                    int chunkNum = (range + FkGenerator.CHUNK_SIZE - 1) / FkGenerator.CHUNK_SIZE;
+                    IntStream.range(0, chunkNum).parallel().forEach(chunkId -> {
+                        SplittableRandom chunkRandom = new SplittableRandom(ColumnManager.getChunkSeed(fkSeed, chunkId));
+                        int chunkEnd = Math.min(range, (chunkId + 1) * FkGenerator.CHUNK_SIZE);
+                        for (int rowId = chunkId * FkGenerator.CHUNK_SIZE; rowId < chunkEnd; rowId++) {
+                            skewFks[rowId] = sampler.sample(chunkRandom) + 1;
+                        }
+                    });
+                    fks = skewFks;
+                }
                 fkCol2Values.put(fk2TableSize.getKey(), fks);
             }
         }
@@ -217,12 +300,13 @@ public class DataGenerator implements Callable<Integer> {
         return pkJoinTag2ChainIndex.values().stream().mapToInt(Integer::intValue).toArray();
     }
 
-    private void generateTableWithoutChains(String pkName, long tableSize, String schemaName) {
+    private void generateTableWithoutChains(String pkName, long tableSize, String schemaName, String clustering) {
         long pkStart = ColumnManager.getInstance().getMin(pkName);
         while (batchStart < tableSize) {
             int range = (int) (Math.min(batchStart + batchSize, tableSize) - batchStart);
             //生成属性列数据
-            ColumnManager.getInstance().prepareGeneration(range);
+            ColumnManager.getInstance().prepareGeneration(range, batchStart);
+            arrangeAttributeColumns(schemaName, clustering);
             String[] attRows = ColumnManager.getInstance().generateAttRows(range);
             StringBuilder[] rowData = new StringBuilder[range];
             if (pkName.isEmpty()) {
@@ -235,6 +319,69 @@ public class DataGenerator implements Callable<Integer> {
         }
     }
 
+    /**
+     * 获取表的聚簇方式
+     *
+     * @param schemaName     表名
+     * @param attColumnNames 表的属性列
+     * @return random, none或者聚簇列的全名
+     * @throws TouchstoneException 聚簇列不是该表的属性列
+     */
+    private String getClustering(String schemaName, List<String> attColumnNames) throws TouchstoneException {
+        String clustering = table2Clustering.getOrDefault(schemaName, CLUSTERING_NONE);
+        if (clustering.equals(CLUSTERING_RANDOM) || clustering.equals(CLUSTERING_NONE)) {
+            return clustering;
+        }
+        String clusteringColumn = clustering.contains(".") ? clustering : schemaName + "." + clustering;
+        if (!attColumnNames.contains(clusteringColumn)) {
+            throw new CannotFindColumnException(clusteringColumn);
+        }
+        return clusteringColumn;
+    }
+
+    /**
+     * 获取不被任何filter读取且不是聚簇列的属性列，这些列只在输出时生成数据
+     *
+     * @param attColumnNames 表的属性列
+     * @param allChains      表的约束链，可能为null
+     * @param clustering     表的聚簇方式
+     * @return payload列
+     */
+    private Set<String> getPayloadColumnNames(List<String> attColumnNames, List<ConstraintChain> allChains, String clustering) {
+        Set<String> predicateColumnNames = new HashSet<>();
+        predicateColumnNames.add(clustering);
+        if (allChains != null) {
+            for (ConstraintChain chain : allChains) {
+                for (ConstraintChainNode node : chain.getNodes()) {
+                    if (node instanceof ConstraintChainFilterNode filterNode) {
+                        predicateColumnNames.addAll(filterNode.getColumns());
+                    }
+                }
+            }
+        }
+        return attColumnNames.stream().filter(columnName -> !predicateColumnNames.contains(columnName))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * 按照表的聚簇方式重排当前batch的属性列，所有列使用同一个行排列
+     */
+    private void arrangeAttributeColumns(String schemaName, String clustering) {
+        switch (clustering) {
+            case CLUSTERING_NONE -> {
+            }
+            case CLUSTERING_RANDOM -> ColumnManager.getInstance().shuffleAttributeColumns(
+                    ColumnManager.getInstance().getBatchSeed(schemaName, batchStart));
+            default -> ColumnManager.getInstance().clusterAttributeColumns(clustering);
+        }
+    }
+
+    private void finishReferences(String schemaName) throws CannotFindSchemaException {
+        for (String refCol : TableManager.getInstance().getSchema(schemaName).getForeignKeys().values()) {
+            RuleTableManager.getInstance().finishConsumer(refCol);
+        }
+    }
+
     @Override
     public Integer call() throws Exception {
         if (expandRules) {
@@ -249,7 +396,11 @@ public class DataGenerator implements Callable<Integer> {
         Runtime runtime = Runtime.getRuntime();
 
         long start = System.currentTimeMillis();
-        for (String schemaName : TableManager.getInstance().createTopologicalOrder()) {
+        List<String> orderedSchemas = TableManager.getInstance().createTopologicalOrder();
+        for (String schemaName : orderedSchemas) {
+            RuleTableManager.getInstance().registerConsumers(TableManager.getInstance().getSchema(schemaName).getForeignKeys().values());
+        }
+        for (String schemaName : orderedSchemas) {
             long tableSize = TableManager.getInstance().getTableSize(schemaName) * scaleFactor;
             String pkName = TableManager.getInstance().getPrimaryKeys(schemaName);
             computeStepRange(tableSize);
@@ -257,12 +408,16 @@ public class DataGenerator implements Callable<Integer> {
             logger.info(startDataOutPut, schemaName, tableSize);
             // 准备生成的属性列生成器
             List<String> attColumnNames = TableManager.getInstance().getAttributeColumnNames(schemaName);
-            ColumnManager.getInstance().cacheAttributeColumn(attColumnNames);
+            String clustering = getClustering(schemaName, attColumnNames);
             // 获得所有约束链
             List<ConstraintChain> allChains = schema2chains.get(schemaName);
+            Set<String> payloadColumnNames = getPayloadColumnNames(attColumnNames, allChains, clustering);
+            logger.info(rb.getString("payloadColumns"), schemaName, payloadColumnNames.size());
+            ColumnManager.getInstance().cacheAttributeColumn(attColumnNames, payloadColumnNames);
             if (allChains == null) {
                 // todo 当前假设主键是连续的
-                generateTableWithoutChains(pkName, tableSize, schemaName);
+                generateTableWithoutChains(pkName, tableSize, schemaName, clustering);
+                finishReferences(schemaName);
                 continue;
             }
             // 设置chain的索引
@@ -285,7 +440,8 @@ public class DataGenerator implements Callable<Integer> {
                 String generateFromTo = rb.getString("generateFromTo");
                 logger.info(generateFromTo, batchStart, batchStart + range);
                 long start1 = System.currentTimeMillis();
-                ColumnManager.getInstance().prepareGeneration(range);
+                ColumnManager.getInstance().prepareGeneration(range, batchStart);
+                arrangeAttributeColumns(schemaName, clustering);
                 generateNonKeyTime += (System.currentTimeMillis() - start1);
                 long startComputeStatusVector = System.currentTimeMillis();
                 boolean[][] statusVectorOfEachRow = generateStatusViewOfEachRow(allChains, range);
@@ -315,6 +471,8 @@ public class DataGenerator implements Callable<Integer> {
             computeStatusVectorTime += Arrays.stream(fkGenerators).mapToLong(FkGenerator::getConstructHistogram).sum();
             populateKeyTime += Arrays.stream(fkGenerators).mapToLong(FkGenerator::getPopulateFKTime).sum();
             solveCPTime += Arrays.stream(fkGenerators).mapToLong(FkGenerator::getSolveCPTime).sum();
+            Arrays.stream(fkGenerators).forEach(FkGenerator::releaseRuleTables);
+            finishReferences(schemaName);
         }
         logger.info("GN:{}", generateNonKeyTime);
         logger.info("CS:{}", computeStatusVectorTime);
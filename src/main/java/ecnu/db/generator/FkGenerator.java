@@ -17,7 +17,6 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 
 import static ecnu.db.utils.CommonUtils.DECIMAL_DIVIDE_SCALE;
@@ -35,6 +34,11 @@ public class FkGenerator {
 
     private final MergedRuleTable[] ruleTables;
 
+    private final String[] fkCols;
+
+    // 随机填充时每个分块使用独立的随机流，分块大小固定，保证结果与并行度无关
+    static final int CHUNK_SIZE = 1 << 16;
+
     private static final int CORE_NUM = Runtime.getRuntime().availableProcessors();
 
     private static final ExecutorService THREAD_POOL = Executors.newFixedThreadPool(CORE_NUM);
@@ -74,9 +78,14 @@ public class FkGenerator {
         JoinStatus[][] pkCol2AllStatus = new JoinStatus[involvedFkCol2JoinTags.size()][];
         int i = 0;
         ruleTables = new MergedRuleTable[involvedFkCol2JoinTags.size()];
+        fkCols = involvedFkCol2JoinTags.keySet().toArray(new String[0]);
         for (Map.Entry<String, int[]> involvedFk2JoinTag : involvedFkCol2JoinTags.entrySet()) {
             String pkCol = TableManager.getInstance().getRefKey(involvedFk2JoinTag.getKey());
             ruleTables[i] = RuleTableManager.getInstance().getRuleTable(pkCol, involvedFk2JoinTag.getValue());
+            // 只有随机填充的外键列可以倾斜，JDC的外键列需要按照索引依次填充
+            if (!distinctFkIndex2Cardinality.containsKey(i)) {
+                ruleTables[i].applySkew(RuleTableManager.getInstance().getKeySkew(involvedFk2JoinTag.getKey()));
+            }
             boolean withNull = ColumnManager.getInstance().getNullPercentage(involvedFk2JoinTag.getKey()).compareTo(BigDecimal.ZERO) > 0;
             pkCol2AllStatus[i] = ruleTables[i].getPkStatus(withNull);
             i++;
@@ -94,6 +103,15 @@ public class FkGenerator {
         }
     }
 
+    /**
+     * 释放对共享主键规则表的引用
+     */
+    public void releaseRuleTables() {
+        for (MergedRuleTable ruleTable : ruleTables) {
+            RuleTableManager.getInstance().releaseRuleTable(ruleTable);
+        }
+    }
+
     private void applySharePkConstraint(ConstructCpModel cpModel, int range) {
         BigDecimal batchPercentage = BigDecimal.valueOf(range).divide(BigDecimal.valueOf(tableSize), DECIMAL_DIVIDE_SCALE, RoundingMode.HALF_UP);
         for (var distinctFKIndex : distinctFkIndex2Cardinality.keySet()) {
@@ -145,42 +163,73 @@ public class FkGenerator {
         return constructCpModel;
     }
 
-    static void staticsStatusHistogram(boolean[][] statusVectorOfEachRow, JoinStatus[] involvedStatuses,
+    /**
+     * 一个分块内按首次出现顺序局部编号的status及其行数
+     */
+    private record ChunkHistogram(int start, int end, List<JoinStatus> statuses, long[] counts) {
+    }
+
+    /**
+     * 统计status直方图，并记录每行数据的status在直方图中的位置
+     *
+     * @param statusVectorOfEachRow 每一行数据的filter status
+     * @param statusIndexes         输出每行数据的status在statusHistogram中的位置
+     * @param chainIndexes          参与计算status的约束链
+     * @param statusHistogram       输出的直方图，status按在数据中首次出现的顺序合并
+     */
+    static void staticsStatusHistogram(boolean[][] statusVectorOfEachRow, int[] statusIndexes,
                                        int[] chainIndexes, Map<JoinStatus, Long> statusHistogram) {
         int range = statusVectorOfEachRow.length;
         int histogramStaticsRange = range / CORE_NUM + 1;
-        int rangeStart = 0;
-        List<Future<Map<JoinStatus, AtomicLong>>> allStatusHistograms = new ArrayList<>();
-        for (int i = 0; i < CORE_NUM; i++) {
-            int finalRangeStart = rangeStart;
-            allStatusHistograms.add(THREAD_POOL.submit(() -> {
-                Map<JoinStatus, AtomicLong> selfStatusHistogram = new HashMap<>();
-                int endRange = Math.min(finalRangeStart + histogramStaticsRange, range);
-                for (int rowId = finalRangeStart; rowId < endRange; rowId++) {
-                    JoinStatus chooseCorrespondingStatus = FkGenerator.chooseCorrespondingStatus(statusVectorOfEachRow[rowId], chainIndexes);
-                    selfStatusHistogram.computeIfAbsent(chooseCorrespondingStatus, v -> new AtomicLong(0));
-                    selfStatusHistogram.get(chooseCorrespondingStatus).incrementAndGet();
-                    involvedStatuses[rowId] = chooseCorrespondingStatus;
+        List<Future<ChunkHistogram>> chunkHistogramFutures = new ArrayList<>();
+        for (int rangeStart = 0; rangeStart < range; rangeStart += histogramStaticsRange) {
+            int start = rangeStart;
+            int end = Math.min(rangeStart + histogramStaticsRange, range);
+            chunkHistogramFutures.add(THREAD_POOL.submit(() -> {
+                // 分块内先记录局部编号，合并直方图后再映射为全局位置
+                Map<JoinStatus, Integer> status2LocalIndex = new HashMap<>();
+                List<JoinStatus> statuses = new ArrayList<>();
+                long[] counts = new long[8];
+                for (int rowId = start; rowId < end; rowId++) {
+                    JoinStatus status = FkGenerator.chooseCorrespondingStatus(statusVectorOfEachRow[rowId], chainIndexes);
+                    Integer localIndex = status2LocalIndex.get(status);
+                    if (localIndex == null) {
+                        localIndex = statuses.size();
+                        status2LocalIndex.put(status, localIndex);
+                        statuses.add(status);
+                        if (localIndex == counts.length) {
+                            counts = Arrays.copyOf(counts, localIndex << 1);
+                        }
+                    }
+                    counts[localIndex]++;
+                    statusIndexes[rowId] = localIndex;
                 }
-                return selfStatusHistogram;
+                return new ChunkHistogram(start, end, statuses, counts);
             }));
-            rangeStart += histogramStaticsRange;
-            if (rangeStart >= range) {
-                break;
-            }
         }
-        for (Future<Map<JoinStatus, AtomicLong>> allStatusHistogram : allStatusHistograms) {
+        List<ChunkHistogram> chunkHistograms = new ArrayList<>();
+        for (Future<ChunkHistogram> chunkHistogramFuture : chunkHistogramFutures) {
             try {
-                var tmp = allStatusHistogram.get();
-                for (Map.Entry<JoinStatus, AtomicLong> selfStatusHistogram : tmp.entrySet()) {
-                    statusHistogram.putIfAbsent(selfStatusHistogram.getKey(), 0L);
-                    long totalNum = selfStatusHistogram.getValue().get() + statusHistogram.get(selfStatusHistogram.getKey());
-                    statusHistogram.put(selfStatusHistogram.getKey(), totalNum);
-                }
+                chunkHistograms.add(chunkHistogramFuture.get());
             } catch (InterruptedException | ExecutionException e) {
                 throw new RuntimeException(e);
             }
         }
+        for (ChunkHistogram chunkHistogram : chunkHistograms) {
+            for (int i = 0; i < chunkHistogram.statuses().size(); i++) {
+                statusHistogram.merge(chunkHistogram.statuses().get(i), chunkHistogram.counts()[i], Long::sum);
+            }
+        }
+        Map<JoinStatus, Integer> status2Index = new HashMap<>();
+        for (JoinStatus status : statusHistogram.keySet()) {
+            status2Index.put(status, status2Index.size());
+        }
+        chunkHistograms.parallelStream().forEach(chunkHistogram -> {
+            int[] localIndex2Index = chunkHistogram.statuses().stream().mapToInt(status2Index::get).toArray();
+            for (int rowId = chunkHistogram.start(); rowId < chunkHistogram.end(); rowId++) {
+                statusIndexes[rowId] = localIndex2Index[statusIndexes[rowId]];
+            }
+        });
     }
 
 
@@ -197,18 +246,9 @@ public class FkGenerator {
                          Map<Integer, FkRange[][]> fkIndex2Range) {
         long startConstructHistogram = System.currentTimeMillis();
         int range = statusVectorOfEachRow.length;
-        JoinStatus[] involvedStatuses = new JoinStatus[range];
-        // 根据右表状态计算统计直方图
+        // 根据右表状态计算统计直方图，并为每一行数据记录位置
         Map<JoinStatus, Long> statusHistogram = new LinkedHashMap<>();
-        staticsStatusHistogram(statusVectorOfEachRow, involvedStatuses, involvedChainIndexes, statusHistogram);
-        // 标记直方图状态的位置
-        HashMap<JoinStatus, Integer> status2Index = new HashMap<>();
-        int i = 0;
-        for (JoinStatus joinStatus : statusHistogram.keySet()) {
-            status2Index.put(joinStatus, i++);
-        }
-        // 为每一行数据记录位置
-        IntStream.range(0, range).parallel().forEach(rowId -> filterIndexes[rowId] = status2Index.get(involvedStatuses[rowId]));
+        staticsStatusHistogram(statusVectorOfEachRow, filterIndexes, involvedChainIndexes, statusHistogram);
         long endConstruction = System.currentTimeMillis();
         constructHistogram += endConstruction - startConstructHistogram;
         // 给定一个populateSolution，计算每一行数据需要填充的主键状态，以及剩余未填充的数据量
@@ -256,18 +296,28 @@ public class FkGenerator {
         return fkCol;
     }
 
-    private long[] populateFkForJCC(int fkColIndex, MergedRuleTable ruleTable, int[] pkStatuses) {
+    private long[] populateFkForJCC(int fkColIndex, MergedRuleTable ruleTable, int[] pkStatuses, long batchId) {
         int range = pkStatuses.length;
         long[] fkCol = new long[range];
-        IntStream.range(0, range).parallel().forEach(rowId -> {
-            int pkStatusIndex = pkStatuses[rowId];
-            JoinStatus populateStatus = jointPkStatus[pkStatusIndex][fkColIndex];
-            fkCol[rowId] = ruleTable.getKey(populateStatus, -1);
+        long batchSeed = ColumnManager.getInstance().getBatchSeed(fkCols[fkColIndex], batchId);
+        int chunkNum = (range + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, chunkNum).parallel().forEach(chunkId -> {
+            SplittableRandom chunkRandom = new SplittableRandom(ColumnManager.getChunkSeed(batchSeed, chunkId));
+            int chunkEnd = Math.min(range, (chunkId + 1) * CHUNK_SIZE);
+            for (int rowId = chunkId * CHUNK_SIZE; rowId < chunkEnd; rowId++) {
+                JoinStatus populateStatus = jointPkStatus[pkStatuses[rowId]][fkColIndex];
+                fkCol[rowId] = ruleTable.getKey(populateStatus, chunkRandom);
+            }
         });
         return fkCol;
     }
 
-    public long[][] generateFK(boolean[][] statusVectorOfEachRow) {
+    /**
+     * @param statusVectorOfEachRow 每行数据在各条约束链上的status
+     * @param batchId               batch的编号，用于派生随机填充外键的随机种子
+     * @return 每个外键列的取值
+     */
+    public long[][] generateFK(boolean[][] statusVectorOfEachRow, long batchId) {
         // 统计每种状态的数据量
         if (involvedChainIndexes.length == 0) {
             return new long[0][0];
@@ -291,7 +341,7 @@ public class FkGenerator {
                 futureFkCols.add(THREAD_POOL.submit(() ->
                         populateFkForJDC(finalFkColIndex, ruleTable, pkStatuses, filterIndexes, fkIndex2Range.get(finalFkColIndex))));
             } else {
-                futureFkCols.add(THREAD_POOL.submit(() -> populateFkForJCC(finalFkColIndex, ruleTable, pkStatuses)));
+                futureFkCols.add(THREAD_POOL.submit(() -> populateFkForJCC(finalFkColIndex, ruleTable, pkStatuses, batchId)));
             }
         }
         for (int fkColIndex = 0; fkColIndex < fkColValues.length; fkColIndex++) {
@@ -3,9 +3,11 @@ package ecnu.db.generator.constraintchain;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import ecnu.db.generator.constraintchain.agg.ConstraintChainAggregateNode;
 import ecnu.db.generator.constraintchain.filter.ConstraintChainFilterNode;
+import ecnu.db.generator.constraintchain.filter.FilterResultCache;
 import ecnu.db.generator.constraintchain.filter.Parameter;
 import ecnu.db.generator.constraintchain.join.ConstraintChainFkJoinNode;
 import ecnu.db.generator.constraintchain.join.ConstraintChainPkJoinNode;
+import ecnu.db.utils.BitMasks;
 
 import java.util.*;
 
@@ -82,15 +84,26 @@ public class ConstraintChain {
      * 给定range空间 计算filter的状态
      *
      * @param range 批大小
-     * @return filter状态
+     * @param cache 当前batch的operation计算结果缓存
+     * @return 按位打包的filter状态
      */
-    public boolean[] evaluateFilterStatus(int range) {
+    public long[] evaluateFilterStatus(int range, FilterResultCache cache) {
         if (nodes.get(0) instanceof ConstraintChainFilterNode filterNode) {
-            return filterNode.evaluate();
+            return filterNode.evaluate(range, cache);
         } else {
-            boolean[] result = new boolean[range];
-            Arrays.fill(result, true);
-            return result;
+            return BitMasks.allTrue(range);
+        }
+    }
+
+    /**
+     * @return filter中所有operation的key
+     */
+    @JsonIgnore
+    public Set<String> getFilterKeys() {
+        if (nodes.get(0) instanceof ConstraintChainFilterNode filterNode) {
+            return filterNode.getFilterKeys();
+        } else {
+            return Collections.emptySet();
         }
     }
 
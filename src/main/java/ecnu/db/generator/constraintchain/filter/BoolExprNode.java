@@ -6,6 +6,7 @@ import ecnu.db.generator.constraintchain.filter.operation.AbstractFilterOperatio
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author wangqingshuai
@@ -38,11 +39,20 @@ public abstract class BoolExprNode {
     public abstract BoolExprType getType();
 
     /**
-     * 获取生成好column以后，evaluate表达式的布尔值
+     * 获取生成好column以后，evaluate表达式的布尔值，只计算selection中选中的行
      *
-     * @return evaluate表达式的布尔值
+     * @param selection 按位打包的参与计算的行，不会被修改
+     * @param cache     当前batch的operation计算结果缓存
+     * @return 按位打包的evaluate表达式的布尔值，未选中的行为false
      */
-    protected abstract boolean[] evaluate();
+    protected abstract long[] evaluateMask(long[] selection, FilterResultCache cache);
+
+    /**
+     * 收集子树中所有operation的key，用于识别不同约束链中相同的operation
+     *
+     * @param filterKeys 收集结果
+     */
+    public abstract void collectFilterKeys(Set<String> filterKeys);
 
     /**
      * 获取该filter条件中的所有参数
@@ -4,9 +4,12 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import ecnu.db.generator.constraintchain.ConstraintChainNode;
 import ecnu.db.generator.constraintchain.ConstraintChainNodeType;
 import ecnu.db.generator.constraintchain.filter.operation.AbstractFilterOperation;
+import ecnu.db.utils.BitMasks;
 
 import java.math.BigDecimal;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author wangqingshuai
@@ -78,7 +81,14 @@ public class ConstraintChainFilterNode extends ConstraintChainNode {
         return root.toString();
     }
 
-    public boolean[] evaluate() {
-        return root.evaluate();
+    public long[] evaluate(int range, FilterResultCache cache) {
+        return root.evaluateMask(BitMasks.allTrue(range), cache);
+    }
+
+    @JsonIgnore
+    public Set<String> getFilterKeys() {
+        Set<String> filterKeys = new HashSet<>();
+        root.collectFilterKeys(filterKeys);
+        return filterKeys;
     }
 }
@@ -0,0 +1,60 @@
+package ecnu.db.generator.constraintchain.filter;
+
+import ecnu.db.utils.BitMasks;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * 一个batch内filter operation计算结果的缓存，以(列, 操作符, 参数data)组成的key识别相同的operation
+ * 只有出现在多条约束链中的operation才会被缓存，它们对整个batch计算一次，之后与各自的选择向量求交
+ * 只出现一次的operation仍然只计算选择向量中的行
+ */
+public class FilterResultCache {
+    private static final FilterResultCache EMPTY = new FilterResultCache(0, List.of());
+
+    private final int range;
+    private final Set<String> sharedKeys = new HashSet<>();
+    private final ConcurrentHashMap<String, long[]> key2Result = new ConcurrentHashMap<>();
+
+    /**
+     * @param range              批大小
+     * @param filterKeysOfChains 每条约束链包含的operation key
+     */
+    public FilterResultCache(int range, List<Set<String>> filterKeysOfChains) {
+        this.range = range;
+        Set<String> visitedKeys = new HashSet<>();
+        for (Set<String> filterKeys : filterKeysOfChains) {
+            for (String filterKey : filterKeys) {
+                if (!visitedKeys.add(filterKey)) {
+                    sharedKeys.add(filterKey);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return 不缓存任何结果的实例
+     */
+    public static FilterResultCache empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 获取key对应operation在selection上的计算结果
+     *
+     * @param filterKey 该operation的key
+     * @param selection 参与计算的行
+     * @param evaluator 给定选择向量计算该operation的函数
+     * @return 按位打包的计算结果，未选中的行为false
+     */
+    public long[] evaluate(String filterKey, long[] selection, UnaryOperator<long[]> evaluator) {
+        if (!sharedKeys.contains(filterKey)) {
+            return evaluator.apply(selection);
+        }
+        long[] result = key2Result.computeIfAbsent(filterKey, key -> evaluator.apply(BitMasks.allTrue(range))).clone();
+        BitMasks.and(result, selection);
+        return result;
+    }
+}
@@ -3,6 +3,8 @@ package ecnu.db.generator.constraintchain.filter;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import ecnu.db.generator.constraintchain.filter.operation.AbstractFilterOperation;
 import ecnu.db.generator.constraintchain.filter.operation.UniVarFilterOperation;
+import ecnu.db.schema.ColumnManager;
+import ecnu.db.utils.BitMasks;
 
 import java.math.BigDecimal;
 import java.util.*;
@@ -94,27 +96,69 @@ public class LogicNode extends BoolExprNode {
         this.type = type;
     }
 
+    /**
+     * 基于选择向量计算，AND的子节点只计算仍然存活的行，OR的子节点只计算尚未为true的行
+     * AND按照过滤比从小到大计算子节点，OR按照过滤比从大到小计算子节点，没有待计算的行时直接返回
+     */
     @Override
-    public boolean[] evaluate() {
-        boolean[][] computeVectors = new boolean[children.size()][];
-        for (int i = 0; i < children.size(); i++) {
-            computeVectors[i] = children.get(i).evaluate();
-        }
-        boolean[] resultVector = computeVectors[0];
+    public long[] evaluateMask(long[] selection, FilterResultCache cache) {
+        List<BoolExprNode> orderedChildren = new ArrayList<>(children);
         if (getRealType() == AND) {
-            for (int i = 0; i < resultVector.length; i++) {
-                for (int j = 1; j < computeVectors.length; j++) {
-                    resultVector[i] &= computeVectors[j][i];
+            orderedChildren.sort(Comparator.comparing(LogicNode::estimateProbability));
+            long[] resultVector = selection;
+            for (BoolExprNode child : orderedChildren) {
+                if (BitMasks.isEmpty(resultVector)) {
+                    break;
                 }
+                resultVector = child.evaluateMask(resultVector, cache);
             }
-        } else if (getRealType() == OR) {
-            for (int i = 0; i < resultVector.length; i++) {
-                for (int j = 1; j < computeVectors.length; j++) {
-                    resultVector[i] |= computeVectors[j][i];
+            return resultVector == selection ? selection.clone() : resultVector;
+        } else {
+            orderedChildren.sort(Comparator.comparing(LogicNode::estimateProbability).reversed());
+            long[] resultVector = new long[selection.length];
+            long[] remainSelection = selection.clone();
+            for (BoolExprNode child : orderedChildren) {
+                if (BitMasks.isEmpty(remainSelection)) {
+                    break;
                 }
+                long[] childVector = child.evaluateMask(remainSelection, cache);
+                BitMasks.or(resultVector, childVector);
+                BitMasks.andNot(remainSelection, childVector);
             }
+            return resultVector;
+        }
+    }
+
+    @Override
+    public void collectFilterKeys(Set<String> filterKeys) {
+        for (BoolExprNode child : children) {
+            child.collectFilterKeys(filterKeys);
         }
-        return resultVector;
+    }
+
+    /**
+     * 估计子树为true的概率，用于确定子节点的计算顺序，尚未计算概率的节点视为1
+     */
+    private static BigDecimal estimateProbability(BoolExprNode node) {
+        if (node instanceof LogicNode logicNode) {
+            boolean isAnd = logicNode.getRealType() == AND;
+            BigDecimal probability = isAnd ? BigDecimal.ONE : BigDecimal.ZERO;
+            for (BoolExprNode child : logicNode.children) {
+                BigDecimal childProbability = estimateProbability(child);
+                probability = isAnd ? probability.min(childProbability) : probability.max(childProbability);
+            }
+            return probability;
+        }
+        BigDecimal probability = node.getFilterProbability();
+        return probability == null ? BigDecimal.ONE : probability;
+    }
+
+    /**
+     * @return 当前batch每一行的evaluate结果
+     */
+    public boolean[] evaluate() {
+        int batchSize = ColumnManager.getInstance().getBatchSize();
+        return BitMasks.toBooleans(evaluateMask(BitMasks.allTrue(batchSize), FilterResultCache.empty()), batchSize);
     }
 
     @JsonIgnore
@@ -138,13 +138,21 @@ public class Parameter {
     }
 
     public void setDataValue(String dataValue) {
+        this.dataValue = formatDataValue(dataValue);
+    }
+
+    /**
+     * @param dataValue 列的值
+     * @return 按照参数类型格式化后的参数值
+     */
+    public String formatDataValue(String dataValue) {
         if (type == ParameterType.LIKE) {
             dataValue = '%' + dataValue;
         }
         if (dataValue.endsWith("00:00:00")) {
             dataValue = dataValue.substring(0, dataValue.length() - 9);
         }
-        this.dataValue = dataValue;
+        return dataValue;
     }
 
     public long getData() {
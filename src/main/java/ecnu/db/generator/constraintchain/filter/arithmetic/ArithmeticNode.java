@@ -1,14 +1,15 @@
 package ecnu.db.generator.constraintchain.filter.arithmetic;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import ecnu.db.schema.ColumnManager;
 
 import java.util.List;
+import java.util.function.IntToDoubleFunction;
 
 /**
  * @author wangqingshuai
  */
 public abstract class ArithmeticNode {
-    protected static int size = -1;
     protected ArithmeticNode leftNode;
     protected ArithmeticNode rightNode;
     protected ArithmeticNodeType type;
@@ -17,10 +18,6 @@ public abstract class ArithmeticNode {
         this.type = type;
     }
 
-    public static void setSize(int size) {
-        ArithmeticNode.size = size;
-    }
-
     public ArithmeticNodeType getType() {
         return this.type;
     }
@@ -45,12 +42,27 @@ public abstract class ArithmeticNode {
         this.rightNode = rightNode;
     }
 
+    /**
+     * 将子树编译为按行计算的函数，运算类型与列的类型转换在编译时确定，计算时不产生中间数组
+     * 编译结果绑定当前batch的列数据，每个batch需要重新编译
+     *
+     * @return 输入行号，返回该行的计算结果
+     */
+    public abstract IntToDoubleFunction compile();
+
     /**
      * 获取当前节点在column生成好数据以后的计算结果
      *
      * @return 返回double类型的计算结果
      */
-    public abstract double[] calculate();
+    public double[] calculate() {
+        IntToDoubleFunction kernel = compile();
+        double[] ret = new double[ColumnManager.getInstance().getBatchSize()];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = kernel.applyAsDouble(i);
+        }
+        return ret;
+    }
 
     /**
      * 判定子树是否包含其他的表
@@ -7,6 +7,7 @@ import ecnu.db.utils.exception.analyze.IllegalQueryColumnNameException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntToDoubleFunction;
 
 /**
  * @author wangqingshuai
@@ -30,8 +31,8 @@ public class ColumnNode extends ArithmeticNode {
     }
 
     @Override
-    public double[] calculate() {
-        return ColumnManager.getInstance().calculate(canonicalColumnName);
+    public IntToDoubleFunction compile() {
+        return ColumnManager.getInstance().getColumn(canonicalColumnName).compileCalculation();
     }
 
     @JsonIgnore
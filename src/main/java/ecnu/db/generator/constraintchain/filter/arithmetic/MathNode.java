@@ -3,6 +3,7 @@ package ecnu.db.generator.constraintchain.filter.arithmetic;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.util.List;
+import java.util.function.IntToDoubleFunction;
 
 public class MathNode extends ArithmeticNode {
 
@@ -15,33 +16,19 @@ public class MathNode extends ArithmeticNode {
     }
 
     @Override
-    public double[] calculate() {
-        double[] leftValue = leftNode.calculate();
-        double[] rightValue = rightNode.calculate();
-        switch (type) {
-            case MUL -> {
-                for (int i = 0; i < leftValue.length; i++) {
-                    leftValue[i] *= rightValue[i];
-                }
-            }
-            case DIV -> {
-                for (int i = 0; i < leftValue.length; i++) {
-                    leftValue[i] /= rightValue[i] == 0 ? Double.MIN_NORMAL : rightValue[i];
-                }
-            }
-            case PLUS -> {
-                for (int i = 0; i < leftValue.length; i++) {
-                    leftValue[i] += rightValue[i];
-                }
-            }
-            case MINUS -> {
-                for (int i = 0; i < leftValue.length; i++) {
-                    leftValue[i] -= rightValue[i];
-                }
-            }
+    public IntToDoubleFunction compile() {
+        IntToDoubleFunction left = leftNode.compile();
+        IntToDoubleFunction right = rightNode.compile();
+        return switch (type) {
+            case MUL -> row -> left.applyAsDouble(row) * right.applyAsDouble(row);
+            case DIV -> row -> {
+                double rightValue = right.applyAsDouble(row);
+                return left.applyAsDouble(row) / (rightValue == 0 ? Double.MIN_NORMAL : rightValue);
+            };
+            case PLUS -> row -> left.applyAsDouble(row) + right.applyAsDouble(row);
+            case MINUS -> row -> left.applyAsDouble(row) - right.applyAsDouble(row);
             default -> throw new UnsupportedOperationException();
-        }
-        return leftValue;
+        };
     }
 
     @JsonIgnore
@@ -4,8 +4,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonSetter;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.function.IntToDoubleFunction;
 
 /**
  * @author wangqingshuai
@@ -39,10 +39,9 @@ public class NumericNode extends ArithmeticNode {
     }
 
     @Override
-    public double[] calculate() {
-        double[] value = new double[size];
-        Arrays.fill(value, constant);
-        return value;
+    public IntToDoubleFunction compile() {
+        double value = constant;
+        return row -> value;
     }
 
     @JsonIgnore
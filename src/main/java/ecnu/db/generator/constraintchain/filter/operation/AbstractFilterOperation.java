@@ -1,11 +1,14 @@
 package ecnu.db.generator.constraintchain.filter.operation;
 
 import ecnu.db.generator.constraintchain.filter.BoolExprNode;
+import ecnu.db.generator.constraintchain.filter.FilterResultCache;
 import ecnu.db.generator.constraintchain.filter.Parameter;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author wangqingshuai
@@ -45,6 +48,38 @@ public abstract class AbstractFilterOperation extends BoolExprNode {
     }
 
 
+    @Override
+    protected long[] evaluateMask(long[] selection, FilterResultCache cache) {
+        return cache.evaluate(filterKey(), selection, this::evaluateMask);
+    }
+
+    /**
+     * 计算selection中选中的行的布尔值
+     *
+     * @param selection 按位打包的参与计算的行，不会被修改
+     * @return 按位打包的计算结果，未选中的行为false
+     */
+    protected abstract long[] evaluateMask(long[] selection);
+
+    @Override
+    public void collectFilterKeys(Set<String> filterKeys) {
+        filterKeys.add(filterKey());
+    }
+
+    /**
+     * 计算结果相同的operation具有相同的key
+     *
+     * @return 由计算对象、操作符和参数data组成的key
+     */
+    protected abstract String filterKey();
+
+    /**
+     * @return 排序后的参数data，IN的参数顺序不影响计算结果
+     */
+    protected String parameterKey() {
+        return Arrays.toString(parameters.stream().mapToLong(Parameter::getData).sorted().toArray());
+    }
+
     @Override
     public void reverse() {
         isReverse = !isReverse;
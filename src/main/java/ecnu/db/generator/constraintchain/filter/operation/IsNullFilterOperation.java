@@ -82,8 +82,13 @@ public class IsNullFilterOperation extends AbstractFilterOperation {
     }
 
     @Override
-    public boolean[] evaluate() {
-        return ColumnManager.getInstance().evaluate(canonicalColumnName, CompareOperator.ISNULL, null);
+    public long[] evaluateMask(long[] selection) {
+        return ColumnManager.getInstance().evaluate(canonicalColumnName, CompareOperator.ISNULL, null, selection);
+    }
+
+    @Override
+    protected String filterKey() {
+        return canonicalColumnName + " " + CompareOperator.ISNULL;
     }
 
     @Override
@@ -10,16 +10,23 @@ import ecnu.db.generator.constraintchain.filter.arithmetic.ColumnNode;
 import ecnu.db.schema.ColumnManager;
 import ecnu.db.schema.TableManager;
 import ecnu.db.utils.CommonUtils;
+import ecnu.db.utils.QuantileSketch;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoublePredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
 
 /**
  * @author wangqingshuai
  */
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class MultiVarFilterOperation extends AbstractFilterOperation {
+    // 并行写入草图时每个分片的最小行数
+    private static final int SKETCH_SLICE_SIZE = 1 << 16;
     private ArithmeticNode arithmeticTree;
 
     public MultiVarFilterOperation() {
@@ -80,41 +87,41 @@ public class MultiVarFilterOperation extends AbstractFilterOperation {
     }
 
     /**
+     * 使用编译后的算术树逐行计算并比较，只计算选中的行，不产生中间数组
      * todo 暂时不考虑NULL
      *
      * @return 多值表达式的计算结果
      */
     @Override
-    public boolean[] evaluate() {
-        double[] data = arithmeticTree.calculate();
-        boolean[] ret = new boolean[data.length];
+    public long[] evaluateMask(long[] selection) {
+        IntToDoubleFunction kernel = arithmeticTree.compile();
         double parameterValue = (double) parameters.getFirst().getData() / CommonUtils.SAMPLE_DOUBLE_PRECISION;
-        switch (operator) {
-            case LT -> {
-                for (int i = 0; i < ret.length; i++) {
-                    ret[i] = data[i] < parameterValue;
-                }
-            }
-            case LE -> {
-                for (int i = 0; i < ret.length; i++) {
-                    ret[i] = data[i] <= parameterValue;
-                }
-            }
-            case GT -> {
-                for (int i = 0; i < ret.length; i++) {
-                    ret[i] = data[i] > parameterValue;
-                }
-            }
-            case GE -> {
-                for (int i = 0; i < ret.length; i++) {
-                    ret[i] = data[i] >= parameterValue;
+        DoublePredicate predicate = switch (operator) {
+            case LT -> value -> value < parameterValue;
+            case LE -> value -> value <= parameterValue;
+            case GT -> value -> value > parameterValue;
+            case GE -> value -> value >= parameterValue;
+            default -> throw new UnsupportedOperationException();
+        };
+        long[] ret = new long[selection.length];
+        for (int word = 0; word < ret.length; word++) {
+            long selected = selection[word];
+            while (selected != 0) {
+                long lowest = selected & -selected;
+                if (predicate.test(kernel.applyAsDouble((word << 6) + Long.numberOfTrailingZeros(lowest)))) {
+                    ret[word] |= lowest;
                 }
+                selected ^= lowest;
             }
-            default -> throw new UnsupportedOperationException();
         }
         return ret;
     }
 
+    @Override
+    protected String filterKey() {
+        return arithmeticTree + " " + operator + " " + parameterKey();
+    }
+
     @Override
     public List<String> getColumns() {
         return arithmeticTree.getColumns();
@@ -140,9 +147,53 @@ public class MultiVarFilterOperation extends AbstractFilterOperation {
     }
 
     /**
+     * 在当前batch的完整样本上精确选择参数
      * todo 暂时不考虑null
      */
     public void instantiateMultiVarParameter() {
+        BigDecimal lessProbability = toLessProbability();
+        double[] vector = arithmeticTree.calculate();
+        int pos;
+        if (lessProbability.equals(BigDecimal.ONE)) {
+            pos = vector.length - 1;
+        } else {
+            pos = lessProbability.multiply(BigDecimal.valueOf(vector.length)).setScale(0, RoundingMode.HALF_UP).intValue();
+        }
+        fillParameters(QuantileSketch.select(vector, Math.min(pos, vector.length - 1)));
+    }
+
+    /**
+     * 在分块采样得到的分位数草图上选择参数
+     *
+     * @param sketch 包含所有采样结果的草图
+     */
+    public void instantiateMultiVarParameter(QuantileSketch sketch) {
+        fillParameters(sketch.quantile(toLessProbability().doubleValue()));
+    }
+
+    /**
+     * 将当前batch的计算结果写入草图，按行切分后并行计算再合并
+     *
+     * @param sketch 累积采样结果的草图
+     */
+    public void sampleArithmeticTree(QuantileSketch sketch) {
+        IntToDoubleFunction kernel = arithmeticTree.compile();
+        int size = ColumnManager.getInstance().getBatchSize();
+        int sliceNum = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), size / SKETCH_SLICE_SIZE));
+        IntStream.range(0, sliceNum).parallel().mapToObj(slice -> {
+            QuantileSketch sliceSketch = new QuantileSketch(sketch.getK(), slice);
+            int end = (int) ((long) size * (slice + 1) / sliceNum);
+            for (int i = (int) ((long) size * slice / sliceNum); i < end; i++) {
+                sliceSketch.update(kernel.applyAsDouble(i));
+            }
+            return sliceSketch;
+        }).toList().forEach(sketch::merge);
+    }
+
+    /**
+     * 将大于约束的选择率转换为小于约束的选择率
+     */
+    private BigDecimal toLessProbability() {
         switch (operator) {
             case GE, GT:
                 probability = BigDecimal.ONE.subtract(probability);
@@ -152,16 +203,21 @@ public class MultiVarFilterOperation extends AbstractFilterOperation {
             default:
                 throw new UnsupportedOperationException("多变量计算节点仅接受非等值约束");
         }
-        double[] vector = arithmeticTree.calculate();
-        int pos;
-        if (probability.equals(BigDecimal.ONE)) {
-            pos = vector.length - 1;
-        } else {
-            pos = probability.multiply(BigDecimal.valueOf(vector.length)).setScale(0, RoundingMode.HALF_UP).intValue();
-        }
-        Arrays.sort(vector);
-        double postSmallestNumber = vector[pos];
-        long internalValue = (long) (postSmallestNumber * CommonUtils.SAMPLE_DOUBLE_PRECISION);
+        return probability;
+    }
+
+    /**
+     * 根据已经实例化的参数data恢复参数的值
+     */
+    public void restoreParameterValues() {
+        fillParameters(parameters.getFirst().getData());
+    }
+
+    private void fillParameters(double postSmallestNumber) {
+        fillParameters((long) (postSmallestNumber * CommonUtils.SAMPLE_DOUBLE_PRECISION));
+    }
+
+    private void fillParameters(long internalValue) {
         parameters.forEach(param -> param.setData(internalValue));
         var columns = arithmeticTree.getColumns();
         boolean isDate = ColumnManager.getInstance().isDateColumn(columns.getFirst());
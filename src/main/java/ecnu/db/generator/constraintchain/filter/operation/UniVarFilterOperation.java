@@ -41,6 +41,13 @@ public class UniVarFilterOperation extends AbstractFilterOperation {
                 parameter.setDataValue(ColumnManager.getInstance().getColumn(canonicalColumnName).transferDataToValue(parameter.getData()));
             }
         }
+        restoreParameterValues();
+    }
+
+    /**
+     * 根据已经实例化的参数data恢复参数的值
+     */
+    public void restoreParameterValues() {
         for (Parameter parameter : parameters) {
             if (parameter.isSubString()) {
                 ColumnManager.getInstance().getColumn(canonicalColumnName).addSubStringIndex(parameter.getData());
@@ -114,8 +121,13 @@ public class UniVarFilterOperation extends AbstractFilterOperation {
     }
 
     @Override
-    public boolean[] evaluate() {
-        return ColumnManager.getInstance().evaluate(canonicalColumnName, operator, parameters);
+    public long[] evaluateMask(long[] selection) {
+        return ColumnManager.getInstance().evaluate(canonicalColumnName, operator, parameters, selection);
+    }
+
+    @Override
+    protected String filterKey() {
+        return canonicalColumnName + " " + operator + " " + parameterKey();
     }
 
     @Override
@@ -0,0 +1,77 @@
+package ecnu.db.generator.joininfo;
+
+import java.util.SplittableRandom;
+
+/**
+ * Walker别名表，O(1)且无分配地按照倾斜分布抽取[0, size)内的键索引
+ * 键数超过MAX_BUCKET_NUM时按等宽分桶，桶间倾斜、桶内均匀
+ */
+public class AliasSampler {
+    private static final int MAX_BUCKET_NUM = 1 << 20;
+    private final double[] probability;
+    private final int[] alias;
+    private final long size;
+    private final long bucketWidth;
+
+    public AliasSampler(KeySkew keySkew, long size) {
+        this.size = size;
+        int bucketNum = (int) Math.min(size, MAX_BUCKET_NUM);
+        bucketWidth = (size + bucketNum - 1) / bucketNum;
+        bucketNum = (int) ((size + bucketWidth - 1) / bucketWidth);
+        double[] weights = new double[bucketNum];
+        double totalWeight = 0;
+        for (int i = 0; i < bucketNum; i++) {
+            long start = i * bucketWidth;
+            weights[i] = keySkew.weight(start, Math.min(start + bucketWidth, size), size);
+            totalWeight += weights[i];
+        }
+        probability = new double[bucketNum];
+        alias = new int[bucketNum];
+        // 按照Vose的方法构造别名表，small和large共用一个栈数组
+        int[] stack = new int[bucketNum];
+        int smallTop = 0;
+        int largeBottom = bucketNum;
+        for (int i = 0; i < bucketNum; i++) {
+            weights[i] = weights[i] * bucketNum / totalWeight;
+            if (weights[i] < 1) {
+                stack[smallTop++] = i;
+            } else {
+                stack[--largeBottom] = i;
+            }
+        }
+        while (smallTop > 0 && largeBottom < bucketNum) {
+            int small = stack[--smallTop];
+            int large = stack[largeBottom++];
+            probability[small] = weights[small];
+            alias[small] = large;
+            weights[large] = weights[large] + weights[small] - 1;
+            if (weights[large] < 1) {
+                stack[smallTop++] = large;
+            } else {
+                stack[--largeBottom] = large;
+            }
+        }
+        while (smallTop > 0) {
+            probability[stack[--smallTop]] = 1;
+        }
+        while (largeBottom < bucketNum) {
+            probability[stack[largeBottom++]] = 1;
+        }
+    }
+
+    /**
+     * @param random 调用方的随机流，由batch种子和分块编号派生，保证结果与并行度无关
+     * @return [0, size)内的键索引
+     */
+    public long sample(SplittableRandom random) {
+        int bucket = random.nextInt(probability.length);
+        if (random.nextDouble() >= probability[bucket]) {
+            bucket = alias[bucket];
+        }
+        long start = bucket * bucketWidth;
+        if (bucketWidth == 1) {
+            return start;
+        }
+        return random.nextLong(start, Math.min(start + bucketWidth, size));
+    }
+}
@@ -0,0 +1,66 @@
+package ecnu.db.generator.joininfo;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * 外键的倾斜配置，zipf指数与经验频率直方图二选一，同时存在时以直方图为准
+ * histogram按照频率从高到低排列，每个桶代表等量的被参照键
+ */
+public class KeySkew {
+    private Double zipf;
+    private double[] histogram;
+
+    public KeySkew() {
+    }
+
+    public KeySkew(double[] histogram) {
+        this.histogram = histogram;
+    }
+
+    public Double getZipf() {
+        return zipf;
+    }
+
+    public void setZipf(Double zipf) {
+        this.zipf = zipf;
+    }
+
+    public double[] getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(double[] histogram) {
+        this.histogram = histogram;
+    }
+
+    @JsonIgnore
+    public boolean isUniform() {
+        return (histogram == null || histogram.length == 0) && (zipf == null || zipf <= 0);
+    }
+
+    /**
+     * 计算排名位于[start, end)内的键的总权重
+     *
+     * @param start 起始排名(从0开始)
+     * @param end   结束排名
+     * @param size  键的总数
+     * @return 该区间的权重
+     */
+    double weight(long start, long end, long size) {
+        if (histogram != null && histogram.length > 0) {
+            long mid = start + (end - start) / 2;
+            int bucket = (int) Math.min(histogram.length - 1, mid * histogram.length / size);
+            return histogram[bucket] * (end - start);
+        }
+        if (end - start == 1) {
+            return Math.pow(start + 1.0, -zipf);
+        }
+        // 对区间内的zipf权重取积分近似
+        double left = start + 0.5;
+        double right = end + 0.5;
+        if (zipf == 1) {
+            return Math.log(right / left);
+        }
+        return (Math.pow(right, 1 - zipf) - Math.pow(left, 1 - zipf)) / (1 - zipf);
+    }
+}
@@ -1,59 +1,32 @@
 package ecnu.db.generator.joininfo;
 
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
 
 public class MergedRuleTable {
-    Map<JoinStatus, Rule> status2Rule = new HashMap<>();
+    final MergedRules mergedRules;
+    Map<JoinStatus, Rule> status2Rule = new LinkedHashMap<>();
 
     private static class Rule {
-        long[] beforeNums;
-        long[] delta;
-        int totalSize;
+        final MergedRules.RuleRange range;
+        final int totalSize;
         long assignCounter;
         long assignMaxIndexForTheBatchCounter;
+        AliasSampler sampler;
 
-        public Rule(long[] beforeNums, long[] delta, int totalSize, long assignCounter, long assignMaxIndexForTheBatchCounter) {
-            this.beforeNums = beforeNums;
-            this.delta = delta;
-            this.totalSize = totalSize;
-            this.assignCounter = assignCounter;
-            this.assignMaxIndexForTheBatchCounter = assignMaxIndexForTheBatchCounter;
+        public Rule(MergedRules.RuleRange range) {
+            this.range = range;
+            this.totalSize = range.totalSize();
         }
 
         public long findDelta(long fkIndex) {
-            int left = 0;
-            int right = beforeNums.length - 1;
-            int index = 0; // 初始值为-1，表示没有找到小于等于a的元素
-
-            while (left <= right) {
-                int mid = left + (right - left) / 2;
-
-                if (beforeNums[mid] <= fkIndex) {
-                    index = mid; // 更新结果
-                    left = mid + 1; // 继续在右侧查找更大的元素
-                } else {
-                    right = mid - 1; // 在左侧查找
-                }
-            }
-
-            return delta[index];
+            return range.findDelta(fkIndex);
         }
     }
 
-    public MergedRuleTable(Map<JoinStatus, List<PkRange>> mergedRules) {
-        for (Map.Entry<JoinStatus, List<PkRange>> status2PkRanges : mergedRules.entrySet()) {
-            int totalNum = 0;
-            long[] beforeNums = new long[status2PkRanges.getValue().size()];
-            long[] delta = new long[status2PkRanges.getValue().size()];
-            int i = 0;
-            for (PkRange pkRange : status2PkRanges.getValue()) {
-                beforeNums[i] = totalNum;
-                delta[i] = pkRange.start() - totalNum;
-                totalNum += (int) (pkRange.end() - pkRange.start());
-                i++;
-            }
-            status2Rule.put(status2PkRanges.getKey(), new Rule(beforeNums, delta, totalNum, 0L, 0L));
+    MergedRuleTable(MergedRules mergedRules) {
+        this.mergedRules = mergedRules;
+        for (Map.Entry<JoinStatus, MergedRules.RuleRange> status2Range : mergedRules.status2Range.entrySet()) {
+            status2Rule.put(status2Range.getKey(), new Rule(status2Range.getValue()));
         }
     }
 
@@ -77,6 +50,22 @@ public class MergedRuleTable {
         return pkStatuses;
     }
 
+    /**
+     * 为随机填充(JCC)的外键设置倾斜分布，每个status独立构建别名表
+     *
+     * @param keySkew 倾斜配置，为null时保持均匀分布
+     */
+    public void applySkew(KeySkew keySkew) {
+        if (keySkew == null || keySkew.isUniform()) {
+            return;
+        }
+        for (Rule rule : status2Rule.values()) {
+            if (rule.totalSize > 0) {
+                rule.sampler = new AliasSampler(keySkew, rule.totalSize);
+            }
+        }
+    }
+
     public long getStatusSize(JoinStatus status) {
         return status2Rule.get(status).totalSize;
     }
@@ -93,14 +82,26 @@ public class MergedRuleTable {
         if (rule == null) {
             return Long.MIN_VALUE;
         }
-        if (index < 0) {
-            index = ThreadLocalRandom.current().nextInt(rule.totalSize);
-        } else {
-            if (rule.assignMaxIndexForTheBatchCounter < index) {
-                rule.assignMaxIndexForTheBatchCounter = index;
-            }
-            index += rule.assignCounter;
+        if (rule.assignMaxIndexForTheBatchCounter < index) {
+            rule.assignMaxIndexForTheBatchCounter = index;
+        }
+        index += rule.assignCounter;
+        return index + rule.findDelta(index);
+    }
+
+    /**
+     * 为随机填充(JCC)的外键在status对应的主键中随机选择一个
+     *
+     * @param joinStatus 主键的status
+     * @param random     调用方的随机流，由batch种子和分块编号派生
+     * @return 选中的主键，status不存在时返回Long.MIN_VALUE
+     */
+    public long getKey(JoinStatus joinStatus, SplittableRandom random) {
+        Rule rule = status2Rule.get(joinStatus);
+        if (rule == null) {
+            return Long.MIN_VALUE;
         }
+        long index = rule.sampler == null ? random.nextInt(rule.totalSize) : rule.sampler.sample(random);
         return index + rule.findDelta(index);
     }
 
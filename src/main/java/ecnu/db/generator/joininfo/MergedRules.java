@@ -0,0 +1,53 @@
+package ecnu.db.generator.joininfo;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按照tag合并后的主键区间，只读且在多个外键生成器之间共享，分配计数器由各自的MergedRuleTable维护
+ */
+class MergedRules {
+    final Map<JoinStatus, RuleRange> status2Range = new HashMap<>();
+    final String colName;
+    String cacheKey;
+    int refCount = 0;
+
+    record RuleRange(long[] beforeNums, long[] delta, int totalSize) {
+        public long findDelta(long fkIndex) {
+            int left = 0;
+            int right = beforeNums.length - 1;
+            int index = 0; // 初始值为-1，表示没有找到小于等于a的元素
+
+            while (left <= right) {
+                int mid = left + (right - left) / 2;
+
+                if (beforeNums[mid] <= fkIndex) {
+                    index = mid; // 更新结果
+                    left = mid + 1; // 继续在右侧查找更大的元素
+                } else {
+                    right = mid - 1; // 在左侧查找
+                }
+            }
+
+            return delta[index];
+        }
+    }
+
+    MergedRules(String colName, Map<JoinStatus, List<PkRange>> mergedRules) {
+        this.colName = colName;
+        for (Map.Entry<JoinStatus, List<PkRange>> status2PkRanges : mergedRules.entrySet()) {
+            int totalNum = 0;
+            long[] beforeNums = new long[status2PkRanges.getValue().size()];
+            long[] delta = new long[status2PkRanges.getValue().size()];
+            int i = 0;
+            for (PkRange pkRange : status2PkRanges.getValue()) {
+                beforeNums[i] = totalNum;
+                delta[i] = pkRange.start() - totalNum;
+                totalNum += (int) (pkRange.end() - pkRange.start());
+                i++;
+            }
+            status2Range.put(status2PkRanges.getKey(), new RuleRange(beforeNums, delta, totalNum));
+        }
+    }
+}
@@ -32,7 +32,7 @@ public class RuleTable {
         }
     }
 
-    public MergedRuleTable mergeRules(int[] location) {
+    MergedRules mergeRules(String colName, int[] location) {
         Map<JoinStatus, List<PkRange>> mergedRules = new HashMap<>();
         for (Map.Entry<JoinStatus, List<PkRange>> joinStatusListEntry : rules.entrySet()) {
             boolean[] joinStatus = joinStatusListEntry.getKey().status();
@@ -40,6 +40,6 @@ public class RuleTable {
             mergedRules.computeIfAbsent(pkStatus, v -> new ArrayList<>());
             mergedRules.get(pkStatus).addAll(joinStatusListEntry.getValue());
         }
-        return new MergedRuleTable(mergedRules);
+        return new MergedRules(colName, mergedRules);
     }
 }
@@ -1,12 +1,23 @@
 package ecnu.db.generator.joininfo;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import ecnu.db.utils.CommonUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicLong;
 
 public class RuleTableManager {
+    public static final String KEY_SKEW_INFO = "/keySkew.json";
     private static final RuleTableManager INSTANCE = new RuleTableManager();
     private final Map<String, RuleTable> ruleTableMap = new HashMap<>();
+    private final Map<String, MergedRules> key2MergedRules = new HashMap<>();
+    private final Map<String, Integer> refCol2PendingConsumers = new HashMap<>();
+    private Map<String, KeySkew> fkCol2KeySkew = new HashMap<>();
 
     private RuleTableManager() {
     }
@@ -15,21 +26,109 @@ public class RuleTableManager {
         return INSTANCE;
     }
 
-    public MergedRuleTable getRuleTable(String colName, int[] location) {
-        return ruleTableMap.get(colName).mergeRules(location);
+    /**
+     * 登记将要参照这些主键列的外键列，在所有外键列生成完成前保留对应的合并结果
+     *
+     * @param refCols 被参照的主键列，每个外键列登记一次
+     */
+    public synchronized void registerConsumers(Collection<String> refCols) {
+        refCols.forEach(refCol -> refCol2PendingConsumers.merge(refCol, 1, Integer::sum));
+    }
+
+    /**
+     * 一个参照refCol的外键列生成完毕，没有后续参照者时清理该主键列未被引用的合并结果
+     *
+     * @param refCol 被参照的主键列
+     */
+    public synchronized void finishConsumer(String refCol) {
+        if (refCol2PendingConsumers.merge(refCol, -1, Integer::sum) <= 0) {
+            refCol2PendingConsumers.remove(refCol);
+            key2MergedRules.values().removeIf(mergedRules -> mergedRules.colName.equals(refCol) && mergedRules.refCount <= 0);
+        }
+    }
+
+    /**
+     * 获取按照location合并后的主键规则表，相同(主键列, location)的合并结果在所有外键生成器之间共享，
+     * 返回的MergedRuleTable持有独立的分配计数器，使用完毕后需调用releaseRuleTable
+     *
+     * @param colName  主键列名
+     * @param location 需要保留的tag位置，升序排列
+     * @return 独立计数的规则表
+     */
+    public synchronized MergedRuleTable getRuleTable(String colName, int[] location) {
+        String cacheKey = colName + Arrays.toString(location);
+        MergedRules mergedRules = key2MergedRules.get(cacheKey);
+        if (mergedRules == null) {
+            mergedRules = ruleTableMap.get(colName).mergeRules(colName, location);
+            mergedRules.cacheKey = cacheKey;
+            key2MergedRules.put(cacheKey, mergedRules);
+        }
+        mergedRules.refCount++;
+        return new MergedRuleTable(mergedRules);
+    }
+
+    /**
+     * 释放对共享合并结果的引用，引用数归零且没有待生成的参照者时从缓存中移除
+     *
+     * @param ruleTable 不再使用的规则表
+     */
+    public synchronized void releaseRuleTable(MergedRuleTable ruleTable) {
+        MergedRules mergedRules = ruleTable.mergedRules;
+        if (--mergedRules.refCount <= 0 && !refCol2PendingConsumers.containsKey(mergedRules.colName)) {
+            key2MergedRules.remove(mergedRules.cacheKey, mergedRules);
+        }
     }
 
-    public Map<JoinStatus, AtomicLong> addRuleTable(String tableName, Map<JoinStatus, Long> pkHistogram, long indexStart) {
+    /**
+     * @return 相同(主键列, location)的合并结果是否仍在缓存中
+     */
+    synchronized boolean isMergedRulesCached(String colName, int[] location) {
+        return key2MergedRules.containsKey(colName + Arrays.toString(location));
+    }
+
+    /**
+     * 为主键的每种status分配一段连续的主键区间
+     *
+     * @return 每种status的主键起始位置
+     */
+    public synchronized Map<JoinStatus, Long> addRuleTable(String tableName, Map<JoinStatus, Long> pkHistogram, long indexStart) {
         ruleTableMap.computeIfAbsent(tableName, v -> new RuleTable());
-        Map<JoinStatus, AtomicLong> pkStatus2Index = new HashMap<>();
+        // 规则表发生变化，之前的合并结果不再共享
+        key2MergedRules.values().removeIf(mergedRules -> mergedRules.colName.equals(tableName));
+        Map<JoinStatus, Long> pkStatus2Index = new LinkedHashMap<>();
         long accumulativeIndex = indexStart;
         for (Map.Entry<JoinStatus, Long> pk2Size : pkHistogram.entrySet()) {
             long size = pk2Size.getValue();
             ruleTableMap.get(tableName).addRule(pk2Size.getKey(), accumulativeIndex, accumulativeIndex + size);
-            pkStatus2Index.put(pk2Size.getKey(), new AtomicLong(accumulativeIndex));
+            pkStatus2Index.put(pk2Size.getKey(), accumulativeIndex);
             accumulativeIndex += size;
         }
         return pkStatus2Index;
     }
 
+    public KeySkew getKeySkew(String fkCol) {
+        return fkCol2KeySkew.get(fkCol);
+    }
+
+    /**
+     * 载入外键的倾斜配置，配置文件不存在时所有外键均匀分布
+     *
+     * @param configPath 配置文件目录
+     * @throws IOException 配置文件读取失败
+     */
+    public void loadKeySkew(String configPath) throws IOException {
+        File keySkewFile = new File(configPath + KEY_SKEW_INFO);
+        if (keySkewFile.isFile()) {
+            fkCol2KeySkew = CommonUtils.MAPPER.readValue(CommonUtils.readFile(keySkewFile.getPath()), new TypeReference<>() {
+            });
+        } else {
+            fkCol2KeySkew = new HashMap<>();
+        }
+    }
+
+    public static void storeKeySkew(String resultDir, Map<String, KeySkew> fkCol2KeySkew) throws IOException {
+        String content = CommonUtils.MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(fkCol2KeySkew);
+        CommonUtils.writeFile(resultDir + KEY_SKEW_INFO, content);
+    }
+
 }
@@ -4,21 +4,26 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import ecnu.db.generator.constraintchain.filter.Parameter;
 import ecnu.db.generator.constraintchain.filter.operation.CompareOperator;
-import ecnu.db.utils.CommonUtils;
+import ecnu.db.utils.BitMasks;
+import ecnu.db.utils.LongSet;
+import ecnu.db.utils.ValueFormatter;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.Instant;
-import java.util.HashSet;
-import java.util.List;
+import java.util.*;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.stream.IntStream;
 
 import static ecnu.db.utils.CommonUtils.DECIMAL_DIVIDE_SCALE;
 
 /**
  * @author wangqingshuai
  */
-@JsonPropertyOrder({"columnType", "nullPercentage", "specialValue", "min", "range", "minLength", "rangeLength", "originalType"})
+@JsonPropertyOrder({"columnType", "nullPercentage", "specialValue", "min", "range", "minLength", "rangeLength", "originalType", "avgLength", "maxLength", "ndvError"})
 public class Column {
+    // 非字符串值格式化后的最大长度，包括退化到java.time和BigDecimal时的输出
+    private static final int MAX_FORMATTED_LENGTH = 64;
     private ColumnType columnType;
     private long min;
     private String originalType;
@@ -27,14 +32,26 @@ public class Column {
     private BigDecimal nullPercentage = BigDecimal.ZERO;
     private int avgLength;
     private int maxLength;
+    // 采样统计时NDV估计的相对误差，精确统计时为0
+    private double ndvError;
     @JsonIgnore
     private BigDecimal decimalPre;
     @JsonIgnore
+    private long decimalPreUnscaled;
+    @JsonIgnore
     private StringTemplate stringTemplate;
     @JsonIgnore
-    private long[] columnData;
+    private ColumnVector columnData;
+    // payload列不生成完整数据，输出时按行号从分段中直接计算
+    @JsonIgnore
+    private Distribution.TupleLayout payloadLayout;
+    // payload列的行排列，null表示不重排
+    @JsonIgnore
+    private int[] payloadOrder;
     @JsonIgnore
     private Distribution distribution;
+    @JsonIgnore
+    private RenderedValueCache renderedValueCache;
 
     public Distribution getDistribution() {
         return distribution;
@@ -84,83 +101,136 @@ public class Column {
     }
 
 
-    public void prepareTupleData(int size) {
-        columnData = distribution.prepareTupleData(size);
+    /**
+     * @param size      batch大小
+     * @param batchSeed 该列在当前batch的随机种子
+     */
+    public void prepareTupleData(int size, long batchSeed) {
+        columnData = distribution.prepareTupleData(size, batchSeed);
+        payloadLayout = null;
+        payloadOrder = null;
     }
 
+    /**
+     * 为不参与filter计算的payload列准备数据，只计算分段，输出时再按行生成
+     * 分布无法使用定点数计算时退化为生成完整的数据
+     *
+     * @param size      batch大小
+     * @param batchSeed 该列在当前batch的随机种子
+     */
+    public void preparePayloadData(int size, long batchSeed) {
+        payloadLayout = distribution.prepareTupleLayout(size, batchSeed);
+        payloadOrder = null;
+        columnData = payloadLayout == null ? distribution.prepareTupleData(size, batchSeed) : null;
+    }
 
     /**
-     * 无运算比较，针对传入的参数，对于单操作符进行比较
+     * @return 当前batch的数据是否只在输出时生成
+     */
+    boolean isLazyPayload() {
+        return payloadLayout != null;
+    }
+
+    /**
+     * 计算按照当前batch数据值升序排列的行顺序，null值排在最后，值相同的行保持原有顺序
      *
-     * @param operator   运算操作符
-     * @param parameters 待比较的参数
-     * @return 运算结果
+     * @return 排序后每个位置对应的原始行号
      */
-    public boolean[] evaluate(CompareOperator operator, List<Parameter> parameters) {
-        long value;
-        if (operator == CompareOperator.ISNULL) {
-            value = Long.MIN_VALUE;
+    public int[] computeSortedOrder() {
+        int size = columnData.size();
+        IntToLongFunction reader = columnData.reader();
+        int indexBits = 32 - Integer.numberOfLeadingZeros(Math.max(size - 1, 1));
+        long minValue = Long.MAX_VALUE;
+        long maxValue = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            long data = reader.applyAsLong(i);
+            if (data != Long.MIN_VALUE) {
+                minValue = Math.min(minValue, data);
+                maxValue = Math.max(maxValue, data);
+            }
+        }
+        int[] order = new int[size];
+        if (minValue > maxValue) {
+            Arrays.setAll(order, i -> i);
+            return order;
+        }
+        long nullKey = maxValue - minValue + 1;
+        if (nullKey > 0 && nullKey < (1L << (63 - indexBits))) {
+            // 将值的偏移与行号打包为一个long，直接使用基本类型的并行排序
+            long finalMinValue = minValue;
+            long[] packed = new long[size];
+            Arrays.parallelSetAll(packed, i -> {
+                long data = reader.applyAsLong(i);
+                long key = data == Long.MIN_VALUE ? nullKey : data - finalMinValue;
+                return (key << indexBits) | i;
+            });
+            Arrays.parallelSort(packed);
+            long indexMask = (1L << indexBits) - 1;
+            Arrays.parallelSetAll(order, i -> (int) (packed[i] & indexMask));
         } else {
-            value = parameters.get(0).getData();
+            Integer[] boxedOrder = IntStream.range(0, size).boxed().toArray(Integer[]::new);
+            Arrays.parallelSort(boxedOrder, Comparator.comparingLong(i -> {
+                long data = reader.applyAsLong(i);
+                return data == Long.MIN_VALUE ? Long.MAX_VALUE : data;
+            }));
+            Arrays.parallelSetAll(order, i -> boxedOrder[i]);
         }
-        boolean[] ret = new boolean[columnData.length];
-        switch (operator) {
-            case ISNULL -> {
-                for (int i = 0; i < columnData.length; i++) {
-                    ret[i] = columnData[i] == Long.MIN_VALUE;
-                }
-            }
-            case IS_NOT_NULL -> {
-                for (int i = 0; i < columnData.length; i++) {
-                    ret[i] = columnData[i] != Long.MIN_VALUE;
-                }
-            }
-            case EQ, LIKE -> {
-                for (int i = 0; i < columnData.length; i++) {
-                    ret[i] = columnData[i] != Long.MIN_VALUE && columnData[i] == value;
-                }
-            }
-            case NE, NOT_LIKE -> {
-                for (int i = 0; i < columnData.length; i++) {
-                    ret[i] = columnData[i] != Long.MIN_VALUE && columnData[i] != value;
-                }
-            }
-            case LT -> {
-                for (int i = 0; i < columnData.length; i++) {
-                    ret[i] = columnData[i] != Long.MIN_VALUE && columnData[i] < value;
-                }
-            }
-            case LE -> {
-                for (int i = 0; i < columnData.length; i++) {
-                    ret[i] = columnData[i] != Long.MIN_VALUE && columnData[i] <= value;
-                }
-            }
-            case GT -> {
-                for (int i = 0; i < columnData.length; i++) {
-                    ret[i] = columnData[i] != Long.MIN_VALUE && columnData[i] > value;
-                }
-            }
-            case GE -> {
-                for (int i = 0; i < columnData.length; i++) {
-                    ret[i] = columnData[i] != Long.MIN_VALUE && columnData[i] >= value;
-                }
-            }
-            case IN -> {
-                HashSet<Long> parameterData = new HashSet<>();
-                for (Parameter parameter : parameters) {
-                    parameterData.add(parameter.getData());
-                }
-                for (int i = 0; i < columnData.length; i++) {
-                    ret[i] = columnData[i] != Long.MIN_VALUE && parameterData.contains(columnData[i]);
-                }
+        return order;
+    }
+
+    /**
+     * 按照给定的行顺序重排当前batch的数据
+     *
+     * @param order        每个位置对应的原始行号
+     * @param cycleLeaders order的置换环起点，所有列共享
+     */
+    public void permuteTupleData(int[] order, long[] cycleLeaders) {
+        if (payloadLayout != null) {
+            if (payloadOrder == null) {
+                payloadOrder = order;
+            } else {
+                // payloadOrder可能与其他延迟生成的列共享同一个order，不能原地重排
+                int[] currentOrder = payloadOrder;
+                int[] composedOrder = new int[order.length];
+                Arrays.parallelSetAll(composedOrder, i -> currentOrder[order[i]]);
+                payloadOrder = composedOrder;
             }
-            case NOT_IN -> {
-                HashSet<Long> parameterData = new HashSet<>();
-                for (Parameter parameter : parameters) {
-                    parameterData.add(parameter.getData());
-                }
-                for (int i = 0; i < columnData.length; i++) {
-                    ret[i] = columnData[i] != Long.MIN_VALUE && !parameterData.contains(columnData[i]);
+        } else {
+            columnData.permute(order, cycleLeaders);
+        }
+    }
+
+
+    /**
+     * 无运算比较，针对传入的参数，对于单操作符进行比较，只计算selection中选中的行
+     *
+     * @param operator   运算操作符
+     * @param parameters 待比较的参数
+     * @param selection  参与计算的行
+     * @return 按位打包的运算结果，未选中的行为false
+     */
+    public long[] evaluate(CompareOperator operator, List<Parameter> parameters, long[] selection) {
+        long[] ret = new long[BitMasks.wordNum(columnData.size())];
+        PredicateKernel kernel = PredicateKernel.getInstance();
+        switch (operator) {
+            case ISNULL -> columnData.compare(kernel, CompareOperator.EQ, Long.MIN_VALUE, false, selection, ret);
+            case IS_NOT_NULL -> columnData.compare(kernel, CompareOperator.NE, Long.MIN_VALUE, false, selection, ret);
+            case EQ, LIKE -> columnData.compare(kernel, CompareOperator.EQ, parameters.get(0).getData(), true, selection, ret);
+            case NE, NOT_LIKE -> columnData.compare(kernel, CompareOperator.NE, parameters.get(0).getData(), true, selection, ret);
+            case LT, LE, GT, GE -> columnData.compare(kernel, operator, parameters.get(0).getData(), true, selection, ret);
+            case IN, NOT_IN -> {
+                LongSet parameterData = LongSet.of(parameters.stream().mapToLong(Parameter::getData).toArray());
+                boolean isIn = operator == CompareOperator.IN;
+                for (int word = 0; word < ret.length; word++) {
+                    long selected = selection[word];
+                    while (selected != 0) {
+                        long lowest = selected & -selected;
+                        long data = columnData.get((word << 6) + Long.numberOfTrailingZeros(lowest));
+                        if (data != Long.MIN_VALUE && parameterData.contains(data) == isIn) {
+                            ret[word] |= lowest;
+                        }
+                        selected ^= lowest;
+                    }
                 }
             }
             default -> throw new UnsupportedOperationException();
@@ -169,30 +239,18 @@ public class Column {
     }
 
     /**
-     * @return 返回用于multi-var计算的一个double数组
+     * @return 返回用于multi-var计算的按行取值函数，类型转换在此处确定，绑定当前batch的数据
      */
-    public double[] calculate() {
-        //lazy生成computeData
-        double[] ret = new double[columnData.length];
-        switch (columnType) {
-            case DATE, DATETIME -> {
-                for (int i = 0; i < columnData.length; i++) {
-                    ret[i] = (columnData[i] + min);
-                }
-            }
-            case DECIMAL -> {
-                for (int i = 0; i < columnData.length; i++) {
-                    ret[i] = ((double) (columnData[i] + min)) / specialValue;
-                }
-            }
-            case INTEGER -> {
-                for (int i = 0; i < columnData.length; i++) {
-                    ret[i] = (double) (specialValue * columnData[i]) + min;
-                }
-            }
+    public IntToDoubleFunction compileCalculation() {
+        IntToLongFunction data = columnData.reader();
+        long columnMin = min;
+        long columnSpecialValue = specialValue;
+        return switch (columnType) {
+            case DATE, DATETIME -> row -> data.applyAsLong(row) + columnMin;
+            case DECIMAL -> row -> ((double) (data.applyAsLong(row) + columnMin)) / columnSpecialValue;
+            case INTEGER -> row -> (double) (columnSpecialValue * data.applyAsLong(row)) + columnMin;
             default -> throw new IllegalStateException("Unexpected value: " + columnType);
-        }
-        return ret;
+        };
     }
 
     public int getAvgLength() {
@@ -211,30 +269,113 @@ public class Column {
         this.maxLength = maxLength;
     }
 
+    public double getNdvError() {
+        return ndvError;
+    }
+
+    public void setNdvError(double ndvError) {
+        this.ndvError = ndvError;
+    }
+
     public String transferDataToValue(long data) {
         if (data == Long.MIN_VALUE) {
             return "\\N";
         }
         return switch (columnType) {
             case INTEGER -> Long.toString((specialValue * data) + min);
-            case DECIMAL -> BigDecimal.valueOf(data + min).multiply(decimalPre).toString();
+            case DECIMAL -> ValueFormatter.formatDecimal(data + min, decimalPreUnscaled, decimalPre.scale());
             case VARCHAR -> stringTemplate.getParameterValue(data);
-            case DATE -> CommonUtils.dateFormatter.format(Instant.ofEpochSecond((data + min) * 24 * 60 * 60));
-            case DATETIME -> CommonUtils.dateTimeFormatter.format(Instant.ofEpochSecond(data + min));
+            case DATE -> ValueFormatter.formatDate((data + min) * 24 * 60 * 60);
+            case DATETIME -> ValueFormatter.formatDateTime(data + min);
             default -> throw new UnsupportedOperationException();
         };
     }
 
     public void addSubStringIndex(long dataId) {
         stringTemplate.addSubStringIndex(dataId);
+        releaseRenderedValueCache();
     }
 
     public void setColumnData(long[] columnData) {
-        this.columnData = columnData;
+        this.columnData = ColumnVector.of(columnData);
+    }
+
+    /**
+     * @return 一个输出值最多占用的字节数
+     */
+    public int getMaxOutputLength() {
+        return columnType == ColumnType.VARCHAR ? Math.max(avgLength, MAX_FORMATTED_LENGTH) : MAX_FORMATTED_LENGTH;
     }
 
-    public String output(int index) {
-        return transferDataToValue(columnData[index]);
+    /**
+     * 将第index行的值直接写入buffer
+     *
+     * @param index  行号
+     * @param buffer 行缓冲，需要至少有getMaxOutputLength的剩余空间
+     * @param offset 写入的起始位置
+     * @return 写入结束后的位置
+     */
+    public int output(int index, byte[] buffer, int offset) {
+        long data;
+        if (payloadLayout == null) {
+            data = columnData.get(index);
+        } else {
+            data = payloadLayout.valueAt(payloadOrder == null ? index : payloadOrder[index]);
+        }
+        if (renderedValueCache == null) {
+            return writeValue(data, buffer, offset);
+        }
+        byte[] value = renderedValueCache.get(data);
+        if (value == null) {
+            int end = writeValue(data, buffer, offset);
+            renderedValueCache.put(data, Arrays.copyOfRange(buffer, offset, end));
+            return end;
+        }
+        System.arraycopy(value, 0, buffer, offset, value.length);
+        return offset + value.length;
+    }
+
+    /**
+     * 按照transferDataToValue的格式将data写入buffer，无法直接写出时退化为字符串格式化
+     */
+    private int writeValue(long data, byte[] buffer, int offset) {
+        if (data == Long.MIN_VALUE) {
+            buffer[offset] = '\\';
+            buffer[offset + 1] = 'N';
+            return offset + 2;
+        }
+        int end = switch (columnType) {
+            case INTEGER -> ValueFormatter.writeLong((specialValue * data) + min, buffer, offset);
+            case DECIMAL -> ValueFormatter.writeDecimal(data + min, decimalPreUnscaled, decimalPre.scale(), buffer, offset);
+            case VARCHAR -> stringTemplate.writeParameterValue(data, buffer, offset);
+            case DATE -> ValueFormatter.writeDate((data + min) * 24 * 60 * 60, buffer, offset);
+            case DATETIME -> ValueFormatter.writeDateTime(data + min, buffer, offset);
+            default -> throw new UnsupportedOperationException();
+        };
+        if (end < 0) {
+            String value = transferDataToValue(data);
+            for (int i = 0; i < value.length(); i++) {
+                buffer[offset + i] = (byte) value.charAt(i);
+            }
+            end = offset + value.length();
+        }
+        return end;
+    }
+
+    /**
+     * 为输出准备渲染值缓存，已存在时直接复用
+     */
+    public void initRenderedValueCache() {
+        if (renderedValueCache == null) {
+            renderedValueCache = RenderedValueCache.create(range);
+        }
+    }
+
+    public void releaseRenderedValueCache() {
+        if (renderedValueCache != null) {
+            renderedValueCache.release();
+            renderedValueCache = null;
+        }
     }
 
     public long getMin() {
@@ -252,6 +393,7 @@ public class Column {
     public void setSpecialValue(long specialValue) {
         if (columnType == ColumnType.DECIMAL) {
             decimalPre = BigDecimal.ONE.divide(BigDecimal.valueOf(specialValue), DECIMAL_DIVIDE_SCALE, RoundingMode.HALF_UP);
+            decimalPreUnscaled = decimalPre.unscaledValue().longValueExact();
         }
         this.specialValue = specialValue;
     }
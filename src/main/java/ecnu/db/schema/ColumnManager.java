@@ -7,6 +7,7 @@ import ecnu.db.LanguageManager;
 import ecnu.db.generator.constraintchain.filter.Parameter;
 import ecnu.db.generator.constraintchain.filter.operation.CompareOperator;
 import ecnu.db.utils.CommonUtils;
+import ecnu.db.utils.RandomPermutation;
 import ecnu.db.utils.exception.TouchstoneException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,6 +15,7 @@ import org.slf4j.LoggerFactory;
 import java.io.*;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
@@ -29,9 +31,19 @@ public class ColumnManager {
     public static final String COLUMN_METADATA_INFO = "/column.csv";
     private static final ColumnManager INSTANCE = new ColumnManager();
     private static final CsvSchema columnSchema = CSV_MAPPER.schemaFor(Column.class);
+    // 每个线程复用的行输出缓存
+    private static final ThreadLocal<byte[]> ROW_BUFFER = ThreadLocal.withInitial(() -> new byte[1024]);
     private final LinkedHashMap<String, Column> columns = new LinkedHashMap<>();
 
     private final List<Column> attributeColumns = new LinkedList<>();
+    // 不参与filter计算的属性列，数据在输出时才生成
+    private final Set<Column> payloadColumns = new HashSet<>();
+    // 属性列到列名，用于计算每列的随机种子
+    private final Map<Column, String> attributeColumn2Name = new HashMap<>();
+    // 当前batch的行数
+    private int batchSize;
+    // 数据生成的全局随机种子
+    private long seed;
 
     private File distributionInfoPath;
     private final Logger logger = LoggerFactory.getLogger(ColumnManager.class);
@@ -68,23 +80,64 @@ public class ColumnManager {
     }
 
     public void initAllParameters() {
-        for (Map.Entry<String, Column> columnName2Column : columns.entrySet()) {
-            Distribution distribution = columnName2Column.getValue().getDistribution();
+        initAllParameters(columns.keySet());
+    }
+
+    /**
+     * 各列的参数互不影响，并行初始化
+     *
+     * @param columnNames 需要初始化参数的列
+     */
+    public void initAllParameters(Collection<String> columnNames) {
+        columnNames.parallelStream().filter(columns::containsKey).forEach(columnName -> {
+            Distribution distribution = columns.get(columnName).getDistribution();
             long appendRow = distribution.initAllParameters();
             if (appendRow > 0) {
-                logger.error(rb.getString("cardinalityNotEnough"), columnName2Column.getKey(), appendRow);
+                logger.error(rb.getString("cardinalityNotEnough"), columnName, appendRow);
+            }
+        });
+    }
+
+    /**
+     * 重新初始化列的分布与字符串模板，保留参数id的分组，用于增量实例化
+     *
+     * @param columnNames 需要重新实例化的列
+     */
+    public void resetColumnDistribution(Collection<String> columnNames) {
+        for (String columnName : columnNames) {
+            Column column = columns.get(columnName);
+            if (column != null) {
+                List<List<Integer>> idList = column.getDistribution().getIdList();
+                column.init();
+                column.getDistribution().setIdList(idList);
             }
         }
     }
 
     public String[] generateAttRows(int range) {
+        attributeColumns.forEach(Column::initRenderedValueCache);
+        Column[] outputColumns = attributeColumns.toArray(new Column[0]);
+        int maxRowLength = outputColumns.length;
+        for (Column outputColumn : outputColumns) {
+            maxRowLength += outputColumn.getMaxOutputLength();
+        }
+        int rowBufferLength = maxRowLength;
         String[] result = new String[range];
         IntStream.range(0, range).parallel().forEach(rowId -> {
-            String[] buffers = new String[attributeColumns.size()];
-            for (int i = 0; i < attributeColumns.size(); i++) {
-                buffers[i] = attributeColumns.get(i).output(rowId);
+            byte[] row = ROW_BUFFER.get();
+            if (row.length < rowBufferLength) {
+                row = new byte[rowBufferLength];
+                ROW_BUFFER.set(row);
             }
-            result[rowId] = String.join(",", buffers);
+            int rowLength = 0;
+            for (int i = 0; i < outputColumns.length; i++) {
+                if (i > 0) {
+                    row[rowLength++] = ',';
+                }
+                rowLength = outputColumns[i].output(rowId, row, rowLength);
+            }
+            // 输出的字符都是Latin-1字符
+            result[rowId] = new String(row, 0, rowLength, StandardCharsets.ISO_8859_1);
         });
         return result;
     }
@@ -96,18 +149,14 @@ public class ColumnManager {
         return columns.get(columnName).getMin();
     }
 
-    public boolean[] evaluate(String columnName, CompareOperator operator, List<Parameter> parameters) {
-        return columns.get(columnName).evaluate(operator, parameters);
+    public long[] evaluate(String columnName, CompareOperator operator, List<Parameter> parameters, long[] selection) {
+        return columns.get(columnName).evaluate(operator, parameters, selection);
     }
 
     public BigDecimal getNullPercentage(String columnName) {
         return columns.get(columnName).getNullPercentage();
     }
 
-    public double[] calculate(String columnName) {
-        return getColumn(columnName).calculate();
-    }
-
     public ColumnType getColumnType(String columnName) {
         return columns.get(columnName).getColumnType();
     }
@@ -296,12 +345,90 @@ public class ColumnManager {
         }
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
     public void cacheAttributeColumn(Collection<String> columnNames) {
+        cacheAttributeColumn(columnNames, Collections.emptySet());
+    }
+
+    /**
+     * @param columnNames        需要生成的属性列
+     * @param payloadColumnNames 其中不参与filter计算的列，只在输出时生成数据
+     */
+    public void cacheAttributeColumn(Collection<String> columnNames, Collection<String> payloadColumnNames) {
+        attributeColumns.forEach(Column::releaseRenderedValueCache);
         attributeColumns.clear();
         attributeColumns.addAll(columnNames.stream().map(this::getColumn).toList());
+        attributeColumn2Name.clear();
+        columnNames.forEach(columnName -> attributeColumn2Name.put(getColumn(columnName), columnName));
+        payloadColumns.clear();
+        payloadColumns.addAll(payloadColumnNames.stream().map(this::getColumn).toList());
     }
 
-    public void prepareGeneration(int size) {
-        attributeColumns.stream().parallel().forEach(column -> column.prepareTupleData(size));
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param name    列名或者表名
+     * @param batchId batch的编号，不同batch之间不能重复
+     * @return 由全局种子、名称和batch编号确定的随机种子，与生成的顺序和并行度无关
+     */
+    public long getBatchSeed(String name, long batchId) {
+        long nameSeed = StringTemplate.mix64(seed ^ name.hashCode());
+        return StringTemplate.mix64(nameSeed + batchId * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * @param batchSeed 列在当前batch的随机种子
+     * @param chunkId   分块的编号
+     * @return 分块随机流的种子，只与batch种子和分块编号有关
+     */
+    public static long getChunkSeed(long batchSeed, int chunkId) {
+        return StringTemplate.mix64(batchSeed + (chunkId + 1L) * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * @param size    batch的行数
+     * @param batchId batch的编号，不同batch之间不能重复，相同种子和编号下生成的数据一致
+     */
+    public void prepareGeneration(int size, long batchId) {
+        batchSize = size;
+        attributeColumns.stream().parallel().forEach(column -> {
+            long batchSeed = getBatchSeed(attributeColumn2Name.get(column), batchId);
+            if (payloadColumns.contains(column)) {
+                column.preparePayloadData(size, batchSeed);
+            } else {
+                column.prepareTupleData(size, batchSeed);
+            }
+        });
+    }
+
+    /**
+     * 使用同一个随机排列打乱所有属性列，保持bound参数在各列之间的行对齐
+     *
+     * @param seed 排列的随机种子
+     */
+    public void shuffleAttributeColumns(long seed) {
+        permuteAttributeColumns(RandomPermutation.generate(batchSize, seed));
+    }
+
+    /**
+     * 按照指定列的值对所有属性列进行联合排序
+     *
+     * @param columnName 聚簇列
+     */
+    public void clusterAttributeColumns(String columnName) {
+        permuteAttributeColumns(columns.get(columnName).computeSortedOrder());
+    }
+
+    /**
+     * 所有属性列共享order和置换环的起点，各列在原存储上并行重排
+     */
+    private void permuteAttributeColumns(int[] order) {
+        long[] cycleLeaders = ColumnVector.cycleLeaders(order);
+        attributeColumns.stream().parallel().forEach(column -> column.permuteTupleData(order, cycleLeaders));
     }
 }
@@ -0,0 +1,437 @@
+package ecnu.db.schema;
+
+import ecnu.db.generator.constraintchain.filter.operation.CompareOperator;
+import ecnu.db.utils.BitMasks;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.IntToLongFunction;
+
+/**
+ * 一个batch内列数据的存储，按照数据的取值范围选择byte/short/int/long中最窄的类型
+ * 对外始终以long读写数据，null值为Long.MIN_VALUE，窄类型中使用该类型的最小值表示null
+ */
+abstract class ColumnVector {
+    // 窄类型比较时每次展开为long的行数
+    private static final int BLOCK_SIZE = 1 << 12;
+    private static final int BLOCK_WORD_NUM = BLOCK_SIZE >>> 6;
+
+    private static final ThreadLocal<long[]> DATA_BUFFER = ThreadLocal.withInitial(() -> new long[BLOCK_SIZE]);
+    private static final ThreadLocal<long[]> SELECTION_BUFFER = ThreadLocal.withInitial(() -> new long[BLOCK_WORD_NUM]);
+    private static final ThreadLocal<long[]> MASK_BUFFER = ThreadLocal.withInitial(() -> new long[BLOCK_WORD_NUM]);
+
+    /**
+     * 分配能够容纳[minValue, maxValue]和null值的最窄存储，初始值均为0
+     *
+     * @param size     行数
+     * @param minValue 非null数据的最小值
+     * @param maxValue 非null数据的最大值
+     * @return 列数据存储
+     */
+    static ColumnVector allocate(int size, long minValue, long maxValue) {
+        if (minValue > Byte.MIN_VALUE && maxValue <= Byte.MAX_VALUE) {
+            return new ByteColumnVector(new byte[size]);
+        } else if (minValue > Short.MIN_VALUE && maxValue <= Short.MAX_VALUE) {
+            return new ShortColumnVector(new short[size]);
+        } else if (minValue > Integer.MIN_VALUE && maxValue <= Integer.MAX_VALUE) {
+            return new IntColumnVector(new int[size]);
+        } else {
+            return new LongColumnVector(new long[size]);
+        }
+    }
+
+    /**
+     * @param data 以long表示的列数据
+     * @return 按照data的取值范围选择最窄类型的列数据存储
+     */
+    static ColumnVector of(long[] data) {
+        long minValue = Long.MAX_VALUE;
+        long maxValue = Long.MIN_VALUE;
+        for (long value : data) {
+            if (value != Long.MIN_VALUE) {
+                minValue = Math.min(minValue, value);
+                maxValue = Math.max(maxValue, value);
+            }
+        }
+        if (minValue > maxValue) {
+            minValue = maxValue = 0;
+        }
+        ColumnVector columnVector = allocate(data.length, minValue, maxValue);
+        if (columnVector instanceof LongColumnVector) {
+            return new LongColumnVector(data);
+        }
+        for (int i = 0; i < data.length; i++) {
+            columnVector.set(i, data[i]);
+        }
+        return columnVector;
+    }
+
+    abstract int size();
+
+    abstract long get(int index);
+
+    abstract void set(int index, long value);
+
+    /**
+     * @return 按行号读取数据的函数，绑定当前的底层数组
+     */
+    abstract IntToLongFunction reader();
+
+    /**
+     * 将[from, to)的行填充为value
+     */
+    abstract void fill(int from, int to, long value);
+
+    /**
+     * 将[from, to)的行填充为[low, high]内均匀分布的随机值
+     */
+    abstract void fillRandom(int from, int to, long low, long high, SplittableRandom random);
+
+    /**
+     * 标记order中每个置换环的起点，一次计算后由所有列共享，原地重排时不再需要visited数组
+     *
+     * @param order 每个位置对应的原始行号
+     * @return 每个长度大于1的置换环中最小行号对应的位
+     */
+    static long[] cycleLeaders(int[] order) {
+        long[] visited = new long[BitMasks.wordNum(order.length)];
+        long[] cycleLeaders = new long[visited.length];
+        for (int i = 0; i < order.length; i++) {
+            if (order[i] != i && !BitMasks.get(visited, i)) {
+                BitMasks.set(cycleLeaders, i);
+                for (int j = i; !BitMasks.get(visited, j); j = order[j]) {
+                    BitMasks.set(visited, j);
+                }
+            }
+        }
+        return cycleLeaders;
+    }
+
+    /**
+     * 沿置换环在原数组上按照order重排，不分配新的存储
+     *
+     * @param order        每个位置对应的原始行号
+     * @param cycleLeaders order的置换环起点，由cycleLeaders(order)计算
+     */
+    abstract void permute(int[] order, long[] cycleLeaders);
+
+    /**
+     * 将[from, from + length)的行展开为long写入target
+     */
+    abstract void copyTo(int from, long[] target, int length);
+
+    long[] toLongArray() {
+        long[] data = new long[size()];
+        copyTo(0, data, data.length);
+        return data;
+    }
+
+    /**
+     * 使用kernel比较selection中选中的行，窄类型按块展开为long后计算，没有选中行的块直接跳过
+     */
+    void compare(PredicateKernel kernel, CompareOperator operator, long value, boolean excludeNull,
+                 long[] selection, long[] mask) {
+        long[] data = DATA_BUFFER.get();
+        long[] blockSelection = SELECTION_BUFFER.get();
+        long[] blockMask = MASK_BUFFER.get();
+        int size = size();
+        for (int blockStart = 0; blockStart < size; blockStart += BLOCK_SIZE) {
+            int rowNum = Math.min(BLOCK_SIZE, size - blockStart);
+            int wordNum = BitMasks.wordNum(rowNum);
+            int wordStart = blockStart >>> 6;
+            boolean hasSelected = false;
+            for (int i = 0; i < wordNum; i++) {
+                blockSelection[i] = selection[wordStart + i];
+                hasSelected |= blockSelection[i] != 0;
+            }
+            if (hasSelected) {
+                copyTo(blockStart, data, rowNum);
+                kernel.compare(data, rowNum, operator, value, excludeNull, blockSelection, blockMask);
+                System.arraycopy(blockMask, 0, mask, wordStart, wordNum);
+            }
+        }
+    }
+
+    private static final class ByteColumnVector extends ColumnVector {
+        private final byte[] data;
+
+        private ByteColumnVector(byte[] data) {
+            this.data = data;
+        }
+
+        private static byte narrow(long value) {
+            return value == Long.MIN_VALUE ? Byte.MIN_VALUE : (byte) value;
+        }
+
+        private static long widen(byte value) {
+            return value == Byte.MIN_VALUE ? Long.MIN_VALUE : value;
+        }
+
+        @Override
+        int size() {
+            return data.length;
+        }
+
+        @Override
+        long get(int index) {
+            return widen(data[index]);
+        }
+
+        @Override
+        void set(int index, long value) {
+            data[index] = narrow(value);
+        }
+
+        @Override
+        IntToLongFunction reader() {
+            byte[] values = data;
+            return index -> widen(values[index]);
+        }
+
+        @Override
+        void fill(int from, int to, long value) {
+            Arrays.fill(data, from, to, narrow(value));
+        }
+
+        @Override
+        void fillRandom(int from, int to, long low, long high, SplittableRandom random) {
+            for (int i = from; i < to; i++) {
+                data[i] = (byte) random.nextLong(low, high + 1);
+            }
+        }
+
+        @Override
+        void permute(int[] order, long[] cycleLeaders) {
+            for (int word = 0; word < cycleLeaders.length; word++) {
+                for (long bits = cycleLeaders[word]; bits != 0; bits &= bits - 1) {
+                    int start = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    byte first = data[start];
+                    int i = start;
+                    for (int next = order[i]; next != start; i = next, next = order[next]) {
+                        data[i] = data[next];
+                    }
+                    data[i] = first;
+                }
+            }
+        }
+
+        @Override
+        void copyTo(int from, long[] target, int length) {
+            for (int i = 0; i < length; i++) {
+                target[i] = widen(data[from + i]);
+            }
+        }
+    }
+
+    private static final class ShortColumnVector extends ColumnVector {
+        private final short[] data;
+
+        private ShortColumnVector(short[] data) {
+            this.data = data;
+        }
+
+        private static short narrow(long value) {
+            return value == Long.MIN_VALUE ? Short.MIN_VALUE : (short) value;
+        }
+
+        private static long widen(short value) {
+            return value == Short.MIN_VALUE ? Long.MIN_VALUE : value;
+        }
+
+        @Override
+        int size() {
+            return data.length;
+        }
+
+        @Override
+        long get(int index) {
+            return widen(data[index]);
+        }
+
+        @Override
+        void set(int index, long value) {
+            data[index] = narrow(value);
+        }
+
+        @Override
+        IntToLongFunction reader() {
+            short[] values = data;
+            return index -> widen(values[index]);
+        }
+
+        @Override
+        void fill(int from, int to, long value) {
+            Arrays.fill(data, from, to, narrow(value));
+        }
+
+        @Override
+        void fillRandom(int from, int to, long low, long high, SplittableRandom random) {
+            for (int i = from; i < to; i++) {
+                data[i] = (short) random.nextLong(low, high + 1);
+            }
+        }
+
+        @Override
+        void permute(int[] order, long[] cycleLeaders) {
+            for (int word = 0; word < cycleLeaders.length; word++) {
+                for (long bits = cycleLeaders[word]; bits != 0; bits &= bits - 1) {
+                    int start = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    short first = data[start];
+                    int i = start;
+                    for (int next = order[i]; next != start; i = next, next = order[next]) {
+                        data[i] = data[next];
+                    }
+                    data[i] = first;
+                }
+            }
+        }
+
+        @Override
+        void copyTo(int from, long[] target, int length) {
+            for (int i = 0; i < length; i++) {
+                target[i] = widen(data[from + i]);
+            }
+        }
+    }
+
+    private static final class IntColumnVector extends ColumnVector {
+        private final int[] data;
+
+        private IntColumnVector(int[] data) {
+            this.data = data;
+        }
+
+        private static int narrow(long value) {
+            return value == Long.MIN_VALUE ? Integer.MIN_VALUE : (int) value;
+        }
+
+        private static long widen(int value) {
+            return value == Integer.MIN_VALUE ? Long.MIN_VALUE : value;
+        }
+
+        @Override
+        int size() {
+            return data.length;
+        }
+
+        @Override
+        long get(int index) {
+            return widen(data[index]);
+        }
+
+        @Override
+        void set(int index, long value) {
+            data[index] = narrow(value);
+        }
+
+        @Override
+        IntToLongFunction reader() {
+            int[] values = data;
+            return index -> widen(values[index]);
+        }
+
+        @Override
+        void fill(int from, int to, long value) {
+            Arrays.fill(data, from, to, narrow(value));
+        }
+
+        @Override
+        void fillRandom(int from, int to, long low, long high, SplittableRandom random) {
+            for (int i = from; i < to; i++) {
+                data[i] = (int) random.nextLong(low, high + 1);
+            }
+        }
+
+        @Override
+        void permute(int[] order, long[] cycleLeaders) {
+            for (int word = 0; word < cycleLeaders.length; word++) {
+                for (long bits = cycleLeaders[word]; bits != 0; bits &= bits - 1) {
+                    int start = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    int first = data[start];
+                    int i = start;
+                    for (int next = order[i]; next != start; i = next, next = order[next]) {
+                        data[i] = data[next];
+                    }
+                    data[i] = first;
+                }
+            }
+        }
+
+        @Override
+        void copyTo(int from, long[] target, int length) {
+            for (int i = 0; i < length; i++) {
+                target[i] = widen(data[from + i]);
+            }
+        }
+    }
+
+    private static final class LongColumnVector extends ColumnVector {
+        private final long[] data;
+
+        private LongColumnVector(long[] data) {
+            this.data = data;
+        }
+
+        @Override
+        int size() {
+            return data.length;
+        }
+
+        @Override
+        long get(int index) {
+            return data[index];
+        }
+
+        @Override
+        void set(int index, long value) {
+            data[index] = value;
+        }
+
+        @Override
+        IntToLongFunction reader() {
+            long[] values = data;
+            return index -> values[index];
+        }
+
+        @Override
+        void fill(int from, int to, long value) {
+            Arrays.fill(data, from, to, value);
+        }
+
+        @Override
+        void fillRandom(int from, int to, long low, long high, SplittableRandom random) {
+            for (int i = from; i < to; i++) {
+                data[i] = random.nextLong(low, high + 1);
+            }
+        }
+
+        @Override
+        void permute(int[] order, long[] cycleLeaders) {
+            for (int word = 0; word < cycleLeaders.length; word++) {
+                for (long bits = cycleLeaders[word]; bits != 0; bits &= bits - 1) {
+                    int start = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    long first = data[start];
+                    int i = start;
+                    for (int next = order[i]; next != start; i = next, next = order[next]) {
+                        data[i] = data[next];
+                    }
+                    data[i] = first;
+                }
+            }
+        }
+
+        @Override
+        void copyTo(int from, long[] target, int length) {
+            System.arraycopy(data, from, target, 0, length);
+        }
+
+        /**
+         * long存储不需要展开，直接在原数组上比较
+         */
+        @Override
+        void compare(PredicateKernel kernel, CompareOperator operator, long value, boolean excludeNull,
+                     long[] selection, long[] mask) {
+            kernel.compare(data, data.length, operator, value, excludeNull, selection, mask);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package ecnu.db.schema;
 import ecnu.db.LanguageManager;
 import ecnu.db.generator.constraintchain.filter.Parameter;
 import ecnu.db.generator.constraintchain.filter.operation.CompareOperator;
+import ecnu.db.utils.LongSet;
 import ecnu.db.utils.exception.TouchstoneException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,7 +11,7 @@ import org.slf4j.LoggerFactory;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
 
 import static ecnu.db.utils.CommonUtils.DECIMAL_DIVIDE_SCALE;
 
@@ -32,20 +33,54 @@ public class Distribution {
 
     private List<List<Integer>> idList = new ArrayList<>();
 
+    // 参数id到idList中第一个包含该id的分组
+    private Map<Integer, List<Integer>> paraId2IdGroup = new HashMap<>();
+
+    // 参数id到pvAndPbList中包含该参数的最小CDF，pve(-1)不参与重用，不记录
+    private final Map<Integer, BigDecimal> paraId2Cdf = new HashMap<>();
+
+    // pvAndPbList中每个CDF的区间长度到CDF的索引，同一长度下按CDF升序
+    private final TreeMap<BigDecimal, TreeSet<BigDecimal>> range2Cdfs = new TreeMap<>();
+
+    // 只包含非等值区间的range2Cdfs，区间加入等值参数后惰性移除
+    private final TreeMap<BigDecimal, TreeSet<BigDecimal>> nonEqualRange2Cdfs = new TreeMap<>();
+
     private BigDecimal cumulativeError = BigDecimal.ZERO;
 
+    // 区间概率到概率相同的单值区间的data，惰性构建，分布变化后置空
+    private Map<BigDecimal, long[]> probability2SingleValueData;
+
+    // 分布是否从distribution.json载入，增量实例化时未重新计算的列需要原样写回
+    private boolean loadedConstraints;
+
+    // 定点数表示的最大小数位数，保证10^scale不超过long的范围
+    private static final int MAX_FIXED_POINT_SCALE = 18;
+
+    // 编译后的定点数分布，null时表示需要重新编译或者无法编译
+    private CompiledDistribution compiledDistribution;
+
+    private boolean needCompile = true;
+
+    // 定点数下的累计误差，单位为1/unit
+    private long cumulativeErrorUnits;
+
+    // 并行填充时每个分块的大小，固定的分块保证结果与核数无关
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
     public Distribution(BigDecimal nullPercentage, long range) {
         this.range = range;
         // 初始化pvAndPbList 插入pve
         Parameter pve = new Parameter();
         pve.setData(range);
         pve.setId(-1);
-        pvAndPbList.put(BigDecimal.ONE.subtract(nullPercentage), new ArrayList<>(List.of(pve)));
+        putCdf(BigDecimal.ONE.subtract(nullPercentage), new ArrayList<>(List.of(pve)));
         paraData2Probability.put(range, BigDecimal.ONE.subtract(nullPercentage));
     }
 
     public boolean hasConstraints() {
-        return pvAndPbList.size() > 1 || pvAndPbList.lastEntry().getValue().size() > 1;
+        return loadedConstraints || pvAndPbList.size() > 1 || pvAndPbList.lastEntry().getValue().size() > 1;
     }
 
     public BigDecimal getOffset(long dataIndex) {
@@ -75,8 +110,10 @@ public class Distribution {
         }
         if (probability.compareTo(BigDecimal.ONE) < 0 && probability.compareTo(BigDecimal.ZERO) > 0) {
             adjustNullPercentage(probability, parameters);
-            pvAndPbList.putIfAbsent(probability, new ArrayList<>());
-            pvAndPbList.get(probability).addAll(parameters);
+            if (!pvAndPbList.containsKey(probability)) {
+                putCdf(probability, new ArrayList<>());
+            }
+            addParameters(probability, parameters);
         } else {
             long dataIndex = probability.compareTo(BigDecimal.ZERO) <= 0 ? -1 : range + 20;
             for (Parameter parameter : parameters) {
@@ -87,13 +124,10 @@ public class Distribution {
 
     private BigDecimal subReuse(List<Integer> containIdList, BigDecimal probability, Parameter parameter) {
         for (Integer paraId : containIdList) {
-            for (Map.Entry<BigDecimal, List<Parameter>> pb2pvList : pvAndPbList.entrySet()) {
-                for (Parameter assignParameter : pb2pvList.getValue()) {
-                    if (Objects.equals(assignParameter.getId(), paraId)) {
-                        pb2pvList.getValue().add(parameter);
-                        return probability.subtract(getRange(pb2pvList.getKey()));
-                    }
-                }
+            BigDecimal cdf = paraId2Cdf.get(paraId);
+            if (cdf != null) {
+                addParameters(cdf, List.of(parameter));
+                return probability.subtract(getRange(cdf));
             }
         }
         return probability;
@@ -103,8 +137,7 @@ public class Distribution {
         var parIter = tempParameterList.iterator();
         while (parIter.hasNext()) {
             Parameter parameter = parIter.next();
-            int id = parameter.getId();
-            List<Integer> containIdList = idList.stream().filter(list -> list.contains(id)).findAny().orElse(null);
+            List<Integer> containIdList = paraId2IdGroup.get(parameter.getId());
             if (containIdList != null) {
                 BigDecimal tempProbability = subReuse(containIdList, probability, parameter);
                 if (tempProbability.compareTo(probability) < 0) {
@@ -127,10 +160,10 @@ public class Distribution {
         if (probability.compareTo(validCDFRange) > 0) {
             pvAndPbList.get(validCDFRange).removeIf(parameter -> parameter.getId() == -1);
             if (pvAndPbList.get(validCDFRange).isEmpty()) {
-                pvAndPbList.remove(validCDFRange);
+                removeCdf(validCDFRange);
             }
             BigDecimal error = probability.subtract(validCDFRange);
-            pvAndPbList.put(probability, new ArrayList<>(List.of(new Parameter(-1, null, null))));
+            putCdf(probability, new ArrayList<>(List.of(new Parameter(-1, null, null))));
             logger.error(rb.getString("beyondCDFRange"),
                     parameters.stream().mapToInt(Parameter::getId).boxed().toList(), error);
         }
@@ -138,14 +171,7 @@ public class Distribution {
 
 
     private boolean canBeReused(List<Parameter> parameters, BigDecimal probability) {
-        boolean status = true;
-        for (Parameter parameter : parameters) {
-            for (List<Integer> integers : idList) {
-                if (integers.contains(parameter.getId())) {
-                    status = false;
-                }
-            }
-        }
+        boolean status = parameters.stream().noneMatch(parameter -> paraId2IdGroup.containsKey(parameter.getId()));
         if (!isNonEqualRange(parameters) && probability.compareTo(reuseEqProbabilityLimit) <= 0) {
             status = false;
         }
@@ -172,26 +198,16 @@ public class Distribution {
         }
         // 标记该参数为等值的参数
         tempParameterList.forEach(parameter -> parameter.setEqualPredicate(true));
-        BigDecimal minRange = BigDecimal.TEN;
-        BigDecimal minCDF = BigDecimal.ZERO;
-        for (var currentCDF : pvAndPbList.entrySet()) {
-            BigDecimal currentRange = getRange(currentCDF.getKey());
-            // 当前空间可以被完全利用
-            if (currentRange.compareTo(probability) == 0 && canBeReused(currentCDF.getValue(), probability)) {
-                currentCDF.getValue().addAll(tempParameterList);
+        // 当前空间可以被完全利用
+        for (BigDecimal cdf : range2Cdfs.getOrDefault(probability, new TreeSet<>())) {
+            if (canBeReused(pvAndPbList.get(cdf), probability)) {
+                addParameters(cdf, tempParameterList);
                 return;
-            } else {
-                // 找到可以放置的最小空间
-                boolean enoughCapacity = currentRange.compareTo(probability) > 0;
-                boolean isMinRange = minRange.compareTo(currentRange) > 0;
-                // 如果cdf中包含等值的参数 则该range为一个等值的range，不可分割
-                boolean isNonEqualRange = isNonEqualRange(currentCDF.getValue());
-                if (enoughCapacity && isMinRange && isNonEqualRange) {
-                    minRange = currentRange;
-                    minCDF = currentCDF.getKey();
-                }
             }
         }
+        // 找到可以放置的最小空间，如果cdf中包含等值的参数 则该range为一个等值的range，不可分割
+        BigDecimal minCDF = findMinNonEqualCdf(probability);
+        BigDecimal minRange = minCDF.compareTo(BigDecimal.ZERO) == 0 ? BigDecimal.TEN : getRange(minCDF);
         // 如果没有找到
         if (minCDF.compareTo(BigDecimal.ZERO) == 0) {
             if (tempParameterList.size() == 1 || !dealWithInPredicatesGreedily(probability, tempParameterList)) {
@@ -207,20 +223,122 @@ public class Distribution {
                 }
                 BigDecimal remainCapacity = minRange.subtract(eachPb);
                 BigDecimal eqCDf = minCDF.subtract(remainCapacity);
-                pvAndPbList.put(eqCDf, new LinkedList<>(Collections.singletonList(parameter)));
+                putCdf(eqCDf, new LinkedList<>(Collections.singletonList(parameter)));
                 minRange = remainCapacity;
             }
         } else if (!tempParameterList.isEmpty()) {
             BigDecimal remainCapacity = minRange.subtract(probability);
             BigDecimal eqCDf = minCDF.subtract(remainCapacity);
-            pvAndPbList.put(eqCDf, new LinkedList<>(tempParameterList));
+            putCdf(eqCDf, new LinkedList<>(tempParameterList));
+        }
+    }
+
+    /**
+     * @param probability 需要放置的概率
+     * @return 长度大于probability的最小非等值区间的CDF，长度相同时取最小的CDF，不存在时返回0
+     */
+    private BigDecimal findMinNonEqualCdf(BigDecimal probability) {
+        var rangeIterator = nonEqualRange2Cdfs.tailMap(probability, false).entrySet().iterator();
+        while (rangeIterator.hasNext()) {
+            TreeSet<BigDecimal> cdfs = rangeIterator.next().getValue();
+            var cdfIterator = cdfs.iterator();
+            while (cdfIterator.hasNext()) {
+                BigDecimal cdf = cdfIterator.next();
+                if (isNonEqualRange(pvAndPbList.get(cdf))) {
+                    return cdf;
+                }
+                cdfIterator.remove();
+            }
+            rangeIterator.remove();
+        }
+        return BigDecimal.ZERO;
+    }
+
+    /**
+     * 向pvAndPbList中放入cdf及其参数，同时维护区间长度与参数id的索引
+     */
+    private void putCdf(BigDecimal cdf, List<Parameter> parameters) {
+        List<Parameter> oldParameters = pvAndPbList.get(cdf);
+        if (oldParameters == null) {
+            // 新的cdf会切分上一个cdf的区间
+            BigDecimal higherCdf = pvAndPbList.higherKey(cdf);
+            if (higherCdf != null) {
+                removeRangeIndex(higherCdf);
+            }
+            pvAndPbList.put(cdf, parameters);
+            addRangeIndex(cdf);
+            if (higherCdf != null) {
+                addRangeIndex(higherCdf);
+            }
+        } else {
+            removeRangeIndex(cdf);
+            pvAndPbList.put(cdf, parameters);
+            addRangeIndex(cdf);
+            if (!oldParameters.isEmpty()) {
+                rebuildParameterIndex();
+            }
+        }
+        indexParameters(cdf, parameters);
+    }
+
+    private void removeCdf(BigDecimal cdf) {
+        BigDecimal higherCdf = pvAndPbList.higherKey(cdf);
+        removeRangeIndex(cdf);
+        if (higherCdf != null) {
+            removeRangeIndex(higherCdf);
+        }
+        List<Parameter> oldParameters = pvAndPbList.remove(cdf);
+        if (higherCdf != null) {
+            addRangeIndex(higherCdf);
+        }
+        if (!oldParameters.isEmpty()) {
+            rebuildParameterIndex();
+        }
+    }
+
+    private void addParameters(BigDecimal cdf, Collection<Parameter> parameters) {
+        pvAndPbList.get(cdf).addAll(parameters);
+        indexParameters(cdf, parameters);
+    }
+
+    private void indexParameters(BigDecimal cdf, Collection<Parameter> parameters) {
+        for (Parameter parameter : parameters) {
+            if (parameter.getId() >= 0) {
+                paraId2Cdf.merge(parameter.getId(), cdf, BigDecimal::min);
+            }
+        }
+    }
+
+    private void rebuildParameterIndex() {
+        paraId2Cdf.clear();
+        pvAndPbList.forEach(this::indexParameters);
+    }
+
+    private void addRangeIndex(BigDecimal cdf) {
+        BigDecimal cdfRange = getRange(cdf);
+        range2Cdfs.computeIfAbsent(cdfRange, k -> new TreeSet<>()).add(cdf);
+        if (isNonEqualRange(pvAndPbList.get(cdf))) {
+            nonEqualRange2Cdfs.computeIfAbsent(cdfRange, k -> new TreeSet<>()).add(cdf);
+        }
+    }
+
+    private void removeRangeIndex(BigDecimal cdf) {
+        BigDecimal cdfRange = getRange(cdf);
+        removeRangeIndex(range2Cdfs, cdfRange, cdf);
+        removeRangeIndex(nonEqualRange2Cdfs, cdfRange, cdf);
+    }
+
+    private static void removeRangeIndex(TreeMap<BigDecimal, TreeSet<BigDecimal>> index, BigDecimal cdfRange, BigDecimal cdf) {
+        TreeSet<BigDecimal> cdfs = index.get(cdfRange);
+        if (cdfs != null && cdfs.remove(cdf) && cdfs.isEmpty()) {
+            index.remove(cdfRange);
         }
     }
 
     private record RangeStart2RangeBound(BigDecimal start, BigDecimal bound) {
     }
 
-    private record RangeBound2Parameters(BigDecimal range, List<Parameter> parameters) {
+    private record RangeBound2Parameters(BigDecimal cdf, BigDecimal range, List<Parameter> parameters) {
     }
 
     private boolean dealWithInPredicatesGreedily(BigDecimal probability, List<Parameter> tempParameterList) {
@@ -230,7 +348,7 @@ public class Distribution {
             if (isNonEqualRange(currentCDF.getValue())) {
                 range2StartForNoEq.add(new RangeStart2RangeBound(currentCDF.getKey(), getRange(currentCDF.getKey())));
             } else {
-                range2StartForEq.add(new RangeBound2Parameters(getRange(currentCDF.getKey()), currentCDF.getValue()));
+                range2StartForEq.add(new RangeBound2Parameters(currentCDF.getKey(), getRange(currentCDF.getKey()), currentCDF.getValue()));
             }
         }
         range2StartForEq.sort((o1, o2) -> o2.range().compareTo(o1.range()));
@@ -240,10 +358,10 @@ public class Distribution {
             if (canDivide || canPutIn) {
                 probability = probability.subtract(mostRange2Start.range());
                 if (probability.compareTo(BigDecimal.ZERO) == 0) {
-                    mostRange2Start.parameters().addAll(tempParameterList);
+                    addParameters(mostRange2Start.cdf(), tempParameterList);
                     return true;
                 } else {
-                    mostRange2Start.parameters().add(tempParameterList.remove(0));
+                    addParameters(mostRange2Start.cdf(), List.of(tempParameterList.remove(0)));
                 }
             }
         }
@@ -252,13 +370,13 @@ public class Distribution {
             probability = probability.subtract(mostRange2Start.bound());
             if (probability.compareTo(BigDecimal.ZERO) > 0) {
                 BigDecimal eqCDf = mostRange2Start.start().subtract(mostRange2Start.bound());
-                pvAndPbList.put(eqCDf, new LinkedList<>(Collections.singletonList(tempParameterList.remove(0))));
+                putCdf(eqCDf, new LinkedList<>(Collections.singletonList(tempParameterList.remove(0))));
                 if (tempParameterList.isEmpty()) {
                     return false;
                 }
             } else {
                 BigDecimal eqCDf = mostRange2Start.start().add(probability);
-                pvAndPbList.put(eqCDf, new LinkedList<>(tempParameterList));
+                putCdf(eqCDf, new LinkedList<>(tempParameterList));
                 return true;
             }
         }
@@ -281,6 +399,7 @@ public class Distribution {
      * @return 增加的基数
      */
     public long initAllParameters() {
+        invalidateCompiledDistribution();
         offset2Pv.clear();
         long addCardinality = 0;
         if (range <= 0) {
@@ -336,15 +455,17 @@ public class Distribution {
         }
     }
 
-    private long[] generateAttributeData(BigDecimal bSize) {
+    private long[] generateAttributeData(BigDecimal bSize, long batchSeed) {
         // 如果全列数据为空，则不需要填充属性值
         if (paraData2Probability.size() == 1 && paraData2Probability.lastKey() == -1) {
             return new long[0];
         }
         // 生成为左闭右开，因此lastParaData始终比上一右边界大
         long lastParaData = 1;
-        List<Long> allBoundPvs = offset2Pv.values().stream().toList();
+        LongSet allBoundPvs = LongSet.of(offset2Pv.values());
         List<long[]> rangeValues = new ArrayList<>();
+        // BigDecimal版本顺序生成，整个batch作为一个分块
+        SplittableRandom random = new SplittableRandom(ColumnManager.getChunkSeed(batchSeed, 0));
         for (Map.Entry<Long, BigDecimal> data2Probability : paraData2Probability.entrySet()) {
             long currentParaData = data2Probability.getKey();
             if (!allBoundPvs.contains(currentParaData)) {
@@ -355,7 +476,7 @@ public class Distribution {
                     Arrays.fill(rangeValue, currentParaData);
                 } else {
                     for (int i = 0; i < rangeValue.length; i++) {
-                        rangeValue[i] = ThreadLocalRandom.current().nextLong(lastParaData, currentParaData + 1);
+                        rangeValue[i] = random.nextLong(lastParaData, currentParaData + 1);
                     }
                 }
                 rangeValues.add(rangeValue);
@@ -397,11 +518,37 @@ public class Distribution {
      * 在column中维护数据
      * todo 列内随机生成，且有NULL的部分不要随机
      *
-     * @param size column内部需要维护的数据大小
+     * @param size      column内部需要维护的数据大小
+     * @param batchSeed 该列在当前batch的随机种子，相同种子和相同分布下生成的数据完全一致
+     * @return 按照取值范围选择最窄类型的列数据
      */
-    public long[] prepareTupleData(int size) {
+    ColumnVector prepareTupleData(int size, long batchSeed) {
+        return prepareTupleData(size, batchSeed, true);
+    }
+
+    ColumnVector prepareTupleData(int size, long batchSeed, boolean useCompiled) {
+        if (needCompile) {
+            compiledDistribution = compile();
+            needCompile = false;
+        }
+        CompiledDistribution compiled = compiledDistribution;
+        if (compiled == null) {
+            return ColumnVector.of(prepareTupleDataWithBigDecimal(size, batchSeed));
+        }
+        if (!useCompiled || size > compiled.maxSafeSize()) {
+            // 乘积可能溢出long，退化为BigDecimal计算，误差在两种表示之间无损转换
+            cumulativeError = BigDecimal.valueOf(cumulativeErrorUnits, compiled.scale());
+            long[] columnData = prepareTupleDataWithBigDecimal(size, batchSeed);
+            cumulativeErrorUnits = cumulativeError.movePointRight(compiled.scale()).longValueExact();
+            cumulativeError = BigDecimal.ZERO;
+            return ColumnVector.of(columnData);
+        }
+        return prepareTupleDataWithFixedPoint(compiled, size, batchSeed);
+    }
+
+    private long[] prepareTupleDataWithBigDecimal(int size, long batchSeed) {
         BigDecimal bSize = BigDecimal.valueOf(size);
-        long[] attributeData = generateAttributeData(bSize);
+        long[] attributeData = generateAttributeData(bSize, batchSeed);
         // 将属性值与bound值组合
         int currentIndex = 0;
         int attributeIndex = 0;
@@ -433,24 +580,361 @@ public class Distribution {
         return columnData;
     }
 
+    /**
+     * 计算一个batch的数据分段而不生成数据，用于输出时按行号直接计算的payload列
+     *
+     * @param size      batch大小
+     * @param batchSeed 该列在当前batch的随机种子
+     * @return batch的分段，无法使用定点数计算时返回null，此时需要调用prepareTupleData生成完整的数据
+     */
+    TupleLayout prepareTupleLayout(int size, long batchSeed) {
+        if (needCompile) {
+            compiledDistribution = compile();
+            needCompile = false;
+        }
+        CompiledDistribution compiled = compiledDistribution;
+        if (compiled == null || size > compiled.maxSafeSize()) {
+            return null;
+        }
+        return computeTupleLayout(compiled, size, batchSeed);
+    }
+
+    private ColumnVector prepareTupleDataWithFixedPoint(CompiledDistribution compiled, int size, long batchSeed) {
+        TupleLayout layout = computeTupleLayout(compiled, size, batchSeed);
+        int[] segmentStarts = layout.segmentStarts();
+        long[] segmentLows = layout.segmentLows();
+        long[] segmentHighs = layout.segmentHighs();
+        int segmentNum = layout.segmentNum();
+        // 按照所有段的取值范围选择列数据的存储类型
+        long minValue = 0;
+        long maxValue = 0;
+        for (int i = 0; i < segmentNum; i++) {
+            if (segmentLows[i] != Long.MIN_VALUE) {
+                minValue = Math.min(minValue, segmentLows[i]);
+                maxValue = Math.max(maxValue, segmentHighs[i]);
+            }
+        }
+        // 按固定大小分块并行填充，每块的随机流由batch种子和分块编号确定，结果与并行度无关
+        ColumnVector columnData = ColumnVector.allocate(size, minValue, maxValue);
+        int chunkNum = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, chunkNum).parallel().forEach(chunkId -> {
+            int chunkStart = chunkId * CHUNK_SIZE;
+            int chunkEnd = Math.min(size, chunkStart + CHUNK_SIZE);
+            int segmentIndex = layout.segmentIndex(chunkStart);
+            SplittableRandom chunkRandom = new SplittableRandom(ColumnManager.getChunkSeed(batchSeed, chunkId));
+            int rowId = chunkStart;
+            while (rowId < chunkEnd) {
+                int segmentEnd = segmentIndex + 1 < segmentNum ?
+                        Math.min(segmentStarts[segmentIndex + 1], chunkEnd) : chunkEnd;
+                long low = segmentLows[segmentIndex];
+                long high = segmentHighs[segmentIndex];
+                if (low == high) {
+                    columnData.fill(rowId, segmentEnd, low);
+                } else {
+                    columnData.fillRandom(rowId, segmentEnd, low, high, chunkRandom);
+                }
+                rowId = segmentEnd;
+                segmentIndex++;
+            }
+        });
+        return columnData;
+    }
+
+    private TupleLayout computeTupleLayout(CompiledDistribution compiled, int size, long seed) {
+        // 按照与BigDecimal版本相同的顺序计算每个range的大小，保证误差的累计过程一致
+        long[] rangeBounds = compiled.rangeBounds();
+        int[] generateSizes = new int[rangeBounds.length];
+        int attributeLength = 0;
+        for (int i = 0; i < rangeBounds.length; i++) {
+            if (!compiled.isBound()[i]) {
+                generateSizes[i] = computeGenerateSize(compiled, size, compiled.rangeProbabilities()[i]);
+                attributeLength += generateSizes[i];
+            }
+        }
+        // 确定每个bound在batch中的起始位置和大小
+        int boundNum = compiled.boundPvs().length;
+        int[] boundStarts = new int[boundNum];
+        int[] boundSizes = new int[boundNum];
+        int currentIndex = 0;
+        int attributeIndex = 0;
+        for (int i = 0; i < boundNum; i++) {
+            int bOffset = (int) (size * compiled.boundOffsets()[i] / compiled.unit());
+            int copyLength = Math.min(bOffset - currentIndex, attributeLength - attributeIndex);
+            if (copyLength > 0) {
+                currentIndex += copyLength;
+                attributeIndex += copyLength;
+            }
+            boundStarts[i] = currentIndex;
+            boundSizes[i] = computeGenerateSize(compiled, size, compiled.boundProbabilities()[i]);
+            currentIndex += boundSizes[i];
+        }
+        int attributeEnd = currentIndex + Math.min(attributeLength - attributeIndex, size - currentIndex);
+        // 将batch划分为连续的段，每段的值从[low, high]中均匀生成，low等于high时为常量段
+        int maxSegmentNum = rangeBounds.length + 2 * boundNum + 2;
+        int[] segmentStarts = new int[maxSegmentNum];
+        long[] segmentLows = new long[maxSegmentNum];
+        long[] segmentHighs = new long[maxSegmentNum];
+        int segmentNum = 0;
+        int rangeIndex = -1;
+        int rangeRemain = 0;
+        long lastParaData = 1;
+        int columnIndex = 0;
+        for (int i = 0; i <= boundNum; i++) {
+            int attributeStop = i < boundNum ? boundStarts[i] : attributeEnd;
+            while (columnIndex < attributeStop) {
+                // 生成为左闭右开，因此lastParaData始终比上一右边界大
+                while (rangeRemain == 0) {
+                    if (rangeIndex >= 0) {
+                        lastParaData = rangeBounds[rangeIndex] + 1;
+                    }
+                    rangeIndex++;
+                    rangeRemain = compiled.isBound()[rangeIndex] ? 0 : generateSizes[rangeIndex];
+                }
+                int length = Math.min(rangeRemain, attributeStop - columnIndex);
+                segmentStarts[segmentNum] = columnIndex;
+                segmentLows[segmentNum] = lastParaData;
+                segmentHighs[segmentNum++] = rangeBounds[rangeIndex];
+                columnIndex += length;
+                rangeRemain -= length;
+            }
+            if (i < boundNum && boundSizes[i] > 0) {
+                segmentStarts[segmentNum] = columnIndex;
+                segmentLows[segmentNum] = compiled.boundPvs()[i];
+                segmentHighs[segmentNum++] = compiled.boundPvs()[i];
+                columnIndex += boundSizes[i];
+            }
+        }
+        // 使用Long.MIN_VALUE标记结尾的null值
+        if (columnIndex < size) {
+            segmentStarts[segmentNum] = columnIndex;
+            segmentLows[segmentNum] = Long.MIN_VALUE;
+            segmentHighs[segmentNum++] = Long.MIN_VALUE;
+        }
+        return new TupleLayout(segmentStarts, segmentLows, segmentHighs, segmentNum, seed);
+    }
+
+    /**
+     * 定点数下的四舍五入与误差补偿，与BigDecimal版本的computeGenerateSize结果一致
+     */
+    private int computeGenerateSize(CompiledDistribution compiled, long size, long probability) {
+        long unit = compiled.unit();
+        long exactSize = size * probability;
+        long roundOffset = (exactSize + unit / 2) / unit;
+        cumulativeErrorUnits += roundOffset * unit - exactSize;
+        if (cumulativeErrorUnits >= unit) {
+            cumulativeErrorUnits -= unit;
+            roundOffset--;
+        } else if (cumulativeErrorUnits <= -unit) {
+            cumulativeErrorUnits += unit;
+            roundOffset++;
+        }
+        return (int) roundOffset;
+    }
+
+    private void invalidateCompiledDistribution() {
+        if (compiledDistribution != null) {
+            cumulativeError = BigDecimal.valueOf(cumulativeErrorUnits, compiledDistribution.scale());
+            cumulativeErrorUnits = 0;
+            compiledDistribution = null;
+        }
+        needCompile = true;
+        probability2SingleValueData = null;
+    }
+
+    /**
+     * 单值区间中只有一个data，替换为另一个概率相同的单值区间的data时等值参数的选择率不变
+     * bound PV需要与其他列的行对齐，不参与替换
+     *
+     * @param data 等值参数的data
+     * @return 与data概率相同的单值区间的所有data，包含data本身，data不在可替换的单值区间时返回空数组
+     */
+    public long[] getEqualProbabilityData(long data) {
+        if (probability2SingleValueData == null) {
+            LongSet allBoundPvs = LongSet.of(offset2Pv.values());
+            Map<BigDecimal, List<Long>> probability2Data = new HashMap<>();
+            // 生成的data从1开始，每个区间为(上一个paraData, paraData]
+            long lastParaData = 0;
+            for (Map.Entry<Long, BigDecimal> data2Probability : paraData2Probability.entrySet()) {
+                long currentParaData = data2Probability.getKey();
+                if (currentParaData == lastParaData + 1 && !allBoundPvs.contains(currentParaData)) {
+                    probability2Data.computeIfAbsent(data2Probability.getValue().stripTrailingZeros(), k -> new ArrayList<>())
+                            .add(currentParaData);
+                }
+                lastParaData = currentParaData;
+            }
+            Map<BigDecimal, long[]> singleValueData = new HashMap<>();
+            probability2Data.forEach((probability, dataList) ->
+                    singleValueData.put(probability, dataList.stream().mapToLong(Long::longValue).toArray()));
+            probability2SingleValueData = singleValueData;
+        }
+        BigDecimal probability = paraData2Probability.get(data);
+        if (probability == null) {
+            return new long[0];
+        }
+        long[] equalProbabilityData = probability2SingleValueData.getOrDefault(probability.stripTrailingZeros(), new long[0]);
+        return Arrays.binarySearch(equalProbabilityData, data) >= 0 ? equalProbabilityData : new long[0];
+    }
+
+    /**
+     * 将分布编译为以10^scale为单位的定点数，scale取所有概率的最大小数位数，
+     * 因此每个batch的乘法和四舍五入在long上是精确的，结果与BigDecimal计算完全一致
+     *
+     * @return 编译后的分布，概率为负或者精度超出long时返回null
+     */
+    private CompiledDistribution compile() {
+        if (paraData2Probability.size() == 1 && paraData2Probability.lastKey() == -1) {
+            return null;
+        }
+        List<BigDecimal> allProbabilities = new ArrayList<>(paraData2Probability.values());
+        allProbabilities.addAll(offset2Pv.keySet());
+        for (Long pv : offset2Pv.values()) {
+            allProbabilities.add(paraData2Probability.get(pv));
+        }
+        int scale = Math.max(0, cumulativeError.stripTrailingZeros().scale());
+        BigDecimal maxProbability = BigDecimal.ONE;
+        for (BigDecimal probability : allProbabilities) {
+            if (probability == null || probability.signum() < 0) {
+                return null;
+            }
+            scale = Math.max(scale, probability.stripTrailingZeros().scale());
+            maxProbability = maxProbability.max(probability);
+        }
+        if (scale > MAX_FIXED_POINT_SCALE || maxProbability.compareTo(BigDecimal.valueOf(Long.MAX_VALUE, scale)) > 0) {
+            return null;
+        }
+        long unit = BigDecimal.ONE.movePointRight(scale).longValueExact();
+        int rangeNum = paraData2Probability.size();
+        long[] rangeBounds = new long[rangeNum];
+        long[] rangeProbabilities = new long[rangeNum];
+        boolean[] isBound = new boolean[rangeNum];
+        LongSet allBoundPvs = LongSet.of(offset2Pv.values());
+        int rangeIndex = 0;
+        for (Map.Entry<Long, BigDecimal> data2Probability : paraData2Probability.entrySet()) {
+            rangeBounds[rangeIndex] = data2Probability.getKey();
+            rangeProbabilities[rangeIndex] = toFixedPoint(data2Probability.getValue(), scale);
+            isBound[rangeIndex++] = allBoundPvs.contains(data2Probability.getKey());
+        }
+        int boundNum = offset2Pv.size();
+        long[] boundOffsets = new long[boundNum];
+        long[] boundPvs = new long[boundNum];
+        long[] boundProbabilities = new long[boundNum];
+        int boundIndex = 0;
+        for (Map.Entry<BigDecimal, Long> pv2Offset : offset2Pv.entrySet()) {
+            boundOffsets[boundIndex] = toFixedPoint(pv2Offset.getKey(), scale);
+            boundPvs[boundIndex] = pv2Offset.getValue();
+            boundProbabilities[boundIndex++] = toFixedPoint(paraData2Probability.get(pv2Offset.getValue()), scale);
+        }
+        cumulativeErrorUnits = toFixedPoint(cumulativeError, scale);
+        cumulativeError = BigDecimal.ZERO;
+        long maxSafeSize = (Long.MAX_VALUE - unit) / toFixedPoint(maxProbability, scale);
+        return new CompiledDistribution(scale, unit, maxSafeSize, rangeBounds, rangeProbabilities, isBound,
+                boundOffsets, boundPvs, boundProbabilities);
+    }
+
+    private static long toFixedPoint(BigDecimal probability, int scale) {
+        return probability.movePointRight(scale).longValueExact();
+    }
+
+    /**
+     * 定点数表示的分布，概率p表示为p*unit
+     *
+     * @param maxSafeSize        乘积不会溢出的最大batch大小
+     * @param rangeBounds        每个range的右边界
+     * @param rangeProbabilities 每个range的概率
+     * @param isBound            该range是否为bound参数
+     * @param boundOffsets       bound在batch中的起始位置比例
+     * @param boundPvs           bound的参数值
+     * @param boundProbabilities bound的概率
+     */
+    private record CompiledDistribution(int scale, long unit, long maxSafeSize,
+                                        long[] rangeBounds, long[] rangeProbabilities, boolean[] isBound,
+                                        long[] boundOffsets, long[] boundPvs, long[] boundProbabilities) {
+    }
+
+    /**
+     * 一个batch的数据分段，每段的值从[low, high]中均匀生成，low等于high时为常量段，null段的low和high为Long.MIN_VALUE
+     *
+     * @param segmentStarts 每段的起始行
+     * @param segmentLows   每段的最小值
+     * @param segmentHighs  每段的最大值
+     * @param segmentNum    段数
+     * @param seed          按行号计算随机值时使用的种子
+     */
+    record TupleLayout(int[] segmentStarts, long[] segmentLows, long[] segmentHighs, int segmentNum, long seed) {
+        int segmentIndex(int rowId) {
+            int segmentIndex = Arrays.binarySearch(segmentStarts, 0, segmentNum, rowId);
+            return segmentIndex >= 0 ? segmentIndex : -segmentIndex - 2;
+        }
+
+        /**
+         * 直接计算第rowId行的值，随机值只与seed和rowId有关，可以按任意顺序并行访问
+         */
+        long valueAt(int rowId) {
+            int segmentIndex = segmentIndex(rowId);
+            long low = segmentLows[segmentIndex];
+            long high = segmentHighs[segmentIndex];
+            if (low == high) {
+                return low;
+            }
+            long hash = StringTemplate.mix64(seed + rowId * GOLDEN_GAMMA);
+            return low + Math.unsignedMultiplyHigh(hash, high - low + 1);
+        }
+    }
+
     public SortedMap<BigDecimal, Long> getOffset2Pv() {
         return offset2Pv;
     }
 
     public void setOffset2Pv(SortedMap<BigDecimal, Long> offset2Pv) {
+        invalidateCompiledDistribution();
         this.offset2Pv = offset2Pv;
     }
 
+    public void putBoundOffset(BigDecimal offset, long pv) {
+        invalidateCompiledDistribution();
+        offset2Pv.put(offset, pv);
+    }
+
     public SortedMap<Long, BigDecimal> getParaData2Probability() {
         return paraData2Probability;
     }
 
     public void setParaData2Probability(SortedMap<Long, BigDecimal> paraData2Probability) {
+        invalidateCompiledDistribution();
         this.paraData2Probability = paraData2Probability;
+        loadedConstraints = true;
+    }
+
+
+    NavigableMap<BigDecimal, List<Parameter>> getPvAndPbList() {
+        return Collections.unmodifiableNavigableMap(pvAndPbList);
     }
 
+    Map<Integer, List<Integer>> getParaId2IdGroup() {
+        return Collections.unmodifiableMap(paraId2IdGroup);
+    }
+
+    Map<Integer, BigDecimal> getParaId2Cdf() {
+        return Collections.unmodifiableMap(paraId2Cdf);
+    }
+
+    NavigableMap<BigDecimal, TreeSet<BigDecimal>> getRange2Cdfs() {
+        return Collections.unmodifiableNavigableMap(range2Cdfs);
+    }
+
+    NavigableMap<BigDecimal, TreeSet<BigDecimal>> getNonEqualRange2Cdfs() {
+        return Collections.unmodifiableNavigableMap(nonEqualRange2Cdfs);
+    }
+
+    public List<List<Integer>> getIdList() {
+        return idList;
+    }
 
     public void setIdList(List<List<Integer>> idList) {
         this.idList = idList;
+        paraId2IdGroup = new HashMap<>();
+        for (List<Integer> idGroup : idList) {
+            idGroup.forEach(id -> paraId2IdGroup.putIfAbsent(id, idGroup));
+        }
     }
 }
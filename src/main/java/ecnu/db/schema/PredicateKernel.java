@@ -0,0 +1,77 @@
+package ecnu.db.schema;
+
+import ecnu.db.generator.constraintchain.filter.operation.CompareOperator;
+
+/**
+ * 列数据与常量比较的计算内核，结果直接写为按位打包的mask
+ * 启动参数中包含--add-modules jdk.incubator.vector时使用Vector API实现，否则使用标量实现
+ */
+interface PredicateKernel {
+    /**
+     * 一个64行的word中选中行数不超过该值时逐个计算选中的行，否则整体计算后与选择向量求交
+     */
+    int SPARSE_WORD_THRESHOLD = 8;
+
+    /**
+     * 对前size行中selection选中的行计算data[i] operator value，excludeNull为true时null值(Long.MIN_VALUE)的结果为false
+     *
+     * @param data        列数据
+     * @param size        参与计算的行数
+     * @param operator    EQ, NE, LT, LE, GT, GE之一
+     * @param value       比较的常量
+     * @param excludeNull 是否排除null值
+     * @param selection   参与计算的行，未选中的行在结果中为0
+     * @param mask        输出的mask，写入前BitMasks.wordNum(size)个word
+     */
+    void compare(long[] data, int size, CompareOperator operator, long value, boolean excludeNull, long[] selection, long[] mask);
+
+    static boolean compare(long x, CompareOperator operator, long value, boolean excludeNull) {
+        boolean hit = switch (operator) {
+            case EQ -> x == value;
+            case NE -> x != value;
+            case LT -> x < value;
+            case LE -> x <= value;
+            case GT -> x > value;
+            case GE -> x >= value;
+            default -> throw new UnsupportedOperationException();
+        };
+        return hit && (!excludeNull || x != Long.MIN_VALUE);
+    }
+
+    /**
+     * 逐个计算word中选中的行
+     *
+     * @return 该word的计算结果
+     */
+    static long compareSelected(long[] data, CompareOperator operator, long value, boolean excludeNull, int start, long selected) {
+        long bits = 0;
+        while (selected != 0) {
+            long lowest = selected & -selected;
+            if (compare(data[start + Long.numberOfTrailingZeros(lowest)], operator, value, excludeNull)) {
+                bits |= lowest;
+            }
+            selected ^= lowest;
+        }
+        return bits;
+    }
+
+    static PredicateKernel getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    final class Holder {
+        private static final PredicateKernel INSTANCE = load();
+
+        private Holder() {
+        }
+
+        private static PredicateKernel load() {
+            try {
+                return (PredicateKernel) Class.forName("ecnu.db.schema.VectorPredicateKernel")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return new ScalarPredicateKernel();
+            }
+        }
+    }
+}
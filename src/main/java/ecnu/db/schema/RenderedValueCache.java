@@ -0,0 +1,98 @@
+package ecnu.db.schema;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 列内data id到输出字符串的缓存，避免低基数列对每一行重复格式化
+ * range较小时使用按id直接寻址的稠密数组，中等基数时使用按id哈希的有界缓存，冲突时直接替换旧值
+ * 所有列的缓存共享一个全局内存上限，超过上限后不再缓存新的值
+ * 缓存的是格式化后的字节，输出时直接复制到行缓冲中
+ */
+class RenderedValueCache {
+    // 使用稠密数组的range上限
+    private static final long DENSE_RANGE_LIMIT = 1 << 16;
+    // 使用有界缓存的range上限，超过时命中率过低，不再缓存
+    private static final long BOUNDED_RANGE_LIMIT = 1 << 18;
+    // 有界缓存的槽位数
+    private static final int BOUNDED_SLOT_BITS = 16;
+    // 所有缓存的内存上限
+    private static final long MAX_CACHE_BYTES = 256L << 20;
+    // 每个缓存值除字符内容外的估计开销
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private static final AtomicLong usedBytes = new AtomicLong();
+
+    private final Entry[] entries;
+    private final boolean dense;
+    private final AtomicLong ownedBytes = new AtomicLong();
+
+    /**
+     * entry的字段均为final，保证其他线程读到引用时一定能读到完整的值
+     */
+    private record Entry(long dataId, byte[] value) {
+    }
+
+    private RenderedValueCache(int slotNum, boolean dense) {
+        this.entries = new Entry[slotNum];
+        this.dense = dense;
+    }
+
+    /**
+     * @param range 列的data id范围
+     * @return 适合该range的缓存，range过大时返回null
+     */
+    static RenderedValueCache create(long range) {
+        if (range < 0 || range > BOUNDED_RANGE_LIMIT) {
+            return null;
+        }
+        if (range < DENSE_RANGE_LIMIT) {
+            // 生成的data id位于[0, range + 1]之内
+            return new RenderedValueCache((int) range + 2, true);
+        }
+        return new RenderedValueCache(1 << BOUNDED_SLOT_BITS, false);
+    }
+
+    private int slot(long dataId) {
+        if (dense) {
+            return dataId >= 0 && dataId < entries.length ? (int) dataId : -1;
+        }
+        return (int) ((dataId * 0x9E3779B97F4A7C15L) >>> (64 - BOUNDED_SLOT_BITS));
+    }
+
+    byte[] get(long dataId) {
+        int slot = slot(dataId);
+        if (slot < 0) {
+            return null;
+        }
+        Entry entry = entries[slot];
+        return entry != null && entry.dataId() == dataId ? entry.value() : null;
+    }
+
+    /**
+     * 并发写入同一槽位时只保留其中一个值，内存额度为近似统计
+     */
+    void put(long dataId, byte[] value) {
+        int slot = slot(dataId);
+        if (slot < 0) {
+            return;
+        }
+        Entry oldEntry = entries[slot];
+        long delta = value.length + ENTRY_OVERHEAD_BYTES - (oldEntry == null ? 0 : oldEntry.value().length + ENTRY_OVERHEAD_BYTES);
+        if (delta > 0 && usedBytes.addAndGet(delta) > MAX_CACHE_BYTES) {
+            usedBytes.addAndGet(-delta);
+            return;
+        }
+        if (delta < 0) {
+            usedBytes.addAndGet(delta);
+        }
+        ownedBytes.addAndGet(delta);
+        entries[slot] = new Entry(dataId, value);
+    }
+
+    /**
+     * 释放该缓存占用的全局内存额度
+     */
+    void release() {
+        usedBytes.addAndGet(-ownedBytes.getAndSet(0));
+    }
+}
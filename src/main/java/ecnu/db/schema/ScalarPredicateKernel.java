@@ -0,0 +1,28 @@
+package ecnu.db.schema;
+
+import ecnu.db.generator.constraintchain.filter.operation.CompareOperator;
+import ecnu.db.utils.BitMasks;
+
+/**
+ * 标量实现的比较内核，稠密的word逐行计算后拼接为mask，稀疏的word只计算选中的行
+ */
+class ScalarPredicateKernel implements PredicateKernel {
+    @Override
+    public void compare(long[] data, int size, CompareOperator operator, long value, boolean excludeNull, long[] selection, long[] mask) {
+        int wordNum = BitMasks.wordNum(size);
+        for (int word = 0; word < wordNum; word++) {
+            long selected = selection[word];
+            int start = word << 6;
+            if (Long.bitCount(selected) <= SPARSE_WORD_THRESHOLD) {
+                mask[word] = PredicateKernel.compareSelected(data, operator, value, excludeNull, start, selected);
+                continue;
+            }
+            int end = Math.min(start + Long.SIZE, size);
+            long bits = 0;
+            for (int i = start; i < end; i++) {
+                bits |= (PredicateKernel.compare(data[i], operator, value, excludeNull) ? 1L : 0L) << (i - start);
+            }
+            mask[word] = bits & selected;
+        }
+    }
+}
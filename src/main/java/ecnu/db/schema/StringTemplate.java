@@ -1,14 +1,24 @@
 package ecnu.db.schema;
 
-import java.util.Random;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Set;
 import java.util.TreeSet;
 
 class StringTemplate {
-    private static final char[] randomCharSet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
-    private static final char[] likeRandomCharSet = "0123456789".toCharArray();
+    private static final byte[] randomCharSet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] likeRandomCharSet = "0123456789".getBytes(StandardCharsets.US_ASCII);
 
-    private static final char NO_EXIST_TAIL_CHAR = '-';
+    private static final byte NO_EXIST_TAIL_CHAR = '-';
+
+    // SplitMix64的步长
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    // 每个64位随机数拆分出的字符数，52^8远小于2^64，保证每个字符足够均匀
+    private static final int CHARS_PER_WORD = 8;
+
+    // 每个线程复用的输出缓存
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[64]);
 
     int avgLength;
     int maxLength;
@@ -17,6 +27,9 @@ class StringTemplate {
 
     TreeSet<Long> subStringIndex = new TreeSet<>();
 
+    // subStringIndex的有序数组，用于二分计算dataId的排名，修改subStringIndex后置空并惰性重建
+    private volatile long[] subStringRanks;
+
     public StringTemplate(int avgLength, int maxLength, long specialValue, long range) {
         this.avgLength = avgLength;
         this.maxLength = maxLength;
@@ -35,40 +48,99 @@ class StringTemplate {
     }
 
     public String getParameterValue(long dataId) {
-        Random random = new Random(specialValue * dataId);
-        char[] values = new char[avgLength];
+        byte[] buffer = BUFFER.get();
+        if (buffer.length < avgLength) {
+            buffer = new byte[avgLength];
+            BUFFER.set(buffer);
+        }
+        int length = writeParameterValue(dataId, buffer, 0);
+        return new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 将dataId对应的字符串直接写入buffer，结果只与dataId有关，保证查询实例化与数据生成得到相同的字符串
+     *
+     * @param dataId 数据id
+     * @param buffer 输出缓存，需要至少有avgLength的剩余空间
+     * @param offset 写入的起始位置
+     * @return 写入结束后的位置
+     */
+    public int writeParameterValue(long dataId, byte[] buffer, int offset) {
+        int end = offset + avgLength;
+        if (avgLength == 0) {
+            return end;
+        }
+        int randomStart;
         if (dataId < 0) {
-            values[0] = NO_EXIST_TAIL_CHAR;
-            for (int i = 1; i < values.length; i++) {
-                values[i] = randomCharSet[random.nextInt(randomCharSet.length)];
-            }
+            buffer[offset] = NO_EXIST_TAIL_CHAR;
+            randomStart = offset + 1;
         } else {
             int startId = 0;
-            if (subStringIndex.contains(dataId)) {
+            int subStringRank = getSubStringRank(dataId);
+            if (subStringRank >= 0) {
                 // todo : mod may be error
-                values[0] = likeRandomCharSet[subStringIndex.headSet(dataId).size() % likeRandomCharSet.length];
+                buffer[offset] = likeRandomCharSet[subStringRank % likeRandomCharSet.length];
                 startId++;
             }
+            long id = dataId;
             for (int i = tag - 1; i >= startId; i--) {
-                values[i] = randomCharSet[(int) (dataId % randomCharSet.length)];
-                dataId /= randomCharSet.length;
+                buffer[offset + i] = randomCharSet[(int) (id % randomCharSet.length)];
+                id /= randomCharSet.length;
+            }
+            randomStart = offset + Math.max(tag, startId);
+        }
+        // 基于计数器的SplitMix64，每个dataId的初始状态再混合一次以避免相邻id的随机流错位重叠
+        // 每个64位随机数按52进制依次取出多个字符
+        long state = mix64(mix64(specialValue) + dataId * GOLDEN_GAMMA);
+        long word = 0;
+        int remainChars = 0;
+        for (int i = randomStart; i < end; i++) {
+            if (remainChars == 0) {
+                state += GOLDEN_GAMMA;
+                word = mix64(state);
+                remainChars = CHARS_PER_WORD;
             }
-            for (int i = tag; i < values.length; i++) {
-                values[i] = randomCharSet[random.nextInt(randomCharSet.length)];
+            buffer[i] = randomCharSet[(int) Math.unsignedMultiplyHigh(word, randomCharSet.length)];
+            word *= randomCharSet.length;
+            remainChars--;
+        }
+        return end;
+    }
+
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return dataId在subStringIndex中的排名，不存在时返回-1
+     */
+    private int getSubStringRank(long dataId) {
+        long[] ranks = subStringRanks;
+        if (ranks == null) {
+            synchronized (this) {
+                ranks = subStringRanks;
+                if (ranks == null) {
+                    ranks = subStringIndex.stream().mapToLong(Long::longValue).toArray();
+                    subStringRanks = ranks;
+                }
             }
         }
-        return new String(values);
+        return Math.max(Arrays.binarySearch(ranks, dataId), -1);
     }
 
-    public void addSubStringIndex(long dataId) {
+    public synchronized void addSubStringIndex(long dataId) {
         subStringIndex.add(dataId);
+        subStringRanks = null;
     }
 
     public Set<Long> getLikeIndex2Status() {
         return subStringIndex;
     }
 
-    public void setLikeIndex2Status(TreeSet<Long> likeIndex) {
+    public synchronized void setLikeIndex2Status(TreeSet<Long> likeIndex) {
         this.subStringIndex = likeIndex;
+        subStringRanks = null;
     }
-}
\ No newline at end of file
+}
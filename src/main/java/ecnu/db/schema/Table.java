@@ -68,7 +68,7 @@ public class Table {
      * @param refColumn   目标列
      * @return 参照时返回true，否则返回false
      */
-    public boolean isRefTable(String localColumn, String refColumn) {
+    public synchronized boolean isRefTable(String localColumn, String refColumn) {
         if (foreignKeys.containsKey(localColumn)) {
             return refColumn.equals(foreignKeys.get(localColumn));
         } else {
@@ -85,17 +85,17 @@ public class Table {
         return fk2PkTableSize;
     }
 
-    public boolean isRefTable(String refTable) {
+    public synchronized boolean isRefTable(String refTable) {
         return foreignKeys.values().stream().anyMatch(remoteColumn -> remoteColumn.contains(refTable));
     }
 
-    public void addForeignKey(String localTable, String localColumnName,
-                              String referencingTable, String referencingInfo) throws TouchstoneException {
+    public synchronized void addForeignKey(String localTable, String localColumnName,
+                                           String referencingTable, String referencingInfo) throws TouchstoneException {
         addForeignKey(foreignKeys, localTable, localColumnName, referencingTable, referencingInfo);
     }
 
-    public void addTmpForeignKey(String localTable, String localColumnName,
-                                 String referencingTable, String referencingInfo) throws TouchstoneException {
+    public synchronized void addTmpForeignKey(String localTable, String localColumnName,
+                                              String referencingTable, String referencingInfo) throws TouchstoneException {
         addForeignKey(tmpForeignKeys, localTable, localColumnName, referencingTable, referencingInfo);
     }
 
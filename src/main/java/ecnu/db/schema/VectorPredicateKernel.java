@@ -0,0 +1,55 @@
+package ecnu.db.schema;
+
+import ecnu.db.generator.constraintchain.filter.operation.CompareOperator;
+import ecnu.db.utils.BitMasks;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 基于Vector API的比较内核，每次比较一个向量宽度的数据，比较结果的VectorMask直接拼接进64行的mask
+ * 稀疏的word只计算选中的行
+ * 只能在启用jdk.incubator.vector模块时加载，由PredicateKernel通过反射创建
+ */
+class VectorPredicateKernel implements PredicateKernel {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    @Override
+    public void compare(long[] data, int size, CompareOperator operator, long value, boolean excludeNull, long[] selection, long[] mask) {
+        VectorOperators.Comparison comparison = switch (operator) {
+            case EQ -> VectorOperators.EQ;
+            case NE -> VectorOperators.NE;
+            case LT -> VectorOperators.LT;
+            case LE -> VectorOperators.LE;
+            case GT -> VectorOperators.GT;
+            case GE -> VectorOperators.GE;
+            default -> throw new UnsupportedOperationException();
+        };
+        int wordNum = BitMasks.wordNum(size);
+        for (int word = 0; word < wordNum; word++) {
+            long selected = selection[word];
+            int start = word << 6;
+            if (Long.bitCount(selected) <= SPARSE_WORD_THRESHOLD) {
+                mask[word] = PredicateKernel.compareSelected(data, operator, value, excludeNull, start, selected);
+                continue;
+            }
+            int end = Math.min(start + Long.SIZE, size);
+            long bits = 0;
+            int i = start;
+            for (; i + LANES <= end; i += LANES) {
+                LongVector vector = LongVector.fromArray(SPECIES, data, i);
+                VectorMask<Long> hit = vector.compare(comparison, value);
+                if (excludeNull) {
+                    hit = hit.and(vector.compare(VectorOperators.NE, Long.MIN_VALUE));
+                }
+                bits |= hit.toLong() << (i - start);
+            }
+            for (; i < end; i++) {
+                bits |= (PredicateKernel.compare(data[i], operator, value, excludeNull) ? 1L : 0L) << (i - start);
+            }
+            mask[word] = bits & selected;
+        }
+    }
+}
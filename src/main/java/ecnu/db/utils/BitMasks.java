@@ -0,0 +1,67 @@
+package ecnu.db.utils;
+
+/**
+ * 按位打包的行状态，第i行对应第i / 64个long的第i % 64位，超出行数的位始终为0
+ */
+public class BitMasks {
+    private BitMasks() {
+    }
+
+    public static int wordNum(int size) {
+        return (size + Long.SIZE - 1) >>> 6;
+    }
+
+    public static long[] allTrue(int size) {
+        long[] mask = new long[wordNum(size)];
+        for (int i = 0; i < mask.length; i++) {
+            mask[i] = -1L;
+        }
+        if ((size & (Long.SIZE - 1)) != 0) {
+            mask[mask.length - 1] = (1L << size) - 1;
+        }
+        return mask;
+    }
+
+    public static boolean get(long[] mask, int index) {
+        return (mask[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public static void set(long[] mask, int index) {
+        mask[index >>> 6] |= 1L << index;
+    }
+
+    public static void and(long[] target, long[] other) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] &= other[i];
+        }
+    }
+
+    public static void or(long[] target, long[] other) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] |= other[i];
+        }
+    }
+
+    public static void andNot(long[] target, long[] other) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] &= ~other[i];
+        }
+    }
+
+    public static boolean isEmpty(long[] mask) {
+        for (long word : mask) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean[] toBooleans(long[] mask, int size) {
+        boolean[] result = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = get(mask, i);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,143 @@
+package ecnu.db.utils;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * 只读的long集合，按照元素个数与取值跨度选择实现，查询时不装箱
+ * 跨度较小时使用位图，元素较少时使用有序数组二分查找，否则使用开放寻址的哈希表
+ */
+public abstract class LongSet {
+    // 位图允许的最大跨度
+    private static final long MAX_BITMAP_SPAN = 1 << 16;
+    // 位图跨度相对于元素个数的最大倍数，超出时位图过于稀疏
+    private static final long BITMAP_SPAN_PER_VALUE = 64;
+    // 使用有序数组的最大元素个数
+    private static final int MAX_SORTED_SIZE = 256;
+
+    public static LongSet of(Collection<? extends Number> values) {
+        return of(values.stream().mapToLong(Number::longValue).toArray());
+    }
+
+    public static LongSet of(long[] values) {
+        long[] distinctValues = Arrays.stream(values).sorted().distinct().toArray();
+        if (distinctValues.length == 0) {
+            return new SortedLongSet(distinctValues);
+        }
+        long min = distinctValues[0];
+        long max = distinctValues[distinctValues.length - 1];
+        long span = max - min;
+        // span溢出时为负数
+        if (span >= 0 && (span < MAX_BITMAP_SPAN || span < BITMAP_SPAN_PER_VALUE * distinctValues.length)) {
+            return new BitmapLongSet(distinctValues, min, span);
+        }
+        if (distinctValues.length <= MAX_SORTED_SIZE) {
+            return new SortedLongSet(distinctValues);
+        }
+        return new HashLongSet(distinctValues);
+    }
+
+    public abstract boolean contains(long value);
+
+    /**
+     * [min, max]上的位图
+     */
+    private static final class BitmapLongSet extends LongSet {
+        private final long min;
+        private final long span;
+        private final long[] bits;
+
+        private BitmapLongSet(long[] values, long min, long span) {
+            this.min = min;
+            this.span = span;
+            bits = new long[(int) (span >>> 6) + 1];
+            for (long value : values) {
+                long offset = value - min;
+                bits[(int) (offset >>> 6)] |= 1L << offset;
+            }
+        }
+
+        @Override
+        public boolean contains(long value) {
+            long offset = value - min;
+            // 无符号比较同时排除小于min和大于max的值
+            return Long.compareUnsigned(offset, span) <= 0 && (bits[(int) (offset >>> 6)] & (1L << offset)) != 0;
+        }
+    }
+
+    /**
+     * 有序数组上的无分支二分查找
+     */
+    private static final class SortedLongSet extends LongSet {
+        private final long[] values;
+
+        private SortedLongSet(long[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public boolean contains(long value) {
+            int length = values.length;
+            if (length == 0) {
+                return false;
+            }
+            int base = 0;
+            while (length > 1) {
+                int half = length >>> 1;
+                base = values[base + half] <= value ? base + half : base;
+                length -= half;
+            }
+            return values[base] == value;
+        }
+    }
+
+    /**
+     * 线性探测的开放寻址哈希表，使用Long.MIN_VALUE标记空槽
+     */
+    private static final class HashLongSet extends LongSet {
+        private static final long EMPTY = Long.MIN_VALUE;
+        private final long[] slots;
+        private final int shift;
+        private final boolean containsEmpty;
+
+        private HashLongSet(long[] values) {
+            int capacity = Integer.highestOneBit(values.length * 2 - 1) << 1;
+            slots = new long[capacity];
+            Arrays.fill(slots, EMPTY);
+            shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+            boolean hasEmpty = false;
+            for (long value : values) {
+                if (value == EMPTY) {
+                    hasEmpty = true;
+                    continue;
+                }
+                int slot = slot(value);
+                while (slots[slot] != EMPTY) {
+                    slot = (slot + 1) & (slots.length - 1);
+                }
+                slots[slot] = value;
+            }
+            containsEmpty = hasEmpty;
+        }
+
+        private int slot(long value) {
+            return (int) ((value * 0x9E3779B97F4A7C15L) >>> shift);
+        }
+
+        @Override
+        public boolean contains(long value) {
+            if (value == EMPTY) {
+                return containsEmpty;
+            }
+            int slot = slot(value);
+            long current;
+            while ((current = slots[slot]) != EMPTY) {
+                if (current == value) {
+                    return true;
+                }
+                slot = (slot + 1) & (slots.length - 1);
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package ecnu.db.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 基于GEE(Guaranteed-Error Estimator)的NDV估计，由样本中每个值的出现次数估计全表的NDV
+ * 只出现一次的值按sqrt(N/n)放大，出现多次的值认为在全表中只计一次，比值误差不超过sqrt(N/n)
+ * 同一个样本中最少有d个不同值，最多有f1*N/n+(d-f1)个不同值，估计误差按这个区间计算
+ */
+public class NdvEstimator {
+    private final Map<Object, Integer> value2Frequency = new HashMap<>();
+    private long sampleSize;
+    private long nullSize;
+
+    /**
+     * @param value 样本中的一个值，null不计入NDV
+     */
+    public void add(Object value) {
+        sampleSize++;
+        if (value == null) {
+            nullSize++;
+        } else {
+            value2Frequency.merge(value, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * @return 样本的行数，包含null
+     */
+    public long getSampleSize() {
+        return sampleSize;
+    }
+
+    public long getNullSize() {
+        return nullSize;
+    }
+
+    /**
+     * @return 样本中不同值的个数
+     */
+    public int getSampleNdv() {
+        return value2Frequency.size();
+    }
+
+    private long getSingletonSize() {
+        return value2Frequency.values().stream().filter(frequency -> frequency == 1).count();
+    }
+
+    /**
+     * @return 样本中非null值的行数与全表非null行数的比例的倒数
+     */
+    private double getScale(long tableSize) {
+        long nonNullSampleSize = sampleSize - nullSize;
+        if (nonNullSampleSize == 0) {
+            return 1;
+        }
+        // 按照样本中的null比例估计全表的非null行数
+        double nonNullTableSize = (double) tableSize * nonNullSampleSize / sampleSize;
+        return Math.max(nonNullTableSize / nonNullSampleSize, 1);
+    }
+
+    /**
+     * @param tableSize 全表的行数
+     * @return 全表NDV的估计值
+     */
+    public long estimate(long tableSize) {
+        long singletonSize = getSingletonSize();
+        double ndv = Math.sqrt(getScale(tableSize)) * singletonSize + (getSampleNdv() - singletonSize);
+        return Math.round(ndv);
+    }
+
+    /**
+     * @param tableSize 全表的行数
+     * @return 估计值到样本允许的NDV区间端点的最大相对误差，样本覆盖全表时为0
+     */
+    public double estimateError(long tableSize) {
+        long estimation = estimate(tableSize);
+        if (estimation == 0) {
+            return 0;
+        }
+        long singletonSize = getSingletonSize();
+        double lowerBound = getSampleNdv();
+        double upperBound = getScale(tableSize) * singletonSize + (getSampleNdv() - singletonSize);
+        return Math.max(upperBound - estimation, estimation - lowerBound) / estimation;
+    }
+}
@@ -0,0 +1,218 @@
+package ecnu.db.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 基于KLL的流式分位数草图，内存只与误差有关，两个草图可以合并
+ * 第h层中的每个值代表2^h个原始值，某层超出容量时排序后随机保留奇数位或偶数位的值并提升到上一层
+ * 越高的层容量越大，最低层的容量按2/3的比例递减
+ */
+public class QuantileSketch {
+    // KLL的归一化秩误差约为3.3/k
+    private static final double ERROR_TIMES_K = 3.3;
+    private static final double CAPACITY_DECAY = 2.0 / 3;
+    private static final int MIN_CAPACITY = 2;
+    private static final int MIN_K = 8;
+
+    private final int k;
+    private final SplittableRandom random;
+    private final List<Compactor> compactors = new ArrayList<>();
+    private long count;
+    private int retainedNum;
+    private int capacity;
+
+    /**
+     * 每层的数据，size之后的位置无效
+     */
+    private static final class Compactor {
+        private double[] items = new double[MIN_CAPACITY];
+        private int size;
+
+        private void add(double value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size << 1);
+            }
+            items[size++] = value;
+        }
+    }
+
+    /**
+     * @param k    最高层的容量，误差约为3.3/k
+     * @param seed 压缩时选择保留位置的随机种子，保证结果可复现
+     */
+    public QuantileSketch(int k, long seed) {
+        this.k = Math.max(k, MIN_K);
+        this.random = new SplittableRandom(seed);
+        addCompactor();
+    }
+
+    /**
+     * @param error 允许的归一化秩误差
+     * @param seed  随机种子
+     * @return 满足误差要求的草图
+     */
+    public static QuantileSketch ofError(double error, long seed) {
+        if (error <= 0 || error >= 1) {
+            throw new IllegalArgumentException("error should be in (0, 1)");
+        }
+        return new QuantileSketch((int) Math.ceil(ERROR_TIMES_K / error), seed);
+    }
+
+    /**
+     * 精确选择第rank小的值，会重排values，适用于能够完整放入内存的样本
+     *
+     * @param values 数据
+     * @param rank   从0开始的排名
+     * @return 排序后位于rank的值
+     */
+    public static double select(double[] values, int rank) {
+        int left = 0;
+        int right = values.length - 1;
+        while (left < right) {
+            double pivot = median(values[left], values[(left + right) >>> 1], values[right]);
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (Double.compare(values[i], pivot) < 0) {
+                    i++;
+                }
+                while (Double.compare(values[j], pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    double temp = values[i];
+                    values[i++] = values[j];
+                    values[j--] = temp;
+                }
+            }
+            if (rank <= j) {
+                right = j;
+            } else if (rank >= i) {
+                left = i;
+            } else {
+                break;
+            }
+        }
+        return values[rank];
+    }
+
+    private static double median(double a, double b, double c) {
+        if (Double.compare(a, b) > 0) {
+            double temp = a;
+            a = b;
+            b = temp;
+        }
+        return Double.compare(b, c) <= 0 ? b : Double.compare(a, c) <= 0 ? c : a;
+    }
+
+    public void update(double value) {
+        compactors.getFirst().add(value);
+        count++;
+        if (++retainedNum >= capacity) {
+            compress();
+        }
+    }
+
+    /**
+     * 将other中的数据合并到当前草图，other不再修改
+     */
+    public void merge(QuantileSketch other) {
+        while (compactors.size() < other.compactors.size()) {
+            addCompactor();
+        }
+        for (int level = 0; level < other.compactors.size(); level++) {
+            Compactor otherCompactor = other.compactors.get(level);
+            for (int i = 0; i < otherCompactor.size; i++) {
+                compactors.get(level).add(otherCompactor.items[i]);
+            }
+            retainedNum += otherCompactor.size;
+        }
+        count += other.count;
+        while (retainedNum >= capacity) {
+            compress();
+        }
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @param fraction 目标排名占总数的比例
+     * @return 近似排序后位于fraction * count的值，数据精确保留时与排序后直接取值一致
+     */
+    public double quantile(double fraction) {
+        if (count == 0) {
+            throw new IllegalStateException("empty sketch");
+        }
+        double[] values = new double[retainedNum];
+        long[] weights = new long[retainedNum];
+        int index = 0;
+        for (int level = 0; level < compactors.size(); level++) {
+            Compactor compactor = compactors.get(level);
+            for (int i = 0; i < compactor.size; i++) {
+                values[index] = compactor.items[i];
+                weights[index++] = 1L << level;
+            }
+        }
+        Integer[] order = new Integer[retainedNum];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (i, j) -> Double.compare(values[i], values[j]));
+        double target = Math.min(Math.max(fraction, 0), 1) * count;
+        long cumulativeWeight = 0;
+        for (int i : order) {
+            cumulativeWeight += weights[i];
+            if (cumulativeWeight > target) {
+                return values[i];
+            }
+        }
+        return values[order[retainedNum - 1]];
+    }
+
+    private void addCompactor() {
+        compactors.add(new Compactor());
+        capacity = 0;
+        for (int level = 0; level < compactors.size(); level++) {
+            capacity += levelCapacity(level);
+        }
+    }
+
+    private int levelCapacity(int level) {
+        int depth = compactors.size() - level - 1;
+        return Math.max((int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)), MIN_CAPACITY);
+    }
+
+    /**
+     * 压缩最低的超出容量的层，每次压缩减少该层一半的数据
+     */
+    private void compress() {
+        for (int level = 0; level < compactors.size(); level++) {
+            Compactor compactor = compactors.get(level);
+            if (compactor.size >= levelCapacity(level)) {
+                if (level + 1 == compactors.size()) {
+                    addCompactor();
+                }
+                Compactor upper = compactors.get(level + 1);
+                Arrays.sort(compactor.items, 0, compactor.size);
+                // 奇数个数据时保留最大值在当前层，其余两两一组随机保留一个
+                int pairedSize = compactor.size & ~1;
+                for (int i = random.nextInt(2); i < pairedSize; i += 2) {
+                    upper.add(compactor.items[i]);
+                }
+                if (pairedSize < compactor.size) {
+                    compactor.items[0] = compactor.items[pairedSize];
+                }
+                compactor.size -= pairedSize;
+                retainedNum -= pairedSize >>> 1;
+                return;
+            }
+        }
+    }
+}
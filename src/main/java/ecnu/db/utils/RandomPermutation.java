@@ -0,0 +1,81 @@
+package ecnu.db.utils;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * 并行生成均匀的随机排列，结果只与大小和种子有关，与并行度无关
+ * 先把每个源分块中的行随机分配到目标分块，再在每个目标分块内部执行Fisher-Yates洗牌
+ * 行到目标分块的分配相互独立且均匀，分块内的洗牌也是均匀的，因此拼接后的排列是均匀的
+ */
+public final class RandomPermutation {
+    private static final int BLOCK_SIZE = 1 << 16;
+    // 分块数的上限，限制源分块到目标分块的计数矩阵的大小
+    private static final int MAX_BLOCK_NUM = 1 << 10;
+
+    private RandomPermutation() {
+    }
+
+    /**
+     * @param size 排列的大小
+     * @param seed 随机种子
+     * @return 每个位置对应的原始行号
+     */
+    public static int[] generate(int size, long seed) {
+        int blockNum = Math.clamp((size + BLOCK_SIZE - 1L) / BLOCK_SIZE, 1, MAX_BLOCK_NUM);
+        int[] blockStarts = new int[blockNum + 1];
+        for (int i = 0; i <= blockNum; i++) {
+            blockStarts[i] = (int) ((long) size * i / blockNum);
+        }
+        // 在分发前顺序拆分每个分块的随机流，保证结果与并行度无关
+        SplittableRandom random = new SplittableRandom(seed);
+        SplittableRandom[] scatterRandoms = new SplittableRandom[blockNum];
+        SplittableRandom[] shuffleRandoms = new SplittableRandom[blockNum];
+        for (int i = 0; i < blockNum; i++) {
+            scatterRandoms[i] = random.split();
+            shuffleRandoms[i] = random.split();
+        }
+        // 为每一行选择目标分块，并统计每个源分块写入每个目标分块的行数
+        short[] targets = new short[size];
+        int[][] counts = new int[blockNum][blockNum];
+        IntStream.range(0, blockNum).parallel().forEach(source -> {
+            SplittableRandom scatterRandom = scatterRandoms[source];
+            int[] count = counts[source];
+            for (int i = blockStarts[source]; i < blockStarts[source + 1]; i++) {
+                int target = scatterRandom.nextInt(blockNum);
+                targets[i] = (short) target;
+                count[target]++;
+            }
+        });
+        // 目标分块内按源分块的顺序排列，计算每个源分块在每个目标分块中的写入位置
+        int[][] positions = new int[blockNum][blockNum];
+        int[] targetStarts = new int[blockNum + 1];
+        int position = 0;
+        for (int target = 0; target < blockNum; target++) {
+            targetStarts[target] = position;
+            for (int source = 0; source < blockNum; source++) {
+                positions[source][target] = position;
+                position += counts[source][target];
+            }
+        }
+        targetStarts[blockNum] = size;
+        int[] order = new int[size];
+        IntStream.range(0, blockNum).parallel().forEach(source -> {
+            int[] sourcePositions = positions[source];
+            for (int i = blockStarts[source]; i < blockStarts[source + 1]; i++) {
+                order[sourcePositions[targets[i]]++] = i;
+            }
+        });
+        IntStream.range(0, blockNum).parallel().forEach(target -> {
+            SplittableRandom shuffleRandom = shuffleRandoms[target];
+            int start = targetStarts[target];
+            for (int i = targetStarts[target + 1] - 1; i > start; i--) {
+                int j = start + shuffleRandom.nextInt(i - start + 1);
+                int temp = order[i];
+                order[i] = order[j];
+                order[j] = temp;
+            }
+        });
+        return order;
+    }
+}
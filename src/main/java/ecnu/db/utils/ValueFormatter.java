@@ -0,0 +1,281 @@
+package ecnu.db.utils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneOffsetTransitionRule;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * DATE/DATETIME/DECIMAL的专用格式化器，直接按照数值写出字符，输出与CommonUtils中的格式化器逐字节一致
+ * 时区偏移由预先计算的转换表查找，超出转换表、年份超出[0, 9999]或者DECIMAL需要科学计数法时，退化到原有的格式化方式
+ */
+public class ValueFormatter {
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+    // 0000-03-01到1970-01-01的天数
+    private static final long DAYS_0000_TO_1970 = 719468;
+    private static final long DAYS_PER_400_YEARS = 146097;
+    private static final int DATE_LENGTH = 10;
+    private static final int DATE_TIME_LENGTH = 19;
+    // BigDecimal.toString在调整后的指数小于该值时使用科学计数法
+    private static final int MIN_PLAIN_ADJUSTED_EXPONENT = -6;
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    // 按规则展开时区转换的最大年份
+    private static final int MAX_RULE_YEAR = 2300;
+
+    private static final ZoneOffsetTable ZONE_OFFSETS = new ZoneOffsetTable(CommonUtils.dateFormatter.getZone().getRules());
+
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[64]);
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    /**
+     * 时区的偏移表，包含ZoneRules中的历史转换以及按照转换规则展开到MAX_RULE_YEAR的转换
+     * 相邻两个转换之间的偏移固定，二分查找转换点即可得到任意时刻的偏移
+     */
+    static final class ZoneOffsetTable {
+        private final long[] transitionSeconds;
+        // 第i个转换之前的偏移，最后一个值为最后一个转换之后的偏移
+        private final int[] offsetSeconds;
+        // 时区仍有转换规则时，超出展开范围的时刻不在表内
+        private final long endSecond;
+
+        ZoneOffsetTable(ZoneRules rules) {
+            List<ZoneOffsetTransition> transitions = new ArrayList<>(rules.getTransitions());
+            List<ZoneOffsetTransitionRule> transitionRules = rules.getTransitionRules();
+            if (transitionRules.isEmpty()) {
+                endSecond = Long.MAX_VALUE;
+            } else {
+                endSecond = LocalDate.of(MAX_RULE_YEAR, 1, 1).toEpochDay() * SECONDS_PER_DAY;
+                // 规则只作用于最后一个历史转换之后的时刻
+                long lastSecond = transitions.isEmpty() ? Long.MIN_VALUE : transitions.getLast().toEpochSecond();
+                int firstYear = transitions.isEmpty() ? 1970 : transitions.getLast().getDateTimeBefore().getYear();
+                for (int year = firstYear; year <= MAX_RULE_YEAR; year++) {
+                    for (ZoneOffsetTransitionRule transitionRule : transitionRules) {
+                        ZoneOffsetTransition transition = transitionRule.createTransition(year);
+                        if (transition.toEpochSecond() > lastSecond) {
+                            transitions.add(transition);
+                        }
+                    }
+                }
+                transitions.sort(Comparator.comparingLong(ZoneOffsetTransition::toEpochSecond));
+            }
+            transitionSeconds = transitions.stream().mapToLong(ZoneOffsetTransition::toEpochSecond).toArray();
+            offsetSeconds = new int[transitions.size() + 1];
+            offsetSeconds[0] = transitions.isEmpty() ? rules.getOffset(Instant.EPOCH).getTotalSeconds()
+                    : transitions.getFirst().getOffsetBefore().getTotalSeconds();
+            for (int i = 0; i < transitions.size(); i++) {
+                offsetSeconds[i + 1] = transitions.get(i).getOffsetAfter().getTotalSeconds();
+            }
+        }
+
+        boolean contains(long epochSecond) {
+            return epochSecond < endSecond;
+        }
+
+        /**
+         * @param epochSecond 表内的时刻
+         * @return 该时刻的偏移秒数，恰好位于转换点时为转换后的偏移
+         */
+        int getOffsetSeconds(long epochSecond) {
+            int index = Arrays.binarySearch(transitionSeconds, epochSecond);
+            return offsetSeconds[index >= 0 ? index + 1 : -index - 1];
+        }
+    }
+
+    private ValueFormatter() {
+    }
+
+    public static String formatDate(long epochSecond) {
+        byte[] buffer = BUFFER.get();
+        int length = writeDate(epochSecond, buffer, 0);
+        if (length < 0) {
+            return CommonUtils.dateFormatter.format(Instant.ofEpochSecond(epochSecond));
+        }
+        return new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    public static String formatDateTime(long epochSecond) {
+        byte[] buffer = BUFFER.get();
+        int length = writeDateTime(epochSecond, buffer, 0);
+        if (length < 0) {
+            return CommonUtils.dateTimeFormatter.format(Instant.ofEpochSecond(epochSecond));
+        }
+        return new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 格式化value * unscaledMultiplier * 10^-scale，与BigDecimal.valueOf(value).multiply(multiplier).toString()一致
+     *
+     * @param value              整数值
+     * @param unscaledMultiplier 乘数的非标度值
+     * @param scale              乘数的标度
+     * @return 格式化的字符串
+     */
+    public static String formatDecimal(long value, long unscaledMultiplier, int scale) {
+        byte[] buffer = BUFFER.get();
+        int length = writeDecimal(value, unscaledMultiplier, scale, buffer, 0);
+        if (length < 0) {
+            return BigDecimal.valueOf(value).multiply(BigDecimal.valueOf(unscaledMultiplier, scale)).toString();
+        }
+        return new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 写出与Long.toString一致的十进制数字
+     *
+     * @return 写入结束后的位置，空间不足或者为Long.MIN_VALUE时返回-1
+     */
+    public static int writeLong(long value, byte[] buffer, int offset) {
+        if (value == Long.MIN_VALUE) {
+            return -1;
+        }
+        long absValue = Math.abs(value);
+        int digitNum = 1;
+        while (digitNum < POWERS_OF_TEN.length && absValue >= POWERS_OF_TEN[digitNum]) {
+            digitNum++;
+        }
+        int length = (value < 0 ? 1 : 0) + digitNum;
+        if (buffer.length - offset < length) {
+            return -1;
+        }
+        int index = offset + length;
+        do {
+            buffer[--index] = (byte) ('0' + absValue % 10);
+            absValue /= 10;
+        } while (absValue > 0);
+        if (value < 0) {
+            buffer[--index] = '-';
+        }
+        return offset + length;
+    }
+
+    /**
+     * 以yyyy-MM-dd格式写出epochSecond所在的日期
+     *
+     * @return 写入结束后的位置，无法快速格式化时返回-1
+     */
+    public static int writeDate(long epochSecond, byte[] buffer, int offset) {
+        return writeDate(epochSecond, ZONE_OFFSETS, buffer, offset);
+    }
+
+    static int writeDate(long epochSecond, ZoneOffsetTable zoneOffsets, byte[] buffer, int offset) {
+        if (!zoneOffsets.contains(epochSecond) || buffer.length - offset < DATE_LENGTH) {
+            return -1;
+        }
+        long localSecond = epochSecond + zoneOffsets.getOffsetSeconds(epochSecond);
+        return writeEpochDay(Math.floorDiv(localSecond, SECONDS_PER_DAY), buffer, offset);
+    }
+
+    /**
+     * 以yyyy-MM-ddTHH:mm:ss格式写出epochSecond对应的时间
+     *
+     * @return 写入结束后的位置，无法快速格式化时返回-1
+     */
+    public static int writeDateTime(long epochSecond, byte[] buffer, int offset) {
+        return writeDateTime(epochSecond, ZONE_OFFSETS, buffer, offset);
+    }
+
+    static int writeDateTime(long epochSecond, ZoneOffsetTable zoneOffsets, byte[] buffer, int offset) {
+        if (!zoneOffsets.contains(epochSecond) || buffer.length - offset < DATE_TIME_LENGTH) {
+            return -1;
+        }
+        long localSecond = epochSecond + zoneOffsets.getOffsetSeconds(epochSecond);
+        int index = writeEpochDay(Math.floorDiv(localSecond, SECONDS_PER_DAY), buffer, offset);
+        if (index < 0) {
+            return -1;
+        }
+        int secondOfDay = Math.floorMod(localSecond, SECONDS_PER_DAY);
+        buffer[index++] = 'T';
+        index = writeTwoDigits(secondOfDay / 3600, buffer, index);
+        buffer[index++] = ':';
+        index = writeTwoDigits(secondOfDay / 60 % 60, buffer, index);
+        buffer[index++] = ':';
+        return writeTwoDigits(secondOfDay % 60, buffer, index);
+    }
+
+    /**
+     * 使用civil-from-days算法将epoch day转换为公历日期
+     */
+    private static int writeEpochDay(long epochDay, byte[] buffer, int offset) {
+        long zeroDay = epochDay + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(zeroDay, DAYS_PER_400_YEARS);
+        long dayOfEra = zeroDay - era * DAYS_PER_400_YEARS;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        // ISO_LOCAL_DATE对超出4位的年份会添加符号
+        if (year < 0 || year > 9999) {
+            return -1;
+        }
+        int index = writeTwoDigits((int) (year / 100), buffer, offset);
+        index = writeTwoDigits((int) (year % 100), buffer, index);
+        buffer[index++] = '-';
+        index = writeTwoDigits(month, buffer, index);
+        buffer[index++] = '-';
+        return writeTwoDigits(day, buffer, index);
+    }
+
+    private static int writeTwoDigits(int value, byte[] buffer, int offset) {
+        buffer[offset] = (byte) ('0' + value / 10);
+        buffer[offset + 1] = (byte) ('0' + value % 10);
+        return offset + 2;
+    }
+
+    /**
+     * 按照BigDecimal.toString的非科学计数法规则写出value * unscaledMultiplier * 10^-scale
+     *
+     * @return 写入结束后的位置，乘积溢出或者需要科学计数法时返回-1
+     */
+    public static int writeDecimal(long value, long unscaledMultiplier, int scale, byte[] buffer, int offset) {
+        long unscaled = value * unscaledMultiplier;
+        if (Math.multiplyHigh(value, unscaledMultiplier) != (unscaled >> 63) || unscaled == Long.MIN_VALUE
+                || scale < 0 || scale >= POWERS_OF_TEN.length) {
+            return -1;
+        }
+        long absUnscaled = Math.abs(unscaled);
+        int precision = 1;
+        while (precision < POWERS_OF_TEN.length && absUnscaled >= POWERS_OF_TEN[precision]) {
+            precision++;
+        }
+        if (precision - 1 - scale < MIN_PLAIN_ADJUSTED_EXPONENT) {
+            return -1;
+        }
+        int length = (unscaled < 0 ? 1 : 0) + Math.max(precision, scale + 1) + (scale > 0 ? 1 : 0);
+        if (buffer.length - offset < length) {
+            return -1;
+        }
+        // 从低位向高位写出数字，在第scale位之前插入小数点
+        int index = offset + length;
+        for (int digit = 0; digit < scale; digit++) {
+            buffer[--index] = (byte) ('0' + absUnscaled % 10);
+            absUnscaled /= 10;
+        }
+        if (scale > 0) {
+            buffer[--index] = '.';
+        }
+        do {
+            buffer[--index] = (byte) ('0' + absUnscaled % 10);
+            absUnscaled /= 10;
+        } while (absUnscaled > 0);
+        if (unscaled < 0) {
+            buffer[--index] = '-';
+        }
+        return offset + length;
+    }
+}
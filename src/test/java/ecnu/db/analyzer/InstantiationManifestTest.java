@@ -0,0 +1,35 @@
+package ecnu.db.analyzer;
+
+import ecnu.db.generator.constraintchain.ConstraintChain;
+import ecnu.db.generator.constraintchain.ConstraintChainManager;
+import ecnu.db.generator.constraintchain.filter.ConstraintChainFilterNode;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstantiationManifestTest {
+    private static final String CONFIG_PATH = "src/test/resources/data/query-instantiation/TPCH/";
+
+    @Test
+    void changedQueriesTest() throws Exception {
+        Map<String, List<ConstraintChain>> query2chains = ConstraintChainManager.loadConstrainChainResult(CONFIG_PATH);
+        InstantiationManifest previous = InstantiationManifest.build(query2chains);
+
+        // 只修改实例化的结果时不认为query发生变化
+        ConstraintChainFilterNode filterNode = (ConstraintChainFilterNode) query2chains.get("12_1.sql").getFirst().getNodes().getFirst();
+        filterNode.getParameters().forEach(parameter -> parameter.setData(parameter.getData() + 1));
+        InstantiationManifest current = InstantiationManifest.build(query2chains);
+        assertTrue(current.changedQueries(previous).isEmpty());
+
+        filterNode.setProbability(filterNode.getProbability().divide(BigDecimal.TWO));
+        current = InstantiationManifest.build(query2chains);
+        Set<String> changedQueries = current.changedQueries(previous);
+        assertEquals(Set.of("12_1.sql"), changedQueries);
+        assertEquals(current.getQuery2Record().get("12_1.sql").columns(), current.changedColumns(previous, changedQueries));
+    }
+}
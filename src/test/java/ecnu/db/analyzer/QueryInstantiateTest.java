@@ -0,0 +1,165 @@
+package ecnu.db.analyzer;
+
+import ecnu.db.generator.constraintchain.ConstraintChain;
+import ecnu.db.generator.constraintchain.ConstraintChainManager;
+import ecnu.db.generator.constraintchain.filter.BoolExprNode;
+import ecnu.db.generator.constraintchain.filter.BoolExprType;
+import ecnu.db.generator.constraintchain.filter.ConstraintChainFilterNode;
+import ecnu.db.generator.constraintchain.filter.LogicNode;
+import ecnu.db.generator.constraintchain.filter.Parameter;
+import ecnu.db.generator.constraintchain.filter.operation.CompareOperator;
+import ecnu.db.generator.constraintchain.filter.operation.UniVarFilterOperation;
+import ecnu.db.schema.Column;
+import ecnu.db.schema.ColumnManager;
+import ecnu.db.schema.ColumnType;
+import ecnu.db.schema.Distribution;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryInstantiateTest {
+    private static final String COLUMN_NAME = "variant.t.c";
+    private static final int SAMPLE_SIZE = 100_000;
+
+    private static LogicNode logicNode(BoolExprType type, BoolExprNode... children) {
+        LogicNode node = new LogicNode();
+        node.setType(type);
+        node.setChildren(new ArrayList<>(List.of(children)));
+        return node;
+    }
+
+    private static UniVarFilterOperation operation(CompareOperator operator, Parameter... parameters) {
+        return new UniVarFilterOperation(COLUMN_NAME, operator, List.of(parameters));
+    }
+
+    private static long countSatisfiedRows(LogicNode root) {
+        boolean[] evaluation = root.evaluate();
+        return IntStream.range(0, evaluation.length).filter(i -> evaluation[i]).count();
+    }
+
+    @Test
+    void variantSelectivityTest() throws Exception {
+        Column column = new Column(ColumnType.INTEGER);
+        column.setMin(1);
+        column.setRange(1000);
+        column.init();
+        ColumnManager.getInstance().addColumn(COLUMN_NAME, column);
+        Map<Integer, Parameter> id2Parameter = new HashMap<>();
+        for (int id = 0; id <= 10; id++) {
+            id2Parameter.put(id, new Parameter(id, null, null));
+        }
+        // 参数1和2属于同一分组，参数2重用参数1的单值区间
+        Distribution distribution = column.getDistribution();
+        distribution.setIdList(List.of(List.of(1, 2)));
+        BigDecimal eqProbability = new BigDecimal("0.01");
+        distribution.applyUniVarConstraint(new BigDecimal("0.5"), CompareOperator.LT, List.of(id2Parameter.get(0)));
+        for (int id = 1; id <= 6; id++) {
+            distribution.applyUniVarConstraint(eqProbability, CompareOperator.EQ, List.of(id2Parameter.get(id)));
+        }
+        distribution.applyUniVarConstraint(new BigDecimal("0.9"), CompareOperator.LT, List.of(id2Parameter.get(7)));
+        for (int id = 8; id <= 10; id++) {
+            distribution.applyUniVarConstraint(BigDecimal.ONE.subtract(eqProbability), CompareOperator.NE,
+                    List.of(id2Parameter.get(id)));
+        }
+        distribution.initAllParameters();
+        assertEquals(id2Parameter.get(1).getData(), id2Parameter.get(2).getData());
+
+        // (c = p1 or c = p2) and c < p0 and c <> p8，单值区间在p0的两侧都有
+        LogicNode root = logicNode(BoolExprType.AND,
+                logicNode(BoolExprType.OR, operation(CompareOperator.EQ, id2Parameter.get(1)),
+                        operation(CompareOperator.EQ, id2Parameter.get(2))),
+                operation(CompareOperator.LT, id2Parameter.get(0)),
+                operation(CompareOperator.NE, id2Parameter.get(8)));
+        ConstraintChain constraintChain = new ConstraintChain("variant.t");
+        constraintChain.addNode(new ConstraintChainFilterNode(BigDecimal.ONE, root));
+        // 只包含范围谓词的查询
+        LogicNode rangeRoot = logicNode(BoolExprType.AND, operation(CompareOperator.LT, id2Parameter.get(0)),
+                operation(CompareOperator.LT, id2Parameter.get(7)));
+        constraintChain.addNode(new ConstraintChainFilterNode(BigDecimal.ONE, rangeRoot));
+        Map<Integer, QueryInstantiate.ParameterColumn> parameterId2Column =
+                QueryInstantiate.getParameterColumns(List.of(constraintChain));
+
+        ColumnManager.getInstance().cacheAttributeColumn(List.of(COLUMN_NAME));
+        ColumnManager.getInstance().prepareGeneration(SAMPLE_SIZE, 0);
+        long expectedCount = countSatisfiedRows(root);
+        assertEquals(SAMPLE_SIZE / 100.0, expectedCount, 2);
+
+        int[] parameterIds = {1, 2, 0, 8};
+        Map<Integer, Long> originalData = new HashMap<>();
+        for (int parameterId : parameterIds) {
+            originalData.put(parameterId, id2Parameter.get(parameterId).getData());
+        }
+        for (int variantId = 1; variantId <= 20; variantId++) {
+            SplittableRandom random = new SplittableRandom(variantId);
+            Map<Integer, Long> id2Data = QueryInstantiate.drawVariant(parameterIds, id2Parameter, parameterId2Column, random);
+            // 共享data的参数一起替换，范围参数保持不变
+            assertEquals(Set.of(1, 2, 8), id2Data.keySet());
+            assertEquals(id2Data.get(1), id2Data.get(2));
+            assertNotEquals(originalData.get(1), id2Data.get(1));
+            assertNotEquals(originalData.get(8), id2Data.get(8));
+            id2Data.forEach((id, data) -> id2Parameter.get(id).setData(data));
+            assertEquals(expectedCount, countSatisfiedRows(root), 2);
+            originalData.forEach((id, data) -> id2Parameter.get(id).setData(data));
+            assertTrue(QueryInstantiate.drawVariant(new int[]{0, 7}, id2Parameter, parameterId2Column, random).isEmpty());
+        }
+    }
+
+    /**
+     * 从配置目录重新载入列和约束链并实例化
+     *
+     * @return 各列的CDF、bound偏移和所有参数的取值
+     */
+    private static String instantiate(String configPath) throws Exception {
+        ColumnManager.getInstance().setResultDir(configPath);
+        ColumnManager.getInstance().loadColumnMetaData();
+        ColumnManager.getInstance().loadColumnName2IdList();
+        List<ConstraintChain> constraintChains = ConstraintChainManager.loadConstrainChainResult(configPath).values()
+                .stream().flatMap(Collection::stream).toList();
+        Map<Integer, Parameter> id2Parameter = QueryInstantiate.queryInstantiation(constraintChains, 10_000);
+        SortedSet<String> columnNames = constraintChains.stream()
+                .map(ConstraintChain::getNodes)
+                .flatMap(Collection::stream)
+                .filter(ConstraintChainFilterNode.class::isInstance)
+                .map(ConstraintChainFilterNode.class::cast)
+                .map(ConstraintChainFilterNode::getColumns)
+                .flatMap(Collection::stream)
+                .collect(Collectors.toCollection(TreeSet::new));
+        StringBuilder result = new StringBuilder();
+        for (String columnName : columnNames) {
+            Column column = ColumnManager.getInstance().getColumn(columnName);
+            if (column != null) {
+                Distribution distribution = column.getDistribution();
+                result.append(columnName).append(distribution.getParaData2Probability())
+                        .append(distribution.getOffset2Pv()).append('\n');
+            }
+        }
+        new TreeMap<>(id2Parameter).forEach((id, parameter) -> result.append(id).append('=')
+                .append(parameter.getData()).append(',').append(parameter.getDataValue()).append('\n'));
+        return result.toString();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"src/test/resources/data/query-instantiation/TPCH",
+            "src/test/resources/data/query-instantiation/TPCDS"})
+    void parallelMatchesSerialTest(String configPath) throws Exception {
+        String parallelResult = instantiate(configPath);
+        assertTrue(parallelResult.lines().count() > 10);
+        // 并行度为1的线程池中parallelStream退化为串行执行
+        ForkJoinPool serialPool = new ForkJoinPool(1);
+        try {
+            String serialResult = serialPool.submit(() -> instantiate(configPath)).get();
+            assertEquals(serialResult, parallelResult);
+        } finally {
+            serialPool.shutdown();
+        }
+        assertEquals(parallelResult, instantiate(configPath));
+    }
+}
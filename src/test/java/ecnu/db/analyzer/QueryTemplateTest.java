@@ -0,0 +1,33 @@
+package ecnu.db.analyzer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QueryTemplateTest {
+
+    @Test
+    void renderTest() throws Exception {
+        QueryTemplate template = QueryTemplate.parse("select * from t where a = 'Mirage#3' and b in ('Mirage#1', 'Mirage#3') " +
+                "and c < date 'Mirage#2' and d = 'Mirage#4';");
+        assertArrayEquals(new int[]{3, 1, 2, 4}, template.getParameterIds());
+        Map<Integer, String> id2Value = Map.of(1, "x", 2, "1995-01-01' + interval '3' month", 3, "y");
+        StringBuilder query = new StringBuilder();
+        template.render(id2Value::get, query);
+        // 缺失的参数保留占位符
+        assertEquals("select * from t where a = 'y' and b in ('x', 'y') " +
+                "and c < date 1995-01-01' + interval '3' month and d = 'Mirage#4';", query.toString());
+    }
+
+    @Test
+    void renderWithoutParameterTest() throws Exception {
+        QueryTemplate template = QueryTemplate.parse("select 1;");
+        assertEquals(0, template.getParameterIds().length);
+        StringBuilder query = new StringBuilder();
+        template.render(id -> "z", query);
+        assertEquals("select 1;", query.toString());
+    }
+}
@@ -0,0 +1,87 @@
+package ecnu.db.analyzer;
+
+import ecnu.db.generator.constraintchain.ConstraintChain;
+import ecnu.db.generator.constraintchain.agg.ConstraintChainAggregateNode;
+import ecnu.db.generator.constraintchain.filter.BoolExprType;
+import ecnu.db.generator.constraintchain.filter.ConstraintChainFilterNode;
+import ecnu.db.generator.constraintchain.filter.LogicNode;
+import ecnu.db.generator.constraintchain.filter.Parameter;
+import ecnu.db.generator.constraintchain.filter.operation.CompareOperator;
+import ecnu.db.generator.constraintchain.filter.operation.UniVarFilterOperation;
+import ecnu.db.generator.constraintchain.join.ConstraintChainFkJoinNode;
+import ecnu.db.generator.constraintchain.join.ConstraintChainPkJoinNode;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TaskConfiguratorTest {
+    private static final String PK_TABLE = "public.orders";
+    private static final String FK_TABLE = "public.lineitem";
+
+    private static ConstraintChainPkJoinNode addPkJoin(List<ConstraintChain> constraintChains, int pkTag) {
+        ConstraintChain constraintChain = new ConstraintChain(PK_TABLE);
+        ConstraintChainPkJoinNode pkJoinNode = new ConstraintChainPkJoinNode(pkTag, new String[]{"o_orderkey"});
+        constraintChain.addNode(pkJoinNode);
+        constraintChains.add(constraintChain);
+        return pkJoinNode;
+    }
+
+    private static ConstraintChainFkJoinNode addFkJoin(List<ConstraintChain> constraintChains, int pkTag) {
+        ConstraintChain constraintChain = new ConstraintChain(FK_TABLE);
+        ConstraintChainFkJoinNode fkJoinNode = new ConstraintChainFkJoinNode(FK_TABLE + ".l_orderkey",
+                PK_TABLE + ".o_orderkey", pkTag, BigDecimal.ONE);
+        constraintChain.addNode(fkJoinNode);
+        constraintChains.add(constraintChain);
+        return fkJoinNode;
+    }
+
+    private static ConstraintChainFilterNode filterOf(Parameter parameter) {
+        LogicNode root = new LogicNode();
+        root.setType(BoolExprType.AND);
+        root.setChildren(List.of(new UniVarFilterOperation(PK_TABLE + ".o_totalprice", CompareOperator.GT, List.of(parameter))));
+        return new ConstraintChainFilterNode(BigDecimal.ONE, root);
+    }
+
+    @Test
+    void renumberJoinTagsTest() {
+        // 第二个query先完成分析，先从表上分配到了join tag
+        List<ConstraintChain> firstQuery = new ArrayList<>();
+        ConstraintChainPkJoinNode firstPk = addPkJoin(firstQuery, 2);
+        ConstraintChainFkJoinNode firstFk = addFkJoin(firstQuery, 2);
+        List<ConstraintChain> secondQuery = new ArrayList<>();
+        ConstraintChainFkJoinNode secondFk = addFkJoin(secondQuery, 1);
+        ConstraintChainPkJoinNode secondPk = addPkJoin(secondQuery, 1);
+        ConstraintChainPkJoinNode thirdPk = addPkJoin(secondQuery, 0);
+
+        Map<String, Integer> table2NextJoinTag = new HashMap<>();
+        TaskConfigurator.renumberJoinTags(List.of(firstQuery), table2NextJoinTag);
+        TaskConfigurator.renumberJoinTags(List.of(secondQuery), table2NextJoinTag);
+        assertEquals(0, firstPk.getPkTag());
+        assertEquals(0, firstFk.getPkTag());
+        assertEquals(1, secondFk.getPkTag());
+        assertEquals(1, secondPk.getPkTag());
+        assertEquals(2, thirdPk.getPkTag());
+        assertEquals(3, table2NextJoinTag.get(PK_TABLE));
+    }
+
+    @Test
+    void renumberAggFilterParametersTest() {
+        Parameter filterParameter = new Parameter(5, null, "1");
+        Parameter aggParameter = new Parameter(0, null, "2");
+        ConstraintChain constraintChain = new ConstraintChain(PK_TABLE);
+        constraintChain.addNode(filterOf(filterParameter));
+        ConstraintChainAggregateNode aggregateNode = new ConstraintChainAggregateNode(null, BigDecimal.ONE);
+        aggregateNode.setAggFilter(filterOf(aggParameter));
+        constraintChain.addNode(aggregateNode);
+
+        assertEquals(12, TaskConfigurator.renumberParameters(List.of(List.of(constraintChain)), 10));
+        assertEquals(10, filterParameter.getId());
+        assertEquals(11, aggParameter.getId());
+    }
+}
@@ -0,0 +1,62 @@
+package ecnu.db.dbconnector;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryResultCacheTest {
+    private static final TypeReference<List<String[]>> QUERY_PLAN_TYPE = new TypeReference<>() {
+    };
+
+    @TempDir
+    Path resultDir;
+
+    @Test
+    void replayTest() throws Exception {
+        QueryResultCache cache = new QueryResultCache(resultDir.toString(), "db1", false);
+        List<String[]> plan = List.of(new String[]{"Seq Scan", "100"}, new String[]{"Hash Join", null});
+        assertSame(plan, cache.computeIfAbsent("explain select *\n  from t;", QUERY_PLAN_TYPE, () -> plan));
+
+        // 新的实例从磁盘读取，空白和结尾的分号不影响命中
+        QueryResultCache replayCache = new QueryResultCache(resultDir.toString(), "db1", false);
+        List<String[]> replayedPlan = replayCache.computeIfAbsent("explain select * from t", QUERY_PLAN_TYPE, () -> {
+            throw new AssertionError("should be replayed from the cache");
+        });
+        assertEquals(2, replayedPlan.size());
+        assertArrayEquals(plan.get(0), replayedPlan.get(0));
+        assertArrayEquals(plan.get(1), replayedPlan.get(1));
+        assertEquals(1, replayCache.getHitCount());
+        assertEquals(0, replayCache.getMissCount());
+    }
+
+    @Test
+    void fingerprintAndRefreshTest() throws Exception {
+        TypeReference<Integer> countType = new TypeReference<>() {
+        };
+        String sql = "select count(*) from t where a > 1";
+        new QueryResultCache(resultDir.toString(), "db1", false).computeIfAbsent(sql, countType, () -> 10);
+
+        // 数据库指纹变化后不再命中
+        assertEquals(20, new QueryResultCache(resultDir.toString(), "db2", false).computeIfAbsent(sql, countType, () -> 20));
+
+        QueryResultCache refreshCache = new QueryResultCache(resultDir.toString(), "db1", true);
+        assertEquals(30, refreshCache.computeIfAbsent(sql, countType, () -> 30));
+        assertEquals(1, refreshCache.getMissCount());
+        assertEquals(30, new QueryResultCache(resultDir.toString(), "db1", false).computeIfAbsent(sql, countType, () -> 40));
+    }
+
+    @Test
+    void normalizeTest() {
+        assertEquals("select * from t where a = 'x  y' and \"b  c\" = 1",
+                QueryResultCache.normalize("select *\n  from t where a = 'x  y'\tand \"b  c\" = 1 ;\n"));
+        // 转义的单引号不结束字符串
+        assertEquals("select 'it''s  ok' , 'a\n b'", QueryResultCache.normalize("select  'it''s  ok' ,  'a\n b';"));
+        assertNotEquals(QueryResultCache.normalize("select count(*) from t where a = 'a  b'"),
+                QueryResultCache.normalize("select count(*) from t where a = 'a b'"));
+    }
+}
@@ -0,0 +1,71 @@
+package ecnu.db.dbconnector;
+
+import ecnu.db.schema.Column;
+import ecnu.db.schema.ColumnManager;
+import ecnu.db.schema.ColumnType;
+import ecnu.db.schema.Table;
+import ecnu.db.schema.TableManager;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampleDataRangeTest {
+    private static final String TABLE_NAME = "sample.t";
+    private static final long TABLE_SIZE = 1000;
+
+    @Test
+    void sqlResultFormatTest() throws Exception {
+        List<String> columnNames = List.of(TABLE_NAME + ".c_int", TABLE_NAME + ".c_str", TABLE_NAME + ".c_dec",
+                TABLE_NAME + ".c_date", TABLE_NAME + ".c_null");
+        List<ColumnType> types = List.of(ColumnType.INTEGER, ColumnType.VARCHAR, ColumnType.DECIMAL,
+                ColumnType.DATE, ColumnType.INTEGER);
+        for (int i = 0; i < columnNames.size(); i++) {
+            ColumnManager.getInstance().addColumn(columnNames.get(i), new Column(types.get(i)));
+        }
+        ColumnManager.getInstance().setSpecialValue(TABLE_NAME + ".c_dec", 100);
+        TableManager.getInstance().addSchema(TABLE_NAME, new Table(columnNames, TABLE_SIZE));
+
+        // 采样10%的数据
+        SampleDataRange sampleDataRange = new SampleDataRange(types);
+        for (int i = 0; i < 100; i++) {
+            sampleDataRange.add(0, i < 90 ? Integer.toString(i % 10 + 5) : null);
+            sampleDataRange.add(1, "v" + i);
+            sampleDataRange.add(2, i == 0 ? "9.50" : "1." + (50 + i % 10));
+            sampleDataRange.add(3, "1995-01-" + (10 + i % 20));
+            sampleDataRange.add(4, null);
+        }
+        String[] sqlResult = sampleDataRange.toSqlResult(TABLE_SIZE);
+        // 整数和字符串列为3个值，其他列为2个值，每列再加上null的个数
+        assertEquals(3 + 3 + 2 + 2 + 3 + 5, sqlResult.length);
+        ColumnManager.getInstance().setDataRangeBySqlResult(columnNames, sqlResult);
+
+        Column intColumn = ColumnManager.getInstance().getColumn(TABLE_NAME + ".c_int");
+        assertEquals(5, intColumn.getMin());
+        assertEquals(10, intColumn.getRange());
+        assertEquals(1, intColumn.getSpecialValue());
+        assertEquals(0, new BigDecimal("0.1").compareTo(intColumn.getNullPercentage()));
+        assertEquals(0, sampleDataRange.getNdvError(0, TABLE_SIZE));
+
+        Column strColumn = ColumnManager.getInstance().getColumn(TABLE_NAME + ".c_str");
+        assertEquals(3, strColumn.getAvgLength());
+        assertEquals(3, strColumn.getMaxLength());
+        // 样本中的值都只出现一次，NDV按sqrt(N/n)放大
+        assertEquals(316, strColumn.getRange());
+        assertTrue(sampleDataRange.getNdvError(1, TABLE_SIZE) > 0);
+
+        Column decColumn = ColumnManager.getInstance().getColumn(TABLE_NAME + ".c_dec");
+        assertEquals(150, decColumn.getMin());
+        assertEquals(950 - 150 + 1, decColumn.getRange());
+
+        Column dateColumn = ColumnManager.getInstance().getColumn(TABLE_NAME + ".c_date");
+        assertEquals(20, dateColumn.getRange());
+        assertEquals(0, sampleDataRange.getNdvError(3, TABLE_SIZE));
+
+        Column nullColumn = ColumnManager.getInstance().getColumn(TABLE_NAME + ".c_null");
+        assertEquals(-1, nullColumn.getRange());
+        assertEquals(0, BigDecimal.ONE.compareTo(nullColumn.getNullPercentage()));
+    }
+}
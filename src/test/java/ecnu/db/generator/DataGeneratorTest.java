@@ -0,0 +1,61 @@
+package ecnu.db.generator;
+
+import ecnu.db.generator.joininfo.JoinStatus;
+import ecnu.db.generator.joininfo.RuleTableManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataGeneratorTest {
+    private static final int RANGE = 10_000;
+    private static final long BATCH_START = 5000;
+
+    private static long[] populatePks(int[] statusIndexes, long[] statusStarts, int chunkSize) {
+        StringBuilder[] rowData = new StringBuilder[statusIndexes.length];
+        DataGenerator.populatePks(rowData, statusIndexes, statusStarts, chunkSize);
+        return Arrays.stream(rowData).mapToLong(row -> Long.parseLong(row.substring(0, row.length() - 1))).toArray();
+    }
+
+    @Test
+    void populatePksTest() {
+        SplittableRandom random = new SplittableRandom(3);
+        boolean[][] statusVectorOfEachRow = new boolean[RANGE][3];
+        for (boolean[] statusVector : statusVectorOfEachRow) {
+            for (int i = 0; i < statusVector.length; i++) {
+                statusVector[i] = random.nextInt(3) == 0;
+            }
+        }
+        int[] chainIndexes = {0, 2};
+        int[] statusIndexes = new int[RANGE];
+        Map<JoinStatus, Long> pkHistogram = new LinkedHashMap<>();
+        FkGenerator.staticsStatusHistogram(statusVectorOfEachRow, statusIndexes, chainIndexes, pkHistogram);
+        assertEquals(4, pkHistogram.size());
+        List<JoinStatus> statuses = new ArrayList<>(pkHistogram.keySet());
+        for (int rowId = 0; rowId < RANGE; rowId++) {
+            assertEquals(FkGenerator.chooseCorrespondingStatus(statusVectorOfEachRow[rowId], chainIndexes),
+                    statuses.get(statusIndexes[rowId]));
+        }
+        Map<JoinStatus, Long> pkStatus2Location = RuleTableManager.getInstance()
+                .addRuleTable("public.populate_pk", pkHistogram, BATCH_START);
+        long[] statusStarts = pkStatus2Location.values().stream().mapToLong(Long::longValue).toArray();
+
+        long[] pks = populatePks(statusIndexes, statusStarts, RANGE / 7 + 1);
+        // 每种status从其起始位置开始按行号顺序连续分配，没有空洞
+        long[] nextPks = statusStarts.clone();
+        for (int rowId = 0; rowId < RANGE; rowId++) {
+            assertEquals(nextPks[statusIndexes[rowId]]++, pks[rowId]);
+        }
+        for (int i = 0; i < statuses.size(); i++) {
+            assertEquals(statusStarts[i] + pkHistogram.get(statuses.get(i)), nextPks[i]);
+        }
+        assertEquals(BATCH_START, Arrays.stream(pks).min().orElseThrow());
+        assertEquals(BATCH_START + RANGE - 1, Arrays.stream(pks).max().orElseThrow());
+        assertEquals(RANGE, Arrays.stream(pks).distinct().count());
+        // 结果与分块大小无关，重复执行的结果一致
+        assertArrayEquals(pks, populatePks(statusIndexes, statusStarts, RANGE / 7 + 1));
+        assertArrayEquals(pks, populatePks(statusIndexes, statusStarts, 1));
+        assertArrayEquals(pks, populatePks(statusIndexes, statusStarts, RANGE));
+    }
+}
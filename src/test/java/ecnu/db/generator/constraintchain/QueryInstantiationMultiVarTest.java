@@ -3,7 +3,6 @@ package ecnu.db.generator.constraintchain;
 import com.fasterxml.jackson.core.type.TypeReference;
 import ecnu.db.generator.constraintchain.filter.ConstraintChainFilterNode;
 import ecnu.db.generator.constraintchain.filter.Parameter;
-import ecnu.db.generator.constraintchain.filter.arithmetic.ArithmeticNode;
 import ecnu.db.schema.ColumnManager;
 import ecnu.db.utils.CommonUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,7 +22,6 @@ class QueryInstantiationMultiVarTest {
 
     @BeforeEach
     public void setUp() throws IOException {
-        ArithmeticNode.setSize(samplingSize);
         String fileContent = CommonUtils.readFile("src/test/resources/data/query-instantiation/multi-var-test/constraintChain.json");
         query2chains = CommonUtils.MAPPER.readValue(fileContent, new TypeReference<>() {
         });
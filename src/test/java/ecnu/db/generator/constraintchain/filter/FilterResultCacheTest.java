@@ -0,0 +1,43 @@
+package ecnu.db.generator.constraintchain.filter;
+
+import ecnu.db.utils.BitMasks;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FilterResultCacheTest {
+    @Test
+    void sharedKeyEvaluatedOnceTest() {
+        int range = 130;
+        FilterResultCache cache = new FilterResultCache(range, List.of(Set.of("a", "b"), Set.of("a"), Set.of("c")));
+        AtomicInteger evaluateTimes = new AtomicInteger();
+        // 偶数行为true
+        long[] evenRows = new long[BitMasks.wordNum(range)];
+        for (int i = 0; i < range; i += 2) {
+            evenRows[i >>> 6] |= 1L << i;
+        }
+        long[] firstRows = new long[BitMasks.wordNum(range)];
+        firstRows[0] = 0b1111;
+        for (int i = 0; i < 3; i++) {
+            long[] result = cache.evaluate("a", firstRows, selection -> {
+                evaluateTimes.incrementAndGet();
+                long[] ret = evenRows.clone();
+                BitMasks.and(ret, selection);
+                return ret;
+            });
+            assertArrayEquals(new long[]{0b0101, 0, 0}, result);
+        }
+        assertEquals(1, evaluateTimes.get());
+        cache.evaluate("b", firstRows, selection -> {
+            assertArrayEquals(firstRows, selection);
+            evaluateTimes.incrementAndGet();
+            return selection.clone();
+        });
+        assertEquals(2, evaluateTimes.get());
+    }
+}
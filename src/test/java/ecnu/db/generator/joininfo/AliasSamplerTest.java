@@ -0,0 +1,71 @@
+package ecnu.db.generator.joininfo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AliasSamplerTest {
+    private static final int SAMPLE_SIZE = 1_000_000;
+
+    @Test
+    void zipfSampleTest() {
+        KeySkew keySkew = new KeySkew();
+        keySkew.setZipf(1.0);
+        int keyNum = 100;
+        AliasSampler sampler = new AliasSampler(keySkew, keyNum);
+        long[] counts = new long[keyNum];
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            counts[(int) sampler.sample(random)]++;
+        }
+        double harmonic = 0;
+        for (int i = 1; i <= keyNum; i++) {
+            harmonic += 1.0 / i;
+        }
+        assertEquals(1 / harmonic, (double) counts[0] / SAMPLE_SIZE, 0.005);
+        assertEquals(1 / (10 * harmonic), (double) counts[9] / SAMPLE_SIZE, 0.002);
+    }
+
+    @Test
+    void histogramSampleTest() {
+        KeySkew keySkew = new KeySkew(new double[]{3, 1});
+        long keyNum = 10_000_000L;
+        AliasSampler sampler = new AliasSampler(keySkew, keyNum);
+        long hotCount = 0;
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            long key = sampler.sample(random);
+            assertTrue(key >= 0 && key < keyNum);
+            if (key < keyNum / 2) {
+                hotCount++;
+            }
+        }
+        assertEquals(0.75, (double) hotCount / SAMPLE_SIZE, 0.005);
+    }
+
+    @Test
+    void reproducibleSampleTest() {
+        KeySkew keySkew = new KeySkew();
+        keySkew.setZipf(0.8);
+        AliasSampler sampler = new AliasSampler(keySkew, 10_000_000L);
+        // 相同种子的随机流在并行与串行时抽取的结果一致
+        long[] parallelKeys = new long[SAMPLE_SIZE];
+        IntStream.range(0, 16).parallel().forEach(chunkId -> {
+            SplittableRandom random = new SplittableRandom(chunkId);
+            for (int i = chunkId; i < SAMPLE_SIZE; i += 16) {
+                parallelKeys[i] = sampler.sample(random);
+            }
+        });
+        long[] serialKeys = new long[SAMPLE_SIZE];
+        for (int chunkId = 0; chunkId < 16; chunkId++) {
+            SplittableRandom random = new SplittableRandom(chunkId);
+            for (int i = chunkId; i < SAMPLE_SIZE; i += 16) {
+                serialKeys[i] = sampler.sample(random);
+            }
+        }
+        assertArrayEquals(serialKeys, parallelKeys);
+    }
+}
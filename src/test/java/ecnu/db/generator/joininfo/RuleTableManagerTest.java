@@ -0,0 +1,60 @@
+package ecnu.db.generator.joininfo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleTableManagerTest {
+    private static final int[] LOCATION = {0};
+
+    private static void addRuleTable(String colName) {
+        Map<JoinStatus, Long> pkHistogram = new LinkedHashMap<>();
+        pkHistogram.put(new JoinStatus(new boolean[]{true, false}), 10L);
+        pkHistogram.put(new JoinStatus(new boolean[]{false, true}), 5L);
+        RuleTableManager.getInstance().addRuleTable(colName, pkHistogram, 0);
+    }
+
+    @Test
+    void releaseBeforeFinishTest() {
+        String colName = "public.release_before_finish";
+        RuleTableManager manager = RuleTableManager.getInstance();
+        addRuleTable(colName);
+        manager.registerConsumers(List.of(colName, colName));
+        MergedRuleTable first = manager.getRuleTable(colName, LOCATION);
+        MergedRuleTable second = manager.getRuleTable(colName, LOCATION);
+        // 两个外键生成器共享同一个合并结果，分配计数器相互独立
+        assertSame(first.mergedRules, second.mergedRules);
+        assertNotSame(first, second);
+        manager.releaseRuleTable(first);
+        manager.finishConsumer(colName);
+        assertTrue(manager.isMergedRulesCached(colName, LOCATION));
+        // 引用数归零但仍有待生成的参照者
+        manager.releaseRuleTable(second);
+        assertTrue(manager.isMergedRulesCached(colName, LOCATION));
+        manager.finishConsumer(colName);
+        assertFalse(manager.isMergedRulesCached(colName, LOCATION));
+    }
+
+    @Test
+    void finishBeforeReleaseTest() {
+        String colName = "public.finish_before_release";
+        RuleTableManager manager = RuleTableManager.getInstance();
+        addRuleTable(colName);
+        manager.registerConsumers(List.of(colName, colName));
+        MergedRuleTable first = manager.getRuleTable(colName, LOCATION);
+        manager.finishConsumer(colName);
+        MergedRuleTable second = manager.getRuleTable(colName, LOCATION);
+        assertSame(first.mergedRules, second.mergedRules);
+        manager.finishConsumer(colName);
+        // 没有待生成的参照者，但合并结果仍被引用
+        assertTrue(manager.isMergedRulesCached(colName, LOCATION));
+        manager.releaseRuleTable(first);
+        assertTrue(manager.isMergedRulesCached(colName, LOCATION));
+        manager.releaseRuleTable(second);
+        assertFalse(manager.isMergedRulesCached(colName, LOCATION));
+    }
+}
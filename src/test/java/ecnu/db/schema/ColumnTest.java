@@ -0,0 +1,51 @@
+package ecnu.db.schema;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ColumnTest {
+    private static Column buildColumn(ColumnType columnType, long min, long range, long specialValue) {
+        Column column = new Column(columnType);
+        column.setMin(min);
+        column.setRange(range);
+        column.setSpecialValue(specialValue);
+        column.setAvgLength(24);
+        column.setMaxLength(32);
+        column.init();
+        return column;
+    }
+
+    @Test
+    void outputTest() {
+        SplittableRandom random = new SplittableRandom(6);
+        Column[] columns = {
+                buildColumn(ColumnType.INTEGER, -500, 1000, 3),
+                buildColumn(ColumnType.DECIMAL, -100_000, 1_000_000, 100),
+                buildColumn(ColumnType.VARCHAR, 0, 5000, 12345),
+                buildColumn(ColumnType.DATE, 8000, 5000, 0),
+                buildColumn(ColumnType.DATETIME, 700_000_000, 500_000_000, 0)
+        };
+        for (Column column : columns) {
+            long[] columnData = new long[2000];
+            for (int i = 0; i < columnData.length; i++) {
+                columnData[i] = i % 97 == 0 ? Long.MIN_VALUE : random.nextLong(column.getRange() + 2);
+            }
+            column.setColumnData(columnData);
+            byte[] buffer = new byte[column.getMaxOutputLength() + 3];
+            // 第二轮从渲染值缓存中读取
+            for (int round = 0; round < 2; round++) {
+                for (int i = 0; i < columnData.length; i++) {
+                    int end = column.output(i, buffer, 3);
+                    assertEquals(column.transferDataToValue(columnData[i]),
+                            new String(buffer, 3, end - 3, StandardCharsets.ISO_8859_1), column.getColumnType().name());
+                }
+                column.initRenderedValueCache();
+            }
+            column.releaseRenderedValueCache();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ecnu.db.schema;
+
+import ecnu.db.generator.constraintchain.filter.operation.CompareOperator;
+import ecnu.db.utils.BitMasks;
+import ecnu.db.utils.RandomPermutation;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ColumnVectorTest {
+    @Test
+    void narrowStorageRoundTripTest() {
+        SplittableRandom random = new SplittableRandom(5);
+        // 分别落在byte、short、int和long的取值范围内
+        long[] bounds = {Byte.MAX_VALUE, Short.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE};
+        int size = 10_000;
+        for (long bound : bounds) {
+            long[] data = new long[size];
+            for (int i = 0; i < size; i++) {
+                data[i] = random.nextInt(10) == 0 ? Long.MIN_VALUE : random.nextLong(-bound, bound);
+            }
+            ColumnVector columnVector = ColumnVector.of(data);
+            assertArrayEquals(data, columnVector.toLongArray());
+            long[] selection = BitMasks.allTrue(size);
+            for (long value : new long[]{0, bound / 2, Long.MIN_VALUE}) {
+                long[] expected = new long[BitMasks.wordNum(size)];
+                long[] actual = new long[BitMasks.wordNum(size)];
+                new ScalarPredicateKernel().compare(data, size, CompareOperator.LT, value, true, selection, expected);
+                columnVector.compare(new ScalarPredicateKernel(), CompareOperator.LT, value, true, selection, actual);
+                assertArrayEquals(expected, actual);
+            }
+        }
+    }
+
+    @Test
+    void allocateNarrowestTest() {
+        ColumnVector columnVector = ColumnVector.allocate(3, 0, 100);
+        columnVector.fill(0, 2, 100);
+        columnVector.set(2, Long.MIN_VALUE);
+        assertArrayEquals(new long[]{100, 100, Long.MIN_VALUE}, columnVector.toLongArray());
+        assertEquals("ByteColumnVector", columnVector.getClass().getSimpleName());
+        assertEquals("IntColumnVector", ColumnVector.allocate(1, -1, 1 << 20).getClass().getSimpleName());
+    }
+
+    @Test
+    void permuteInPlaceTest() {
+        SplittableRandom random = new SplittableRandom(7);
+        long[] bounds = {Byte.MAX_VALUE, Short.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE};
+        int size = 100_003;
+        int[] shuffleOrder = RandomPermutation.generate(size, 3);
+        // 包含不动点和长度为2的置换环
+        int[] swapOrder = IntStream.range(0, size).map(i -> i % 4 < 2 ? i ^ 1 : i).toArray();
+        for (long bound : bounds) {
+            long[] data = new long[size];
+            for (int i = 0; i < size; i++) {
+                data[i] = random.nextInt(10) == 0 ? Long.MIN_VALUE : random.nextLong(-bound, bound);
+            }
+            for (int[] order : new int[][]{shuffleOrder, swapOrder, IntStream.range(0, size).toArray()}) {
+                ColumnVector columnVector = ColumnVector.of(data.clone());
+                columnVector.permute(order, ColumnVector.cycleLeaders(order));
+                long[] expected = IntStream.range(0, size).mapToLong(i -> data[order[i]]).toArray();
+                assertArrayEquals(expected, columnVector.toLongArray());
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package ecnu.db.schema;
+
+import ecnu.db.generator.constraintchain.filter.Parameter;
+import ecnu.db.generator.constraintchain.filter.operation.CompareOperator;
+import ecnu.db.utils.exception.TouchstoneException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistributionTest {
+    private static final long[] RANGE_BOUNDS = {1, 2, 3, 10, 20};
+
+    private static Distribution buildDistribution() {
+        Distribution distribution = new Distribution(BigDecimal.valueOf(0.05), 20);
+        SortedMap<Long, BigDecimal> paraData2Probability = new TreeMap<>();
+        paraData2Probability.put(1L, new BigDecimal("0.1997866667"));
+        paraData2Probability.put(2L, new BigDecimal("0.0000000133"));
+        paraData2Probability.put(3L, new BigDecimal("0.3"));
+        paraData2Probability.put(10L, new BigDecimal("0.15"));
+        paraData2Probability.put(20L, new BigDecimal("0.30021332"));
+        distribution.setParaData2Probability(paraData2Probability);
+        SortedMap<BigDecimal, Long> offset2Pv = new TreeMap<>();
+        offset2Pv.put(new BigDecimal("0.35"), 3L);
+        distribution.setOffset2Pv(offset2Pv);
+        return distribution;
+    }
+
+    private static int[] toRangeIndexes(long[] columnData) {
+        int[] rangeIndexes = new int[columnData.length];
+        for (int i = 0; i < columnData.length; i++) {
+            if (columnData[i] == Long.MIN_VALUE) {
+                rangeIndexes[i] = -1;
+            } else {
+                int index = Arrays.binarySearch(RANGE_BOUNDS, columnData[i]);
+                rangeIndexes[i] = index >= 0 ? index : -index - 1;
+            }
+        }
+        return rangeIndexes;
+    }
+
+    @Test
+    void fixedPointMatchesBigDecimalTest() {
+        Distribution fixedPoint = buildDistribution();
+        Distribution bigDecimal = buildDistribution();
+        for (int size : new int[]{7_000_001, 999_983, 12_345, 1, 7}) {
+            int[] expected = toRangeIndexes(bigDecimal.prepareTupleData(size, 0, false).toLongArray());
+            int[] actual = toRangeIndexes(fixedPoint.prepareTupleData(size, 0, true).toLongArray());
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void sameSeedReproducibleTest() {
+        Distribution first = buildDistribution();
+        Distribution second = buildDistribution();
+        for (int size : new int[]{1_000_003, 65_536, 3}) {
+            assertArrayEquals(first.prepareTupleData(size, 20).toLongArray(), second.prepareTupleData(size, 20).toLongArray());
+        }
+        // BigDecimal版本同样只由种子决定
+        for (int size : new int[]{12_345, 7}) {
+            assertArrayEquals(first.prepareTupleData(size, 20, false).toLongArray(),
+                    second.prepareTupleData(size, 20, false).toLongArray());
+        }
+        // 不同的batch种子生成不同的数据
+        assertFalse(Arrays.equals(first.prepareTupleData(65_536, 20).toLongArray(),
+                second.prepareTupleData(65_536, 21).toLongArray()));
+    }
+
+    @Test
+    void tupleLayoutMatchesTupleDataTest() {
+        Distribution materialized = buildDistribution();
+        Distribution lazy = buildDistribution();
+        for (int size : new int[]{999_983, 12_345, 7}) {
+            int[] expected = toRangeIndexes(materialized.prepareTupleData(size, size).toLongArray());
+            Distribution.TupleLayout layout = lazy.prepareTupleLayout(size, size);
+            long[] lazyData = new long[size];
+            Arrays.setAll(lazyData, layout::valueAt);
+            assertArrayEquals(expected, toRangeIndexes(lazyData));
+        }
+    }
+
+    private static final CompareOperator[] OPERATORS = {CompareOperator.EQ, CompareOperator.NE, CompareOperator.IN,
+            CompareOperator.LT, CompareOperator.LE, CompareOperator.GT, CompareOperator.GE};
+
+    /**
+     * 线性扫描pvAndPbList和idList，检查各个索引与扫描的结果一致
+     */
+    private static void assertIndexMatchesScan(Distribution distribution, int parameterNum) {
+        NavigableMap<BigDecimal, List<Parameter>> pvAndPbList = distribution.getPvAndPbList();
+        for (int id = 0; id < parameterNum; id++) {
+            List<Integer> expectedGroup = null;
+            for (List<Integer> idGroup : distribution.getIdList()) {
+                if (idGroup.contains(id)) {
+                    expectedGroup = idGroup;
+                    break;
+                }
+            }
+            assertSame(expectedGroup, distribution.getParaId2IdGroup().get(id));
+            BigDecimal expectedCdf = null;
+            for (var cdf2Parameters : pvAndPbList.entrySet()) {
+                int paraId = id;
+                if (cdf2Parameters.getValue().stream().anyMatch(parameter -> parameter.getId() == paraId)) {
+                    expectedCdf = cdf2Parameters.getKey();
+                    break;
+                }
+            }
+            BigDecimal indexedCdf = distribution.getParaId2Cdf().get(id);
+            if (expectedCdf == null) {
+                assertNull(indexedCdf);
+            } else {
+                assertEquals(0, expectedCdf.compareTo(indexedCdf));
+            }
+        }
+        Map<BigDecimal, TreeSet<BigDecimal>> expectedRange2Cdfs = new TreeMap<>();
+        Map<BigDecimal, TreeSet<BigDecimal>> expectedNonEqualRange2Cdfs = new TreeMap<>();
+        BigDecimal lastCdf = BigDecimal.ZERO;
+        for (var cdf2Parameters : pvAndPbList.entrySet()) {
+            BigDecimal cdfRange = cdf2Parameters.getKey().subtract(lastCdf);
+            expectedRange2Cdfs.computeIfAbsent(cdfRange, k -> new TreeSet<>()).add(cdf2Parameters.getKey());
+            if (cdf2Parameters.getValue().stream().noneMatch(Parameter::isEqualPredicate)) {
+                expectedNonEqualRange2Cdfs.computeIfAbsent(cdfRange, k -> new TreeSet<>()).add(cdf2Parameters.getKey());
+            }
+            lastCdf = cdf2Parameters.getKey();
+        }
+        assertEquals(expectedRange2Cdfs, distribution.getRange2Cdfs());
+        // 非等值区间的索引惰性移除变为等值的区间，只要求覆盖所有非等值区间且区间长度正确
+        for (var range2Cdfs : distribution.getNonEqualRange2Cdfs().entrySet()) {
+            for (BigDecimal cdf : range2Cdfs.getValue()) {
+                assertTrue(expectedRange2Cdfs.get(range2Cdfs.getKey()).contains(cdf));
+            }
+        }
+        expectedNonEqualRange2Cdfs.forEach((cdfRange, cdfs) ->
+                assertTrue(distribution.getNonEqualRange2Cdfs().getOrDefault(cdfRange, new TreeSet<>()).containsAll(cdfs)));
+    }
+
+    @Test
+    void mixedConstraintIndexTest() throws TouchstoneException {
+        Distribution distribution = new Distribution(BigDecimal.valueOf(0.05), 1000);
+        distribution.setIdList(List.of(List.of(0, 3), List.of(1, 4, 5), List.of(3, 6)));
+        distribution.applyUniVarConstraint(new BigDecimal("0.4"), CompareOperator.LT, List.of(new Parameter(0, null, null)));
+        assertIndexMatchesScan(distribution, 8);
+        distribution.applyUniVarConstraint(new BigDecimal("0.3"), CompareOperator.GE, List.of(new Parameter(1, null, null)));
+        assertIndexMatchesScan(distribution, 8);
+        distribution.applyUniVarConstraint(new BigDecimal("0.1"), CompareOperator.EQ, List.of(new Parameter(2, null, null)));
+        assertIndexMatchesScan(distribution, 8);
+        distribution.applyUniVarConstraint(new BigDecimal("0.8"), CompareOperator.NE, List.of(new Parameter(3, null, null)));
+        assertIndexMatchesScan(distribution, 8);
+        distribution.applyUniVarConstraint(new BigDecimal("0.06"), CompareOperator.IN,
+                new ArrayList<>(List.of(new Parameter(4, null, null), new Parameter(5, null, null))));
+        assertIndexMatchesScan(distribution, 8);
+        distribution.applyUniVarConstraint(new BigDecimal("0.4"), CompareOperator.LE, List.of(new Parameter(6, null, null)));
+        assertIndexMatchesScan(distribution, 8);
+        distribution.applyUniVarConstraint(new BigDecimal("0.02"), CompareOperator.EQ, List.of(new Parameter(7, null, null)));
+        assertIndexMatchesScan(distribution, 8);
+        // 参数0和3属于同一分组，NE通过重用参数0所在的区间放置
+        assertEquals(0, distribution.getParaId2Cdf().get(0).compareTo(distribution.getParaId2Cdf().get(3)));
+    }
+
+    @Test
+    void randomConstraintIndexTest() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int round = 0; round < 20; round++) {
+            Distribution distribution = new Distribution(BigDecimal.valueOf(random.nextInt(10) / 100.0), 10_000);
+            int parameterNum = 40;
+            List<List<Integer>> idList = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                idList.add(List.of(random.nextInt(parameterNum), random.nextInt(parameterNum), random.nextInt(parameterNum)));
+            }
+            distribution.setIdList(idList);
+            for (int id = 0; id < parameterNum; id++) {
+                CompareOperator operator = OPERATORS[random.nextInt(OPERATORS.length)];
+                BigDecimal probability;
+                List<Parameter> parameters = new ArrayList<>(List.of(new Parameter(id, null, null)));
+                switch (operator) {
+                    case EQ -> probability = BigDecimal.valueOf(random.nextInt(1, 40), 3);
+                    case NE -> probability = BigDecimal.ONE.subtract(BigDecimal.valueOf(random.nextInt(1, 40), 3));
+                    case IN -> {
+                        probability = BigDecimal.valueOf(random.nextInt(2, 80), 3);
+                        parameters.add(new Parameter(++id, null, null));
+                    }
+                    default -> probability = BigDecimal.valueOf(random.nextInt(1, 100), 2);
+                }
+                parameters.forEach(parameter -> parameter.setCanMerge(random.nextInt(4) != 0));
+                try {
+                    distribution.applyUniVarConstraint(probability, operator, parameters);
+                } catch (TouchstoneException e) {
+                    // 无法放置的约束不影响已有的索引
+                }
+                assertIndexMatchesScan(distribution, parameterNum + 1);
+            }
+        }
+    }
+}
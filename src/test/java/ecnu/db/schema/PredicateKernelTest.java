@@ -0,0 +1,79 @@
+package ecnu.db.schema;
+
+import ecnu.db.generator.constraintchain.filter.operation.CompareOperator;
+import ecnu.db.utils.BitMasks;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+class PredicateKernelTest {
+    private static final CompareOperator[] OPERATORS = {CompareOperator.EQ, CompareOperator.NE,
+            CompareOperator.LT, CompareOperator.LE, CompareOperator.GT, CompareOperator.GE};
+
+    @Test
+    void vectorMatchesScalarTest() {
+        PredicateKernel kernel = PredicateKernel.getInstance();
+        assumeFalse(kernel instanceof ScalarPredicateKernel, "jdk.incubator.vector is not enabled");
+        PredicateKernel scalarKernel = new ScalarPredicateKernel();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int size : new int[]{1, 63, 64, 65, 1000, 4099}) {
+            long[] data = new long[size];
+            for (int i = 0; i < size; i++) {
+                data[i] = random.nextInt(10) == 0 ? Long.MIN_VALUE : random.nextLong(0, 20);
+            }
+            // 全选、半数选中与稀疏选中三种选择向量
+            long[][] selections = {BitMasks.allTrue(size), randomSelection(random, size, 2), randomSelection(random, size, 32)};
+            for (long[] selection : selections) {
+                assertSameResult(kernel, scalarKernel, data, selection);
+            }
+        }
+    }
+
+    private static void assertSameResult(PredicateKernel kernel, PredicateKernel scalarKernel, long[] data, long[] selection) {
+        for (CompareOperator operator : OPERATORS) {
+            for (long value : new long[]{0, 10, 19, Long.MIN_VALUE}) {
+                for (boolean excludeNull : new boolean[]{true, false}) {
+                    long[] expected = new long[selection.length];
+                    long[] actual = new long[selection.length];
+                    scalarKernel.compare(data, data.length, operator, value, excludeNull, selection, expected);
+                    kernel.compare(data, data.length, operator, value, excludeNull, selection, actual);
+                    assertArrayEquals(expected, actual, operator + " " + value);
+                }
+            }
+        }
+    }
+
+    @Test
+    void scalarSelectionTest() {
+        PredicateKernel scalarKernel = new ScalarPredicateKernel();
+        SplittableRandom random = new SplittableRandom(11);
+        int size = 1000;
+        long[] data = new long[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = random.nextInt(10) == 0 ? Long.MIN_VALUE : random.nextLong(0, 20);
+        }
+        for (int density : new int[]{1, 2, 32}) {
+            long[] selection = randomSelection(random, size, density);
+            long[] actual = new long[BitMasks.wordNum(size)];
+            scalarKernel.compare(data, data.length, CompareOperator.LT, 10, true, selection, actual);
+            for (int i = 0; i < size; i++) {
+                boolean expected = BitMasks.get(selection, i) && data[i] != Long.MIN_VALUE && data[i] < 10;
+                assertEquals(expected, BitMasks.get(actual, i));
+            }
+        }
+    }
+
+    private static long[] randomSelection(SplittableRandom random, int size, int density) {
+        long[] selection = new long[BitMasks.wordNum(size)];
+        for (int i = 0; i < size; i++) {
+            if (random.nextInt(density) == 0) {
+                selection[i >>> 6] |= 1L << i;
+            }
+        }
+        return selection;
+    }
+}
@@ -0,0 +1,59 @@
+package ecnu.db.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongSetTest {
+    @Test
+    void containsTest() {
+        SplittableRandom random = new SplittableRandom(3);
+        // 依次覆盖位图、有序数组与哈希表三种实现
+        long[][] bounds = {{-100, 1000}, {0, Long.MAX_VALUE}, {Long.MIN_VALUE, Long.MAX_VALUE}};
+        int[] sizes = {50, 100, 5000};
+        String[] implementations = {"BitmapLongSet", "SortedLongSet", "HashLongSet"};
+        for (int i = 0; i < sizes.length; i++) {
+            long[] values = new long[sizes[i]];
+            Set<Long> expected = new HashSet<>();
+            for (int j = 0; j < values.length; j++) {
+                values[j] = random.nextLong(bounds[i][0], bounds[i][1]);
+                expected.add(values[j]);
+            }
+            // 有序数组与哈希表包含null值Long.MIN_VALUE，位图的跨度会因此溢出
+            if (i > 0) {
+                values[0] = Long.MIN_VALUE;
+                expected.add(values[0]);
+            }
+            LongSet longSet = LongSet.of(values);
+            assertEquals(implementations[i], longSet.getClass().getSimpleName());
+            for (long value : values) {
+                assertTrue(longSet.contains(value));
+            }
+            for (int j = 0; j < 10000; j++) {
+                long value = j % 2 == 0 ? random.nextLong(-200, 2000) : random.nextLong();
+                assertEquals(expected.contains(value), longSet.contains(value));
+            }
+            assertEquals(expected.contains(Long.MIN_VALUE), longSet.contains(Long.MIN_VALUE));
+            assertEquals(expected.contains(Long.MAX_VALUE), longSet.contains(Long.MAX_VALUE));
+        }
+        assertFalse(LongSet.of(new long[0]).contains(0));
+    }
+
+    @Test
+    void bitmapWithNullTest() {
+        // 只包含null值附近的值时跨度不溢出，仍然使用位图
+        LongSet longSet = LongSet.of(new long[]{Long.MIN_VALUE, Long.MIN_VALUE + 3, Long.MIN_VALUE + 64});
+        assertEquals("BitmapLongSet", longSet.getClass().getSimpleName());
+        assertTrue(longSet.contains(Long.MIN_VALUE));
+        assertTrue(longSet.contains(Long.MIN_VALUE + 3));
+        assertTrue(longSet.contains(Long.MIN_VALUE + 64));
+        assertFalse(longSet.contains(Long.MIN_VALUE + 1));
+        assertFalse(longSet.contains(Long.MIN_VALUE + 65));
+        assertFalse(longSet.contains(Long.MAX_VALUE));
+        assertFalse(longSet.contains(0));
+    }
+}
@@ -0,0 +1,48 @@
+package ecnu.db.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NdvEstimatorTest {
+    @Test
+    void fullSampleTest() {
+        NdvEstimator estimator = new NdvEstimator();
+        for (int i = 0; i < 1000; i++) {
+            estimator.add(i % 3 == 0 ? null : (long) i % 100);
+        }
+        // 样本覆盖全表时结果是精确的
+        assertEquals(1000, estimator.getSampleSize());
+        assertEquals(334, estimator.getNullSize());
+        assertEquals(100, estimator.estimate(1000));
+        assertEquals(0, estimator.estimateError(1000));
+    }
+
+    @Test
+    void lowCardinalityTest() {
+        SplittableRandom random = new SplittableRandom(3);
+        NdvEstimator estimator = new NdvEstimator();
+        for (int i = 0; i < 10_000; i++) {
+            estimator.add(random.nextInt(1000));
+        }
+        // 每个值都多次出现，估计值即为样本中的NDV
+        assertEquals(1000, estimator.estimate(1_000_000));
+        assertEquals(0, estimator.estimateError(1_000_000));
+    }
+
+    @Test
+    void uniqueValueTest() {
+        NdvEstimator estimator = new NdvEstimator();
+        for (int i = 0; i < 10_000; i++) {
+            estimator.add(i);
+        }
+        long tableSize = 1_000_000;
+        long estimation = estimator.estimate(tableSize);
+        assertEquals(100_000, estimation);
+        // 真实的NDV在样本允许的区间内，比值误差不超过sqrt(N/n)
+        assertTrue(tableSize / estimation <= Math.sqrt(100));
+        assertEquals(9, estimator.estimateError(tableSize), 1e-9);
+    }
+}
@@ -0,0 +1,49 @@
+package ecnu.db.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchTest {
+    @Test
+    void selectTest() {
+        SplittableRandom random = new SplittableRandom(5);
+        for (int size : new int[]{1, 2, 17, 10_000}) {
+            double[] values = new double[size];
+            // 包含大量重复值
+            Arrays.setAll(values, i -> random.nextInt(size / 2 + 1));
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+            for (int rank : new int[]{0, size / 3, size - 1}) {
+                assertEquals(sorted[rank], QuantileSketch.select(values.clone(), rank));
+            }
+        }
+    }
+
+    @Test
+    void quantileTest() {
+        double error = 0.005;
+        int size = 2_000_000;
+        SplittableRandom random = new SplittableRandom(7);
+        double[] values = new double[size];
+        Arrays.setAll(values, i -> random.nextGaussian() * 100);
+        // 分两个草图写入后合并
+        QuantileSketch sketch = QuantileSketch.ofError(error, 0);
+        QuantileSketch otherSketch = QuantileSketch.ofError(error, 1);
+        for (int i = 0; i < size; i++) {
+            (i % 3 == 0 ? otherSketch : sketch).update(values[i]);
+        }
+        sketch.merge(otherSketch);
+        assertEquals(size, sketch.getCount());
+        Arrays.sort(values);
+        for (double fraction : new double[]{0, 0.01, 0.3270440252, 0.5, 0.9, 1}) {
+            double value = sketch.quantile(fraction);
+            int lowRank = Arrays.binarySearch(values, value);
+            assertTrue(lowRank >= 0);
+            assertEquals(fraction, (double) lowRank / size, error);
+        }
+    }
+}
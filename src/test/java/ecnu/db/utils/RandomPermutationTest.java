@@ -0,0 +1,60 @@
+package ecnu.db.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RandomPermutationTest {
+    @Test
+    void permutationTest() {
+        for (int size : new int[]{0, 1, 7, 65_536, 3 * 65_536 + 5}) {
+            int[] order = RandomPermutation.generate(size, 11);
+            assertArrayEquals(IntStream.range(0, size).toArray(), Arrays.stream(order).sorted().toArray());
+            // 相同种子的结果一致，不同种子的结果不同
+            assertArrayEquals(order, RandomPermutation.generate(size, 11));
+            if (size > 1) {
+                assertFalse(Arrays.equals(order, RandomPermutation.generate(size, 12)));
+            }
+        }
+    }
+
+    @Test
+    void uniformInBlockTest() {
+        // 单个分块内为Fisher-Yates洗牌，3个元素的6种排列出现的次数接近
+        int[] permutation2Count = new int[9];
+        int trialNum = 60_000;
+        for (int seed = 0; seed < trialNum; seed++) {
+            int[] order = RandomPermutation.generate(3, seed);
+            permutation2Count[order[0] * 3 + order[1]]++;
+        }
+        for (int i = 0; i < 9; i++) {
+            if (i / 3 == i % 3) {
+                assertEquals(0, permutation2Count[i]);
+            } else {
+                assertEquals(trialNum / 6.0, permutation2Count[i], trialNum / 60.0);
+            }
+        }
+    }
+
+    @Test
+    void uniformAcrossBlockTest() {
+        // 第一个源分块中的行均匀分散到所有目标分块
+        int blockSize = 65_536;
+        int blockNum = 4;
+        for (int seed = 0; seed < 5; seed++) {
+            int[] order = RandomPermutation.generate(blockNum * blockSize, seed);
+            int[] quarter2Count = new int[blockNum];
+            for (int i = 0; i < order.length; i++) {
+                if (order[i] < blockSize) {
+                    quarter2Count[i / blockSize]++;
+                }
+            }
+            for (int count : quarter2Count) {
+                assertEquals(blockSize / (double) blockNum, count, blockSize / 100.0);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package ecnu.db.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneRules;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValueFormatterTest {
+    private static final int SAMPLE_SIZE = 200_000;
+
+    @Test
+    void formatDateTest() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            long epochSecond = random.nextLong(-800_000, 3_000_000) * 24 * 60 * 60;
+            assertEquals(CommonUtils.dateFormatter.format(Instant.ofEpochSecond(epochSecond)),
+                    ValueFormatter.formatDate(epochSecond));
+        }
+    }
+
+    @Test
+    void formatDateTimeTest() {
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            long epochSecond = random.nextLong(-70_000_000_000L, 260_000_000_000L);
+            assertEquals(CommonUtils.dateTimeFormatter.format(Instant.ofEpochSecond(epochSecond)),
+                    ValueFormatter.formatDateTime(epochSecond));
+        }
+    }
+
+    @Test
+    void writeLongTest() {
+        SplittableRandom random = new SplittableRandom(6);
+        byte[] buffer = new byte[24];
+        long[] values = {0, 9, 10, -1, -10, Long.MAX_VALUE, Long.MIN_VALUE + 1};
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            long value = i < values.length ? values[i] : random.nextLong() >> random.nextInt(64);
+            int length = ValueFormatter.writeLong(value, buffer, 2);
+            assertEquals(Long.toString(value), new String(buffer, 2, length - 2, StandardCharsets.ISO_8859_1));
+        }
+        assertEquals(-1, ValueFormatter.writeLong(Long.MIN_VALUE, buffer, 0));
+    }
+
+    @Test
+    void formatDecimalTest() {
+        SplittableRandom random = new SplittableRandom(3);
+        long[] specialValues = {1, 3, 7, 100, 10_000, 123_456_789, 100_000_000_000L};
+        for (long specialValue : specialValues) {
+            BigDecimal decimalPre = BigDecimal.ONE.divide(BigDecimal.valueOf(specialValue),
+                    CommonUtils.DECIMAL_DIVIDE_SCALE, RoundingMode.HALF_UP);
+            long unscaled = decimalPre.unscaledValue().longValueExact();
+            for (int i = 0; i < SAMPLE_SIZE / specialValues.length; i++) {
+                long value = i < 1000 ? i - 500 : random.nextLong(-10_000_000_000L, 10_000_000_000L);
+                assertEquals(BigDecimal.valueOf(value).multiply(decimalPre).toString(),
+                        ValueFormatter.formatDecimal(value, unscaled, decimalPre.scale()));
+            }
+        }
+    }
+
+    @Test
+    void zoneOffsetTableTest() {
+        SplittableRandom random = new SplittableRandom(4);
+        // 包含无夏令时、北半球和南半球夏令时以及30分钟夏令时的时区
+        for (String zone : new String[]{"Asia/Shanghai", "America/New_York", "Europe/London", "Australia/Lord_Howe"}) {
+            ZoneRules rules = ZoneId.of(zone).getRules();
+            ValueFormatter.ZoneOffsetTable zoneOffsets = new ValueFormatter.ZoneOffsetTable(rules);
+            for (int i = 0; i < SAMPLE_SIZE; i++) {
+                long epochSecond = random.nextLong(-5_000_000_000L, 10_000_000_000L);
+                assertTrue(zoneOffsets.contains(epochSecond));
+                assertEquals(rules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds(),
+                        zoneOffsets.getOffsetSeconds(epochSecond), zone + " " + epochSecond);
+            }
+            for (var transition : rules.getTransitions()) {
+                long epochSecond = transition.toEpochSecond();
+                assertEquals(transition.getOffsetBefore().getTotalSeconds(), zoneOffsets.getOffsetSeconds(epochSecond - 1));
+                assertEquals(transition.getOffsetAfter().getTotalSeconds(), zoneOffsets.getOffsetSeconds(epochSecond));
+            }
+        }
+    }
+
+    @Test
+    void formatWithZoneTest() {
+        SplittableRandom random = new SplittableRandom(5);
+        byte[] buffer = new byte[64];
+        for (String zone : new String[]{"Asia/Shanghai", "America/New_York", "Australia/Lord_Howe"}) {
+            ZoneId zoneId = ZoneId.of(zone);
+            ValueFormatter.ZoneOffsetTable zoneOffsets = new ValueFormatter.ZoneOffsetTable(zoneId.getRules());
+            DateTimeFormatter dateFormatter = DateTimeFormatter.ISO_LOCAL_DATE.withZone(zoneId);
+            DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME.withZone(zoneId);
+            for (int i = 0; i < SAMPLE_SIZE; i++) {
+                long epochSecond = random.nextLong(-5_000_000_000L, 10_000_000_000L);
+                int length = ValueFormatter.writeDate(epochSecond, zoneOffsets, buffer, 0);
+                assertEquals(dateFormatter.format(Instant.ofEpochSecond(epochSecond)),
+                        new String(buffer, 0, length, StandardCharsets.ISO_8859_1));
+                length = ValueFormatter.writeDateTime(epochSecond, zoneOffsets, buffer, 0);
+                assertEquals(dateTimeFormatter.format(Instant.ofEpochSecond(epochSecond)),
+                        new String(buffer, 0, length, StandardCharsets.ISO_8859_1));
+            }
+        }
+        // 超出转换规则的展开范围时退化到java.time
+        ValueFormatter.ZoneOffsetTable zoneOffsets = new ValueFormatter.ZoneOffsetTable(ZoneId.of("America/New_York").getRules());
+        assertEquals(-1, ValueFormatter.writeDate(20_000_000_000L, zoneOffsets, buffer, 0));
+        assertTrue(new ValueFormatter.ZoneOffsetTable(ZoneId.of("Asia/Shanghai").getRules()).contains(Long.MAX_VALUE - 1));
+    }
+}